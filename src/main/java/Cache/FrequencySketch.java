@@ -0,0 +1,82 @@
+package Cache;
+
+/**
+ * Count-min sketch of 4-bit counters used by {@link TinyLfuCache} to estimate how often a key has been seen.
+ *
+ * Each long holds sixteen counters, four for each of the four hash rows. Once the number of increments reaches
+ * ten times the cache size every counter is halved, so the popularity of keys that have gone cold decays.
+ * Not thread-safe; the cache only touches it while holding its policy lock.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long maximumSize) {
+        int capacity = (int) Math.min(Math.max(maximumSize, 16), 1 << 24);
+        this.table = new long[Integer.highestOneBit(capacity - 1) << 1];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * capacity;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < 4; row++) {
+            long h = rehash(hash, row);
+            long word = table[index(h)];
+            frequency = Math.min(frequency, (int) ((word >>> offset(h, row)) & 0xfL));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            long h = rehash(hash, row);
+            int index = index(h);
+            int offset = offset(h, row);
+            if (((table[index] >>> offset) & 0xfL) < MAX_COUNT) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    // Halve every counter so old popularity fades
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int index(long h) {
+        return (int) h & tableMask;
+    }
+
+    // Row r owns counters 4r..4r+3 of the word; pick one with bits the index did not use
+    private static int offset(long h, int row) {
+        return ((row << 2) + (int) ((h >>> 40) & 3)) << 2;
+    }
+
+    private static long rehash(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return h + (h >>> 32);
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
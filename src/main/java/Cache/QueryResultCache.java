@@ -0,0 +1,162 @@
+package Cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Caches query results by query key, bounded by the estimated memory the results hold rather than by count.
+ *
+ * Alongside the results it keeps a reverse index from each row's ID to the keys whose results contain it,
+ * so a write to one row drops exactly the cached queries that returned that row. Rows a query would newly
+ * match (an insert, say) cannot be found through the index; callers drop those with {@link #invalidateIf}.
+ *
+ * A result loaded from the database may already be out of date by the time it is cached, if a write landed
+ * while the query ran. Callers take a {@link #stamp()} before querying and hand it to {@link #put}, which
+ * discards the result if anything was invalidated since.
+ *
+ * Least recently used results are evicted first. All operations take one lock; they are short, and the
+ * cache is meant for the few dozen searches a desk repeats, not for hot per-row lookups.
+ */
+public final class QueryResultCache<T> {
+
+    private final long maximumWeight;
+    private final ToLongFunction<T> weigher;
+    private final ToIntFunction<T> idFunction;
+
+    private final LinkedHashMap<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Integer, Set<String>> keysById = new HashMap<>();
+    private long totalWeight;
+    private long invalidations;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public QueryResultCache(long maximumWeight, ToLongFunction<T> weigher, ToIntFunction<T> idFunction) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be greater than zero.");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = Objects.requireNonNull(weigher);
+        this.idFunction = Objects.requireNonNull(idFunction);
+    }
+
+    // The cached result for this key, or null
+    public synchronized List<T> get(String key) {
+        Entry<T> entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.rows;
+    }
+
+    // Take before running the query whose result will be passed to put
+    public synchronized long stamp() {
+        return invalidations;
+    }
+
+    // Cache a result, unless something was invalidated after the stamp was taken or it alone is too heavy
+    public synchronized void put(String key, List<T> rows, long stamp) {
+        if (stamp != invalidations) {
+            return;
+        }
+        long weight = key.length() * 2L;
+        for (T row : rows) {
+            weight += weigher.applyAsLong(row);
+        }
+        if (weight > maximumWeight) {
+            return;
+        }
+        remove(key);
+        Entry<T> entry = new Entry<>(Collections.unmodifiableList(new ArrayList<>(rows)), weight);
+        entries.put(key, entry);
+        totalWeight += weight;
+        for (T row : rows) {
+            keysById.computeIfAbsent(idFunction.applyAsInt(row), id -> new HashSet<>()).add(key);
+        }
+
+        Iterator<Map.Entry<String, Entry<T>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maximumWeight && eldest.hasNext()) {
+            Map.Entry<String, Entry<T>> victim = eldest.next();
+            eldest.remove();
+            forget(victim.getKey(), victim.getValue());
+            evictionCount++;
+        }
+    }
+
+    // Drop every cached result that contains the row with this ID
+    public synchronized void invalidateId(int id) {
+        invalidations++;
+        Set<String> keys = keysById.get(id);
+        if (keys != null) {
+            for (String key : new ArrayList<>(keys)) {
+                remove(key);
+            }
+        }
+    }
+
+    // Drop every cached result whose key matches, e.g. the searches a newly added row would appear in
+    public synchronized void invalidateIf(Predicate<String> keyMatches) {
+        invalidations++;
+        for (String key : new ArrayList<>(entries.keySet())) {
+            if (keyMatches.test(key)) {
+                remove(key);
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations++;
+        entries.clear();
+        keysById.clear();
+        totalWeight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return totalWeight;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hitCount, missCount, evictionCount);
+    }
+
+    private void remove(String key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry != null) {
+            forget(key, entry);
+        }
+    }
+
+    private void forget(String key, Entry<T> entry) {
+        totalWeight -= entry.weight;
+        for (T row : entry.rows) {
+            int id = idFunction.applyAsInt(row);
+            Set<String> keys = keysById.get(id);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysById.remove(id);
+                }
+            }
+        }
+    }
+
+    private record Entry<T>(List<T> rows, long weight) {
+    }
+}
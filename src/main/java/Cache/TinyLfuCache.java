@@ -0,0 +1,339 @@
+package Cache;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, thread-safe cache with W-TinyLFU eviction.
+ *
+ * New entries land in a small LRU admission window (1% of the capacity). When the window overflows, its
+ * oldest entry only gets into the main segmented-LRU space if a frequency sketch says it has been asked for
+ * more often than the entry it would displace, so a burst of one-off lookups cannot flush the hot set.
+ * Entries read again in the main space's probation segment are promoted to its protected segment (80%).
+ *
+ * Reads are lock-free map lookups. Recording an access takes the policy lock only if it is free; a
+ * contended read skips the bookkeeping rather than waiting. Writes and invalidations always take the lock.
+ */
+public final class TinyLfuCache<K, V> {
+
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessQueue<K, V> window = new AccessQueue<>(Region.WINDOW);
+    private final AccessQueue<K, V> probation = new AccessQueue<>(Region.PROBATION);
+    private final AccessQueue<K, V> protectedSegment = new AccessQueue<>(Region.PROTECTED);
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private TinyLfuCache(Builder<K, V> builder) {
+        this.maximumSize = builder.maximumSize;
+        this.expireAfterWriteNanos = builder.expireAfterWrite == null ? 0 : builder.expireAfterWrite.toNanos();
+        this.ticker = builder.ticker;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (maximumSize - windowMaximum) * 8 / 10;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    // Return the cached value, or null if it is absent or has expired
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            recordAccess(key, null);
+            return null;
+        }
+        if (isExpired(node, ticker.getAsLong())) {
+            missCount.increment();
+            expire(node);
+            return null;
+        }
+        hitCount.increment();
+        recordAccess(key, node);
+        return node.value;
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        long now = ticker.getAsLong();
+        policyLock.lock();
+        try {
+            sketch.increment(key);
+            Node<K, V> existing = data.get(key);
+            if (existing != null) {
+                existing.value = value;
+                existing.writtenAt = now;
+                onHit(existing);
+                return;
+            }
+            Node<K, V> node = new Node<>(key, value, now);
+            data.put(key, node);
+            window.addLast(node);
+            evictIfNeeded();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        policyLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        policyLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
+    private void recordAccess(K key, Node<K, V> node) {
+        if (!policyLock.tryLock()) {
+            return;
+        }
+        try {
+            sketch.increment(key);
+            if (node != null && node.region != null) {
+                onHit(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private void onHit(Node<K, V> node) {
+        switch (node.region) {
+            case WINDOW -> window.moveToBack(node);
+            case PROTECTED -> protectedSegment.moveToBack(node);
+            case PROBATION -> {
+                // Second access in the main space: promote, demoting the protected segment's oldest if it is full
+                probation.remove(node);
+                protectedSegment.addLast(node);
+                while (protectedSegment.size > protectedMaximum) {
+                    Node<K, V> demoted = protectedSegment.pollFirst();
+                    probation.addLast(demoted);
+                }
+            }
+        }
+    }
+
+    private void evictIfNeeded() {
+        Node<K, V> candidate = null;
+        while (window.size > windowMaximum) {
+            candidate = window.pollFirst();
+            probation.addLast(candidate);
+        }
+        while (data.size() > maximumSize) {
+            Node<K, V> victim = probation.peekFirst();
+            if (candidate == null || victim == null || victim == candidate) {
+                evict(victim != null ? victim : protectedSegment.peekFirst() != null ? protectedSegment.peekFirst() : window.peekFirst());
+                candidate = null;
+            } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+                candidate = null;
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+        if (data.remove(node.key, node)) {
+            evictionCount.increment();
+        }
+        unlink(node);
+    }
+
+    private void expire(Node<K, V> node) {
+        policyLock.lock();
+        try {
+            if (node.region != null) {
+                evict(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writtenAt >= expireAfterWriteNanos;
+    }
+
+    private void unlink(Node<K, V> node) {
+        if (node.region == null) {
+            return;
+        }
+        switch (node.region) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedSegment.remove(node);
+        }
+    }
+
+    public static final class Builder<K, V> {
+        private long maximumSize = 1_000;
+        private Duration expireAfterWrite;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder() {
+        }
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("Maximum size must be greater than zero.");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        // Drop entries this long after they were written, so changes made elsewhere are picked up eventually
+        public Builder<K, V> expireAfterWrite(Duration expireAfterWrite) {
+            if (expireAfterWrite.isNegative() || expireAfterWrite.isZero()) {
+                throw new IllegalArgumentException("Expiry must be positive.");
+            }
+            this.expireAfterWrite = expireAfterWrite;
+            return this;
+        }
+
+        // Source of nanosecond time; tests substitute a manual clock
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker);
+            return this;
+        }
+
+        public TinyLfuCache<K, V> build() {
+            return new TinyLfuCache<>(this);
+        }
+    }
+
+    private enum Region {
+        WINDOW, PROBATION, PROTECTED
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile long writtenAt;
+        Region region;
+        Node<K, V> previous;
+        Node<K, V> next;
+
+        Node(K key, V value, long writtenAt) {
+            this.key = key;
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list in access order, oldest first. Guarded by the policy lock.
+     */
+    private static final class AccessQueue<K, V> {
+        private final Region region;
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        private long size;
+
+        AccessQueue(Region region) {
+            this.region = region;
+        }
+
+        void addLast(Node<K, V> node) {
+            node.region = region;
+            node.previous = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        Node<K, V> peekFirst() {
+            return head;
+        }
+
+        Node<K, V> pollFirst() {
+            Node<K, V> first = head;
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.previous == null) {
+                head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            node.region = null;
+            size--;
+        }
+
+        void clear() {
+            for (Node<K, V> node = head; node != null; ) {
+                Node<K, V> next = node.next;
+                node.previous = null;
+                node.next = null;
+                node.region = null;
+                node = next;
+            }
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package Controller;
 
+import DAO.Page;
+import DAO.PageRequest;
 import Service.BookService;
+import Service.FacetIndex;
+import Service.Isbn;
+import Service.ServiceRegistry;
 import Entity.Book;
 import Entity.Enums.BookStatus;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 
 public class BookController {
     private BookService bookService;
 
     public BookController() {
-        this.bookService = new BookService();
+        this.bookService = ServiceRegistry.get().getBookService();
     }
 
     // Add a new book
@@ -34,6 +41,36 @@ public class BookController {
         return FXCollections.observableArrayList(books);
     }
 
+    // The best matches for what has been typed into the search field so far
+    public ObservableList<Book> filterBooks(String query, int limit) throws Exception {
+        return FXCollections.observableArrayList(bookService.filterBooks(query, limit));
+    }
+
+    // The best matches for the search field among the books with every chosen facet value
+    public ObservableList<Book> filterBooks(String query, Map<FacetIndex.Facet, String> selection, int limit) throws Exception {
+        return FXCollections.observableArrayList(bookService.filterBooks(query, selection, limit));
+    }
+
+    // Counts for each genre, status, decade and author initial, given the values already chosen
+    public Map<FacetIndex.Facet, SortedMap<String, Integer>> getFacetCounts(Map<FacetIndex.Facet, String> selection) throws Exception {
+        return bookService.getFacetCounts(selection);
+    }
+
+    // Books with every chosen facet value
+    public ObservableList<Book> browseBooks(Map<FacetIndex.Facet, String> selection) throws Exception {
+        return FXCollections.observableArrayList(bookService.browseBooks(selection));
+    }
+
+    // The first books whose title starts with the prefix, for type-ahead pickers
+    public List<Book> suggestBooks(String prefix, int limit) throws Exception {
+        return bookService.suggestBooks(prefix, limit);
+    }
+
+    // Retrieve one page of books, optionally filtered by status and genre
+    public Page<Book> getBooksPage(PageRequest request, BookStatus status, String genre) throws Exception {
+        return bookService.getBooksPage(request, status, genre);
+    }
+
     // Update the status of a book
     public void updateBookStatus(int bookId, BookStatus status) throws Exception {
         bookService.updateBookStatus(bookId, status);
@@ -44,10 +81,19 @@ public class BookController {
         bookService.deleteBook(bookId);
     }
 
-    // Helper method to generate ISBN (simplified version)
-    private String generateISBN() {
-        // Generate a random 13-digit ISBN (simplified)
-        return "978" + String.format("%010d", (long) (Math.random() * 10000000000L));
+    // Helper method to generate a valid ISBN-13 that no other book has
+    private String generateISBN() throws Exception {
+        String isbn;
+        do {
+            long firstTwelve = 978_000_000_000L + (long) (Math.random() * 1_000_000_000L);
+            isbn = Isbn.format(Isbn.withCheckDigit(firstTwelve));
+        } while (bookService.isIsbnInUse(isbn));
+        return isbn;
+    }
+
+    // Look up a book by a scanned or typed ISBN
+    public Book findByIsbn(String isbn) throws Exception {
+        return bookService.findByIsbn(isbn);
     }
 
     // Add a setter for bookService to allow injection in tests
@@ -1,7 +1,10 @@
 package Controller;
 
+import DAO.Page;
+import DAO.PageRequest;
 import Entity.Patron;
 import Service.PatronService;
+import Service.ServiceRegistry;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -11,7 +14,7 @@ public class PatronController {
     private PatronService patronService;
 
     public PatronController() {
-        this.patronService = new PatronService();
+        this.patronService = ServiceRegistry.get().getPatronService();
     }
 
     // Setter for PatronService (to allow injection in tests)
@@ -54,6 +57,16 @@ public class PatronController {
         }
     }
 
+    // Get one page of patrons, optionally filtered by last name prefix
+    public Page<Patron> getPatronsPage(PageRequest request, String lastNamePrefix) {
+        try {
+            return patronService.getPatronsPage(request, lastNamePrefix);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving patrons: " + e.getMessage());
+            return new Page<>(List.of(), null); // Return an empty page in case of an error
+        }
+    }
+
     // Update a patron's address
     public void updatePatronAddress(int patronId, String address) {
         try {
@@ -1,8 +1,12 @@
 package Controller;
 
+import DAO.Page;
+import DAO.PageRequest;
 import Entity.Reservation;
+import Entity.ReservationDetails;
 import Entity.Enums.ReservationStatus;
 import Service.ReservationService;
+import Service.ServiceRegistry;
 
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -13,7 +17,7 @@ public class ReservationController {
     private final ReservationService reservationService;
 
     public ReservationController() {
-        this.reservationService = new ReservationService();
+        this.reservationService = ServiceRegistry.get().getReservationService();
     }
 
     // Constructor allowing dependency injection
@@ -51,6 +55,26 @@ public class ReservationController {
         return new ArrayList<>();  // Return an empty list in case of an error
     }
 
+    // Get all reservations with patron names and book titles, ready for the reservations table
+    public List<ReservationDetails> getAllReservationDetails() {
+        try {
+            return reservationService.getAllReservationDetails();
+        } catch (SQLException e) {
+            System.err.println("Error retrieving reservations: " + e.getMessage());
+        }
+        return new ArrayList<>();  // Return an empty list in case of an error
+    }
+
+    // Get one page of reservations, optionally filtered by status
+    public Page<Reservation> getReservationsPage(PageRequest request, ReservationStatus status) {
+        try {
+            return reservationService.getReservationsPage(request, status);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving reservations: " + e.getMessage());
+        }
+        return new Page<>(new ArrayList<>(), null);  // Return an empty page in case of an error
+    }
+
 
 
     // Delete a reservation
@@ -2,6 +2,7 @@ package Controller;
 
 import DAO.StaffDAO;
 import Entity.Staff;
+import Service.ServiceRegistry;
 import Service.StaffService;
 
 import java.util.List;
@@ -13,7 +14,7 @@ public class StaffController {
 
     public StaffController() {
         this.staffDAO = new StaffDAO();
-        this.staffService = new StaffService();
+        this.staffService = ServiceRegistry.get().getStaffService();
     }
 
     // Constructor injection: Inject dependencies into the constructor
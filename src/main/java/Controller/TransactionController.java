@@ -1,9 +1,12 @@
 package Controller;
 
+import DAO.Page;
+import DAO.PageRequest;
 import Entity.Enums.BookStatus;
 import Entity.Enums.TransactionType;
 import Entity.Transaction;
 import Service.BookService;
+import Service.ServiceRegistry;
 import Service.TransactionService;
 
 import java.math.BigDecimal;
@@ -17,8 +20,9 @@ public class TransactionController {
     protected BookService bookService;
 
     public TransactionController() {
-        this.transactionService = new TransactionService();
-        this.bookService = new BookService();
+        ServiceRegistry services = ServiceRegistry.get();
+        this.transactionService = services.getTransactionService();
+        this.bookService = services.getBookService();
     }
 
     // Add a new transaction
@@ -51,8 +55,28 @@ public class TransactionController {
         }
     }
 
+    // Get one page of transactions, optionally filtered by type and patron
+    public Page<Transaction> getTransactionsPage(PageRequest request, TransactionType type, Integer patronId, boolean orderByDueDate) {
+        try {
+            return transactionService.getTransactionsPage(request, type, patronId, orderByDueDate);
+        } catch (RuntimeException e) {
+            System.err.println("Error retrieving transactions: " + e.getMessage());
+            throw e;  // Rethrow to handle in view
+        }
+    }
+
 
 
+    // Transactions matching the search text (a transaction, patron or book ID), type and borrow date
+    public List<Transaction> searchTransactions(String text, TransactionType type, LocalDate borrowDate) {
+        try {
+            return transactionService.searchTransactions(text, type, borrowDate);
+        } catch (RuntimeException e) {
+            System.err.println("Error searching transactions: " + e.getMessage());
+            throw e;  // Rethrow to handle in view
+        }
+    }
+
     // Delete a transaction by ID
     public void deleteTransaction(int transactionId) {
         try {
@@ -4,6 +4,7 @@ import Controller.BookController;
 import Controller.TransactionController;
 import Entity.Book;
 import Entity.Enums.BookStatus;
+import Service.FacetIndex.Facet;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -16,7 +17,11 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.stage.Stage;
 
 import java.net.URL;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.SortedMap;
 
 /**
  * Controller for managing book-related operations in the view.
@@ -27,6 +32,8 @@ public class BookViewController implements Initializable {
 
     private final BookController bookController = new BookController();
     private ObservableList<Book> bookList;
+    private static final int FILTER_LIMIT = 200;
+    private static final SortedMap<String, Integer> EMPTY_COUNTS = Collections.emptySortedMap();
 
     @FXML private TextField titleField;
     @FXML private TextField authorField;
@@ -41,6 +48,14 @@ public class BookViewController implements Initializable {
     @FXML private TableColumn<Book, String> genreColumn;
     @FXML private TableColumn<Book, Integer> yearColumn;
     @FXML private TableColumn<Book, BookStatus> statusColumn;
+    @FXML private ComboBox<String> genreFacet;
+    @FXML private ComboBox<String> statusFacet;
+    @FXML private ComboBox<String> decadeFacet;
+    @FXML private ComboBox<String> initialFacet;
+
+    private final Map<Facet, ComboBox<String>> facetBoxes = new EnumMap<>(Facet.class);
+    private Map<Facet, SortedMap<String, Integer>> facetCounts = Map.of();
+    private boolean updatingFacets; // Set while the facet lists are refilled, so their listeners stay quiet
 
     /**
      * Initializes the view components and populates the table with book data.
@@ -63,6 +78,7 @@ public class BookViewController implements Initializable {
 
         // Add search listener
         searchField.textProperty().addListener((observable, oldValue, newValue) -> filterBooks(newValue));
+        setupFacets();
 
         // Load initial data
         loadBooks();
@@ -161,6 +177,8 @@ public class BookViewController implements Initializable {
         try {
             bookList = bookController.getAllBooks();
             bookTable.setItems(bookList);
+            updateFacets();
+            filterBooks(searchField.getText());
         } catch (Exception e) {
             showAlert(Alert.AlertType.ERROR, "Error", "Failed to load books: " + e.getMessage());
         }
@@ -168,17 +186,113 @@ public class BookViewController implements Initializable {
 
     /**
      * Filters the book list based on the search text entered by the user.
-     * The search is case-insensitive and checks if the text appears in the title, author, or genre.
+     * The search is case-insensitive and answered from the catalog's word index: every word must appear in the
+     * title, author, or genre, and the last word may be partly typed. The best matches are listed first.
      * @param searchText The text entered by the user to filter the book list.
      */
     private void filterBooks(String searchText) {
-        if (bookList != null) {
-            ObservableList<Book> filteredList = bookList.filtered(book ->
-                    book.getTitle().toLowerCase().contains(searchText.toLowerCase()) ||
-                            book.getAuthor().toLowerCase().contains(searchText.toLowerCase()) ||
-                            book.getGenre().toLowerCase().contains(searchText.toLowerCase())
-            );
-            bookTable.setItems(filteredList);
+        if (bookList == null) {
+            return;
+        }
+        Map<Facet, String> selection = facetSelection();
+        try {
+            if (searchText == null || searchText.isBlank()) {
+                bookTable.setItems(selection.isEmpty() ? bookList : bookController.browseBooks(selection));
+                return;
+            }
+            bookTable.setItems(bookController.filterBooks(searchText, selection, FILTER_LIMIT));
+        } catch (Exception e) {
+            System.err.println("Error filtering books: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets up the facet pickers (genre, status, decade, author initial). Each value is shown with the number
+     * of books it would leave, given the values picked on the other facets.
+     */
+    private void setupFacets() {
+        facetBoxes.put(Facet.GENRE, genreFacet);
+        facetBoxes.put(Facet.STATUS, statusFacet);
+        facetBoxes.put(Facet.DECADE, decadeFacet);
+        facetBoxes.put(Facet.AUTHOR_INITIAL, initialFacet);
+        facetBoxes.forEach((facet, comboBox) -> {
+            comboBox.setCellFactory(list -> new FacetCell(facet));
+            comboBox.setButtonCell(new FacetCell(facet));
+            comboBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+                if (!updatingFacets) {
+                    updateFacets();
+                    filterBooks(searchField.getText());
+                }
+            });
+        });
+    }
+
+    /**
+     * Recounts every facet for the current selection and refills the pickers, keeping what is picked.
+     */
+    private void updateFacets() {
+        try {
+            facetCounts = bookController.getFacetCounts(facetSelection());
+        } catch (Exception e) {
+            System.err.println("Error counting facets: " + e.getMessage());
+            return;
+        }
+        updatingFacets = true;
+        try {
+            facetBoxes.forEach((facet, comboBox) -> {
+                String selected = comboBox.getValue();
+                comboBox.getItems().setAll(facetCounts.getOrDefault(facet, EMPTY_COUNTS).keySet());
+                comboBox.setValue(selected);
+            });
+        } finally {
+            updatingFacets = false;
+        }
+    }
+
+    /**
+     * Clears every facet picker and shows the whole catalog again.
+     */
+    @FXML
+    private void handleClearFacets() {
+        updatingFacets = true;
+        try {
+            facetBoxes.values().forEach(comboBox -> comboBox.setValue(null));
+        } finally {
+            updatingFacets = false;
+        }
+        updateFacets();
+        filterBooks(searchField.getText());
+    }
+
+    private Map<Facet, String> facetSelection() {
+        Map<Facet, String> selection = new EnumMap<>(Facet.class);
+        facetBoxes.forEach((facet, comboBox) -> {
+            if (comboBox.getValue() != null) {
+                selection.put(facet, comboBox.getValue());
+            }
+        });
+        return selection;
+    }
+
+    /**
+     * Shows a facet value with its count, e.g. "Science (412)".
+     */
+    private final class FacetCell extends ListCell<String> {
+        private final Facet facet;
+
+        FacetCell(Facet facet) {
+            this.facet = facet;
+        }
+
+        @Override
+        protected void updateItem(String value, boolean empty) {
+            super.updateItem(value, empty);
+            if (empty || value == null) {
+                setText(null);
+                return;
+            }
+            Integer count = facetCounts.getOrDefault(facet, EMPTY_COUNTS).get(value);
+            setText(count == null ? value : value + " (" + count + ")");
         }
     }
 
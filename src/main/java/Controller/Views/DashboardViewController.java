@@ -1,7 +1,9 @@
 package Controller.Views;
 
 import Entity.Staff;
-import Service.BookService;
+import Entity.LibraryStatistics;
+import Service.ServiceRegistry;
+import Service.StatisticsService;
 import javafx.fxml.FXML;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -22,6 +24,9 @@ import javafx.stage.Stage;
 import org.example.librarymanagementsys.HelloApplication;
 
 import java.net.URL;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Locale;
 import java.util.ResourceBundle;
 
 /**
@@ -40,7 +45,9 @@ public class DashboardViewController implements Initializable {
     @FXML private ImageView nkrumahImageView;
     @FXML private ImageView maathaiImageView;
     @FXML private HBox dashBox;
-    private BookService bookService;
+    private static final int CIRCULATION_MONTHS = 6;
+    private StatisticsService statisticsService;
+    private LibraryStatistics statistics;
 
     @FXML private BarChart<String, Number> circulationChart;
     @FXML private PieChart categoryChart;
@@ -65,7 +72,7 @@ public class DashboardViewController implements Initializable {
      */
     @Override
     public void initialize(URL url, ResourceBundle rb) {
-        this.bookService = new BookService();
+        this.statisticsService = ServiceRegistry.get().getStatisticsService();
         loadDashboardStats();
         verifyImages();
         populateCharts(); // Call method to populate charts with data
@@ -97,17 +104,15 @@ public class DashboardViewController implements Initializable {
     /**
      * Loads the dashboard statistics from the service layer and updates the UI labels accordingly.
      * The statistics include total books, active patrons, active transactions, and pending reservations.
+     * They come from the in-memory circulation counters, so returning to the dashboard does not query the database.
      */
     private void loadDashboardStats() {
         try {
-            // For now, using dummy data
-            int totalBooks = bookService.getAllBooks().size();
-            totalBooksLabel.setText(String.valueOf(totalBooks));
-
-            activePatronsLabel.setText(String.valueOf(34));
-
-            activeTransactionsLabel.setText(String.valueOf(89));
-            pendingReservationsLabel.setText(String.valueOf(22));
+            statistics = statisticsService.getStatistics();
+            totalBooksLabel.setText(String.valueOf(statistics.getTotalBooks()));
+            activePatronsLabel.setText(String.valueOf(statistics.getActivePatrons()));
+            activeTransactionsLabel.setText(String.valueOf(statistics.getOpenLoans()));
+            pendingReservationsLabel.setText(String.valueOf(statistics.getPendingReservations()));
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -115,24 +120,25 @@ public class DashboardViewController implements Initializable {
 
     /**
      * Populates the charts (BarChart and PieChart) with book circulation and category distribution data.
-     * The data is hardcoded for now.
+     * The circulation chart shows loans for the last few months and the category chart the book count per genre.
      */
     private void populateCharts() {
         // BarChart: Book Circulation Data
         XYChart.Series<String, Number> circulationSeries = new XYChart.Series<>();
         circulationSeries.setName("Book Circulation");
-        circulationSeries.getData().add(new XYChart.Data<>("January", 120));
-        circulationSeries.getData().add(new XYChart.Data<>("February", 150));
-        circulationSeries.getData().add(new XYChart.Data<>("March", 180));
-        circulationSeries.getData().add(new XYChart.Data<>("April", 200));
+        if (statistics != null) {
+            YearMonth thisMonth = YearMonth.now();
+            for (YearMonth month = thisMonth.minusMonths(CIRCULATION_MONTHS - 1); !month.isAfter(thisMonth); month = month.plusMonths(1)) {
+                String label = month.getMonth().getDisplayName(TextStyle.FULL, Locale.getDefault());
+                circulationSeries.getData().add(new XYChart.Data<>(label, statistics.getLoansPerMonth().getOrDefault(month, 0L)));
+            }
+        }
         circulationChart.getData().add(circulationSeries);
 
         // PieChart: Categories Data
-        PieChart.Data fictionData = new PieChart.Data("Fiction", 40);
-        PieChart.Data nonFictionData = new PieChart.Data("Non-fiction", 30);
-        PieChart.Data scienceData = new PieChart.Data("Science", 20);
-        PieChart.Data historyData = new PieChart.Data("History", 10);
-        categoryChart.getData().addAll(fictionData, nonFictionData, scienceData, historyData);
+        if (statistics != null) {
+            statistics.getBooksByGenre().forEach((genre, count) -> categoryChart.getData().add(new PieChart.Data(genre, count)));
+        }
     }
 
     /**
@@ -2,6 +2,7 @@ package Controller.Views;
 
 import Entity.Patron;
 import Service.PatronService;
+import Service.ServiceRegistry;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -45,7 +46,7 @@ public class PatronViewController implements Initializable {
      */
     @Override
     public void initialize(URL url, ResourceBundle rb) {
-        patronService = new PatronService();
+        patronService = ServiceRegistry.get().getPatronService();
         patronList = FXCollections.observableArrayList();
 
         // Initialize table columns
@@ -7,8 +7,10 @@ import Entity.Book;
 import Entity.Enums.BookStatus;
 import Entity.Patron;
 import Entity.Reservation;
+import Entity.ReservationDetails;
 import Entity.Enums.ReservationStatus;
 import Service.PatronService;
+import Service.ServiceRegistry;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
@@ -24,8 +26,9 @@ import javafx.stage.Stage;
 import javafx.util.StringConverter;
 
 import java.io.IOException;
-import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Controller for the Reservations view in the library management system.
@@ -33,14 +36,14 @@ import java.time.LocalDate;
  * interacting with the ReservationController, PatronController, and BookController.
  */
 public class ReservationsViewController {
-    @FXML private TableView<Reservation> reservationsTable;
-    @FXML private TableColumn<Reservation, Integer> idColumn;
-    @FXML private TableColumn<Reservation, String> patronColumn; // Corrected to String
-    @FXML private TableColumn<Reservation, String> bookColumn; // Corrected to String
-    @FXML private TableColumn<Reservation, LocalDate> dateColumn;
-    @FXML private TableColumn<Reservation, ReservationStatus> statusColumn;
-    @FXML private TableColumn<Reservation, LocalDate> dueDateColumn;
-    @FXML private TableColumn<Reservation, Void> actionsColumn;
+    @FXML private TableView<ReservationDetails> reservationsTable;
+    @FXML private TableColumn<ReservationDetails, Integer> idColumn;
+    @FXML private TableColumn<ReservationDetails, String> patronColumn; // Corrected to String
+    @FXML private TableColumn<ReservationDetails, String> bookColumn; // Corrected to String
+    @FXML private TableColumn<ReservationDetails, LocalDate> dateColumn;
+    @FXML private TableColumn<ReservationDetails, ReservationStatus> statusColumn;
+    @FXML private TableColumn<ReservationDetails, LocalDate> dueDateColumn;
+    @FXML private TableColumn<ReservationDetails, Void> actionsColumn;
 
     @FXML private TextField searchField;
     @FXML private ComboBox<ReservationStatus> statusFilter;
@@ -52,11 +55,12 @@ public class ReservationsViewController {
     @FXML private Label cancelledCount;
 
     private final ReservationController reservationController;
-    private final ObservableList<Reservation> reservationsList;
-    private FilteredList<Reservation> filteredReservations;
+    private final ObservableList<ReservationDetails> reservationsList;
+    private FilteredList<ReservationDetails> filteredReservations;
     private PatronController patronController;
     private BookController bookController = new BookController();
-    private PatronService patronService = new PatronService();
+    private PatronService patronService = ServiceRegistry.get().getPatronService();
+    private static final int SUGGESTION_LIMIT = 20;
 
     public ReservationsViewController() {
         this.reservationController = new ReservationController();
@@ -114,20 +118,9 @@ public class ReservationsViewController {
      */
     private void setupTable() {
         idColumn.setCellValueFactory(new PropertyValueFactory<>("reservationId"));
-        patronColumn.setCellValueFactory(cellData -> {
-            try {
-                return new javafx.beans.property.SimpleStringProperty(cellData.getValue().getPatronName());
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-        });  // Corrected to patronName String
-        bookColumn.setCellValueFactory(cellData -> {
-            try {
-                return new javafx.beans.property.SimpleStringProperty(cellData.getValue().getBookTitle());
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
-            }
-        }); // Corrected to bookTitle String
+        // Names come with the rows from the joined query; rendering a cell never touches the database
+        patronColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getPatronName()));
+        bookColumn.setCellValueFactory(cellData -> new javafx.beans.property.SimpleStringProperty(cellData.getValue().getBookTitle()));
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("reservationDate"));
         statusColumn.setCellValueFactory(new PropertyValueFactory<>("status"));
         dueDateColumn.setCellValueFactory(new PropertyValueFactory<>("dueDate"));
@@ -186,7 +179,7 @@ public class ReservationsViewController {
      */
     private void loadReservations() {
         reservationsList.clear();
-        reservationsList.addAll(reservationController.getAllReservations());
+        reservationsList.addAll(reservationController.getAllReservationDetails());
         reservationsTable.setItems(filteredReservations);
     }
 
@@ -288,6 +281,49 @@ public class ReservationsViewController {
         });
     }
 
+    /**
+     * Makes a combo box a type-ahead picker. Every edit of its text replaces the drop-down with the first
+     * matches for what has been typed, so only a handful of items are ever held by the control.
+     */
+    private <T> void setupTypeAhead(ComboBox<T> comboBox, Function<T, String> label, Suggestions<T> suggestions) throws Exception {
+        comboBox.setEditable(true);
+        comboBox.setConverter(new StringConverter<T>() {
+            @Override
+            public String toString(T item) {
+                return item != null ? label.apply(item) : "";
+            }
+
+            @Override
+            public T fromString(String text) {
+                return comboBox.getItems().stream().filter(item -> label.apply(item).equals(text)).findFirst().orElse(null);
+            }
+        });
+        comboBox.getItems().setAll(suggestions.suggest("", SUGGESTION_LIMIT));
+
+        comboBox.getEditor().textProperty().addListener((observable, oldValue, newValue) -> {
+            T selected = comboBox.getValue();
+            if (selected != null && label.apply(selected).equals(newValue)) {
+                return; // The text was filled in by picking an item
+            }
+            try {
+                comboBox.getItems().setAll(suggestions.suggest(newValue, SUGGESTION_LIMIT));
+                if (comboBox.getEditor().isFocused() && !comboBox.getItems().isEmpty()) {
+                    comboBox.show();
+                }
+            } catch (Exception e) {
+                System.err.println("Error fetching suggestions: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Looks up the first matches for a typed prefix.
+     */
+    @FunctionalInterface
+    private interface Suggestions<T> {
+        List<T> suggest(String prefix, int limit) throws Exception;
+    }
+
     /**
      * Opens a dialog to add a new reservation with the selected patron, book, and due date.
      */
@@ -303,48 +339,14 @@ public class ReservationsViewController {
 
         VBox dialogContent = new VBox(10);
 
-        // Initialize patron combo box
+        // Pickers ask for the first few matches as the user types instead of listing every patron and book
         ComboBox<Patron> patronComboBox = new ComboBox<>();
-        try {
-            ObservableList<Patron> patrons = FXCollections.observableArrayList(patronService.getAllPatrons());
-            patronComboBox.setItems(patrons);
-        } catch (SQLException e) {
-            showError("Error Loading Patrons", "Failed to fetch patrons: " + e.getMessage());
-            return;
-        }
-
-        patronComboBox.setConverter(new StringConverter<Patron>() {
-            @Override
-            public String toString(Patron patron) {
-                return patron != null ? patron.getFirstName() + " " + patron.getLastName() : "";
-            }
-
-            @Override
-            public Patron fromString(String string) {
-                return null; // Not used
-            }
-        });
-
-        // Initialize book combo box
         ComboBox<Book> bookComboBox = new ComboBox<>();
-        bookComboBox.setEditable(false);
-        bookComboBox.setConverter(new StringConverter<Book>() {
-            @Override
-            public String toString(Book book) {
-                return book != null ? book.getTitle() : "";
-            }
-
-            @Override
-            public Book fromString(String string) {
-                return null; // Not used
-            }
-        });
-
         try {
-            ObservableList<Book> books = FXCollections.observableArrayList(bookController.getAllBooks());
-            bookComboBox.setItems(books);
+            setupTypeAhead(patronComboBox, patron -> patron.getFirstName() + " " + patron.getLastName(), patronService::suggestPatrons);
+            setupTypeAhead(bookComboBox, Book::getTitle, bookController::suggestBooks);
         } catch (Exception e) {
-            showError("Error Loading Books", "Failed to fetch books: " + e.getMessage());
+            showError("Error Loading Reservation Form", "Failed to fetch patrons and books: " + e.getMessage());
             return;
         }
 
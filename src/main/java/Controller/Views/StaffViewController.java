@@ -1,6 +1,7 @@
 package Controller.Views;
 
 import Entity.Staff;
+import Service.ServiceRegistry;
 import Service.StaffService;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -40,7 +41,7 @@ public class StaffViewController implements Initializable {
     @FXML private TableColumn<Staff, String> phoneColumn;
     @FXML private TableColumn<Staff, LocalDate> hireDateColumn;
 
-    private final StaffService staffService = new StaffService();
+    private final StaffService staffService = ServiceRegistry.get().getStaffService();
     private final ObservableList<Staff> staffList = FXCollections.observableArrayList();
 
     @Override
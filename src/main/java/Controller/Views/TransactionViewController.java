@@ -3,9 +3,13 @@ package Controller.Views;
 import Entity.Transaction;
 import Entity.Enums.TransactionType;
 import Controller.TransactionController;
+import DAO.Page;
+import DAO.PageRequest;
+import javafx.geometry.Orientation;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
+import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -55,9 +59,12 @@ public class TransactionViewController implements Initializable {
     @FXML private Button borrowButton; // New button for borrowing books
     @FXML private Button returnButton; // New button for returning books
 
+    private static final int PAGE_SIZE = 200;
+
     private final TransactionController transactionController;
     private final ObservableList<Transaction> transactionList = FXCollections.observableArrayList();
     private Transaction currentTransaction; // For editing existing transactions
+    private PageRequest nextPage; // Cursor for the next page, null when everything is loaded
 
 
 
@@ -99,9 +106,27 @@ public class TransactionViewController implements Initializable {
         typeColumn.setCellValueFactory(new PropertyValueFactory<>("transactionType"));
 
         setupActionColumn();
+        setupPaging();
         transactionTable.setItems(transactionList);
     }
 
+    /**
+     * Loads the next page of transactions when the table is scrolled to the bottom.
+     */
+    private void setupPaging() {
+        transactionTable.skinProperty().addListener((observable, oldSkin, newSkin) -> {
+            for (Node node : transactionTable.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                    scrollBar.valueProperty().addListener((obs, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= scrollBar.getMax()) {
+                            loadNextPage();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
 
     /**
      * Sets up the action column with edit and delete buttons for each transaction.
@@ -185,53 +210,52 @@ public class TransactionViewController implements Initializable {
     }
 
     /**
-     * Loads all transactions from the controller and adds them to the table view.
+     * Loads the first page of transactions, newest first, into the table view.
      */
     private void loadTransactions() {
         transactionList.clear();
+        nextPage = PageRequest.firstPage(PAGE_SIZE, true);
+        loadNextPage();
+    }
+
+    /**
+     * Appends the next page of transactions to the table view, if there is one.
+     */
+    private void loadNextPage() {
+        if (nextPage == null) {
+            return;
+        }
         try {
-            transactionList.addAll(transactionController.getAllTransactions());
+            Page<Transaction> page = transactionController.getTransactionsPage(nextPage, null, null, false);
+            transactionList.addAll(page.getItems());
+            nextPage = page.getNextPageRequest();
         } catch (Exception e) {
+            nextPage = null;
             showError("Error loading transactions", e.getMessage());
         }
     }
 
     /**
      * Filters the transactions based on search criteria (text, type, date).
+     * The text is a transaction, patron or book ID. Filters are answered from the in-memory transaction
+     * store, so typing does not query the database.
      */
     private void handleSearch() {
-        String searchText = searchField.getText().toLowerCase();
+        String searchText = searchField.getText().trim();
         TransactionType selectedType = filterType.getValue();
         LocalDate selectedDate = dateFilter.getValue();
 
-        transactionList.clear();
-        transactionList.addAll(transactionController.getAllTransactions().stream()
-                .filter(t -> matchesSearchCriteria(t, searchText, selectedType, selectedDate))
-                .toList());
-    }
-
+        if (searchText.isEmpty() && selectedType == null && selectedDate == null) {
+            loadTransactions();
+            return;
+        }
 
-    /**
-     * Determines if a transaction matches the search criteria.
-     *
-     * @param t the transaction to check
-     * @param searchText the search text
-     * @param type the selected transaction type
-     * @param date the selected date
-     * @return true if the transaction matches the search criteria, false otherwise
-     */
-    private boolean matchesSearchCriteria(Transaction t, String searchText,
-                                          TransactionType type, LocalDate date) {
-        boolean matchesText = searchText.isEmpty() ||
-                String.valueOf(t.getTransactionId()).contains(searchText) ||
-                String.valueOf(t.getPatronId()).contains(searchText) ||
-                String.valueOf(t.getBookId()).contains(searchText);
-
-        boolean matchesType = type == null || t.getTransactionType() == type;
-        boolean matchesDate = date == null ||
-                (t.getBorrowDate() != null && t.getBorrowDate().equals(date));
-
-        return matchesText && matchesType && matchesDate;
+        nextPage = null; // Filtered results are not paged
+        try {
+            transactionList.setAll(transactionController.searchTransactions(searchText, selectedType, selectedDate));
+        } catch (Exception e) {
+            showError("Error searching transactions", e.getMessage());
+        }
     }
 
     /**
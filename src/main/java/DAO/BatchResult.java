@@ -0,0 +1,86 @@
+package DAO;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a batched write. A batch runs in a single transaction: if any row fails the whole batch
+ * is rolled back and {@link #getFailures()} lists every row the database rejected, so the caller can
+ * fix or drop those rows and resubmit.
+ */
+public class BatchResult<T> {
+    private final int requestedRows;
+    private final int writtenRows;
+    private final boolean committed;
+    private final List<RowFailure<T>> failures;
+
+    BatchResult(int requestedRows, int writtenRows, boolean committed, List<RowFailure<T>> failures) {
+        this.requestedRows = requestedRows;
+        this.writtenRows = writtenRows;
+        this.committed = committed;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    public int getRequestedRows() {
+        return requestedRows;
+    }
+
+    // Rows that are now in the database; zero when the batch was rolled back
+    public int getWrittenRows() {
+        return writtenRows;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public List<RowFailure<T>> getFailures() {
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "requested=" + requestedRows +
+                ", written=" + writtenRows +
+                ", committed=" + committed +
+                ", failures=" + failures.size() +
+                '}';
+    }
+
+    /**
+     * A row the database rejected, identified by its position in the submitted list.
+     */
+    public static class RowFailure<T> {
+        private final int index;
+        private final T item;
+        private final String message;
+
+        RowFailure(int index, T item, String message) {
+            this.index = index;
+            this.item = item;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public T getItem() {
+            return item;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Row " + index + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package DAO;
+
+import DatabaseConnection.DatabaseUtil;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Sends one parameterised statement for many rows using addBatch/executeBatch, {@code batchSize} rows
+ * per round trip, all inside one transaction. With {@code rewriteBatchedStatements=true} on the
+ * connection URL Connector/J turns each chunk of INSERTs into a single multi-row INSERT.
+ */
+final class BatchWriter {
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    @FunctionalInterface
+    interface Binder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface FollowUp {
+        void run(Connection conn) throws SQLException;
+    }
+
+    private BatchWriter() {
+    }
+
+    /**
+     * When {@code keySetter} is non-null the statement is prepared with RETURN_GENERATED_KEYS and,
+     * once the transaction commits, each item is given its generated key.
+     */
+    static <T> BatchResult<T> execute(String sql, List<T> items, int batchSize, Binder<? super T> binder,
+                                      ObjIntConsumer<? super T> keySetter) throws SQLException {
+        return execute(sql, items, batchSize, binder, keySetter, null);
+    }
+
+    /**
+     * As above; when every row is accepted, {@code followUp} runs on the same connection before the commit,
+     * so its writes are committed or rolled back together with the rows.
+     */
+    static <T> BatchResult<T> execute(String sql, List<T> items, int batchSize, Binder<? super T> binder,
+                                      ObjIntConsumer<? super T> keySetter, FollowUp followUp) throws SQLException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        if (items.isEmpty()) {
+            return new BatchResult<>(0, 0, true, List.of());
+        }
+
+        List<BatchResult.RowFailure<T>> failures = new ArrayList<>();
+        int[] keys = keySetter != null ? new int[items.size()] : null;
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = keySetter != null
+                     ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                     : conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                for (int start = 0; start < items.size(); start += batchSize) {
+                    int end = Math.min(start + batchSize, items.size());
+                    for (int i = start; i < end; i++) {
+                        binder.bind(pstmt, items.get(i));
+                        pstmt.addBatch();
+                    }
+                    try {
+                        pstmt.executeBatch();
+                        if (keys != null && failures.isEmpty()) {
+                            System.arraycopy(GeneratedKeys.batch(pstmt, end - start), 0, keys, start, end - start);
+                        }
+                    } catch (BatchUpdateException e) {
+                        // Keep going so the report covers every bad row, not just the first chunk that failed
+                        recordFailures(e, items, start, end, failures);
+                        pstmt.clearBatch();
+                    }
+                }
+
+                if (failures.isEmpty()) {
+                    if (followUp != null) {
+                        followUp.run(conn);
+                    }
+                    conn.commit();
+                    if (keys != null) {
+                        for (int i = 0; i < items.size(); i++) {
+                            keySetter.accept(items.get(i), keys[i]);
+                        }
+                    }
+                    return new BatchResult<>(items.size(), items.size(), true, failures);
+                }
+                conn.rollback();
+                return new BatchResult<>(items.size(), 0, false, failures);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // Map the driver's update counts back to rows. Rows past the point where the driver stopped, and every
+    // row of a rewritten multi-row statement, are reported as failed because none of them were applied
+    private static <T> void recordFailures(BatchUpdateException e, List<T> items, int start, int end,
+                                           List<BatchResult.RowFailure<T>> failures) {
+        int[] counts = e.getUpdateCounts();
+        for (int i = start; i < end; i++) {
+            int offset = i - start;
+            boolean failed = counts == null || offset >= counts.length || counts[offset] == Statement.EXECUTE_FAILED;
+            if (failed) {
+                failures.add(new BatchResult.RowFailure<>(i, items.get(i), e.getMessage()));
+            }
+        }
+    }
+}
@@ -7,23 +7,45 @@ import Entity.Enums.BookStatus;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class BookDAO {
+    // Both full scans walk the primary key, so callers see the same order whichever they use
+    private static final String ALL_BOOKS_BY_ID = "SELECT * FROM Books ORDER BY book_id";
 
-    // Add a new book to the database
-    public void addBook(Book book) throws SQLException {
+    // Add a new book to the database and return it with its generated ID
+    public Book addBook(Book book) throws SQLException {
         String query = "INSERT INTO Books (title, author, publication_year, genre, status, isbn) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, book.getTitle());
-            pstmt.setString(2, book.getAuthor());
-            pstmt.setInt(3, book.getPublicationYear());
-            pstmt.setString(4, book.getGenre());
-            pstmt.setString(5, book.getStatus().toString().toLowerCase());  // Convert to lowercase
-            pstmt.setString(6, book.getIsbn());
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            bindBook(pstmt, book);
             pstmt.executeUpdate();
+            book.setBookId(GeneratedKeys.single(pstmt));
+            return book;
         }
     }
 
+    // Add many books in one transaction, sending DEFAULT_BATCH_SIZE rows per round trip.
+    // Once committed, each book carries its generated ID.
+    public BatchResult<Book> addBooks(List<Book> books) throws SQLException {
+        return addBooks(books, BatchWriter.DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchResult<Book> addBooks(List<Book> books, int batchSize) throws SQLException {
+        String query = "INSERT INTO Books (title, author, publication_year, genre, status, isbn) VALUES (?, ?, ?, ?, ?, ?)";
+        return BatchWriter.execute(query, books, batchSize, BookDAO::bindBook, Book::setBookId);
+    }
+
+    private static void bindBook(PreparedStatement pstmt, Book book) throws SQLException {
+        pstmt.setString(1, book.getTitle());
+        pstmt.setString(2, book.getAuthor());
+        pstmt.setInt(3, book.getPublicationYear());
+        pstmt.setString(4, book.getGenre());
+        pstmt.setString(5, book.getStatus().toString().toLowerCase());  // Convert to lowercase
+        pstmt.setString(6, book.getIsbn());
+    }
+
     // Retrieve a book by its ID
     public static Book getBookById(int bookId) throws SQLException {
         String query = "SELECT * FROM Books WHERE book_id = ?";
@@ -31,15 +53,7 @@ public class BookDAO {
             pstmt.setInt(1, bookId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Book(
-                            rs.getInt("book_id"),
-                            rs.getString("title"),
-                            rs.getString("author"),
-                            rs.getInt("publication_year"),
-                            rs.getString("genre"),
-                            BookStatus.valueOf(rs.getString("status").toUpperCase()),  // Convert to uppercase
-                            rs.getString("isbn")
-                    );
+                    return new BookRowMapper(rs).mapRow(rs);
                 }
             }
         }
@@ -53,21 +67,91 @@ public class BookDAO {
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(query);
              ResultSet rs = pstmt.executeQuery()) {
+            BookRowMapper mapper = new BookRowMapper(rs);
             while (rs.next()) {
-                books.add(new Book(
-                        rs.getInt("book_id"),
-                        rs.getString("title"),
-                        rs.getString("author"),
-                        rs.getInt("publication_year"),
-                        rs.getString("genre"),
-                        BookStatus.valueOf(rs.getString("status").toUpperCase()),  // Convert to uppercase
-                        rs.getString("isbn")
-                ));
+                books.add(mapper.mapRow(rs));
+            }
+        }
+        return books;
+    }
+
+    // Books inserted or changed at or after the given time; relies on the updated_at column (see sql/books_updated_at.sql)
+    public List<Book> getBooksUpdatedSince(Timestamp since) throws SQLException {
+        String query = "SELECT * FROM Books WHERE updated_at >= ?";
+        List<Book> books = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setTimestamp(1, since);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                BookRowMapper mapper = new BookRowMapper(rs);
+                while (rs.next()) {
+                    books.add(mapper.mapRow(rs));
+                }
             }
         }
         return books;
     }
 
+    // IDs of books deleted at or after the given time, from the rows the delete trigger leaves (see sql/change_log.sql)
+    public List<Integer> getBookIdsDeletedSince(Timestamp since) throws SQLException {
+        String query = "SELECT entity_id FROM ChangeLog WHERE entity = 'BOOK' AND operation = 'DELETE' AND changed_at >= ?";
+        List<Integer> bookIds = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setTimestamp(1, since);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    bookIds.add(rs.getInt(1));
+                }
+            }
+        }
+        return bookIds;
+    }
+
+    // The database clock, so change tracking never compares against the client's clock
+    public Timestamp getDatabaseTime() throws SQLException {
+        String query = "SELECT CURRENT_TIMESTAMP(3)";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getTimestamp(1) : null;
+        }
+    }
+
+    /**
+     * Stream every book in book_id order without loading the table into memory.
+     * The stream holds a database connection until closed; use it in a try-with-resources block.
+     */
+    public Stream<Book> streamAllBooks() throws SQLException {
+        return StreamingQuery.stream(ALL_BOOKS_BY_ID, BookRowMapper::new);
+    }
+
+    // Visit every book in book_id order, returning the number of books visited
+    public long forEachBook(Consumer<? super Book> visitor) throws SQLException {
+        return StreamingQuery.forEach(ALL_BOOKS_BY_ID, BookRowMapper::new, visitor);
+    }
+
+    // Retrieve one page of books in book_id order, optionally filtered by status and genre
+    public Page<Book> getBooksPage(PageRequest request, BookStatus status, String genre) throws SQLException {
+        KeysetQuery query = new KeysetQuery("SELECT * FROM Books");
+        if (status != null) {
+            query.where("status = ?", status.name().toLowerCase());
+        }
+        if (genre != null && !genre.isBlank()) {
+            query.where("genre = ?", genre);
+        }
+        query.seek(request, "book_id");
+
+        List<Book> books = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = query.prepare(conn);
+             ResultSet rs = pstmt.executeQuery()) {
+            BookRowMapper mapper = new BookRowMapper(rs);
+            while (rs.next()) {
+                books.add(mapper.mapRow(rs));
+            }
+        }
+        return Page.fromOverfetched(books, request, book -> request.after(book.getBookId()));
+    }
+
      public void updateBookStatus(int bookId, BookStatus status) throws SQLException {
         String query = "UPDATE Books SET status = ? WHERE book_id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
@@ -77,6 +161,29 @@ public class BookDAO {
         }
     }
 
+    // Set the same status on many books in one transaction
+    public BatchResult<Integer> updateBookStatuses(List<Integer> bookIds, BookStatus status) throws SQLException {
+        String query = "UPDATE Books SET status = ? WHERE book_id = ?";
+        String value = status.name().toLowerCase();
+        return BatchWriter.execute(query, bookIds, BatchWriter.DEFAULT_BATCH_SIZE, (pstmt, bookId) -> {
+            pstmt.setString(1, value);
+            pstmt.setInt(2, bookId);
+        }, null);
+    }
+
+    // Store each book's ISBN as it now is, in one transaction; a null ISBN clears the column
+    public BatchResult<Book> updateIsbns(List<Book> books) throws SQLException {
+        String query = "UPDATE Books SET isbn = ? WHERE book_id = ?";
+        return BatchWriter.execute(query, books, BatchWriter.DEFAULT_BATCH_SIZE, (pstmt, book) -> {
+            if (book.getIsbn() == null) {
+                pstmt.setNull(1, Types.VARCHAR);
+            } else {
+                pstmt.setString(1, book.getIsbn());
+            }
+            pstmt.setInt(2, book.getBookId());
+        }, null);
+    }
+
     // Delete a book by its ID remains the same
     public void deleteBook(int bookId) throws SQLException {
         String query = "DELETE FROM Books WHERE book_id = ?";
@@ -98,22 +205,29 @@ public class BookDAO {
             pstmt.setString(2, searchPattern);
 
             try (ResultSet rs = pstmt.executeQuery()) {
+                BookRowMapper mapper = new BookRowMapper(rs);
                 while (rs.next()) {
-                    books.add(new Book(
-                            rs.getInt("book_id"),
-                            rs.getString("title"),
-                            rs.getString("author"),
-                            rs.getInt("publication_year"),
-                            rs.getString("genre"),
-                            BookStatus.valueOf(rs.getString("status").toUpperCase()),
-                            rs.getString("isbn")
-                    ));
+                    books.add(mapper.mapRow(rs));
                 }
             }
         }
         return books;
     }
 
+    // Retrieve a book by its canonical ISBN-13; relies on the unique index on isbn
+    public Book getBookByIsbn(String isbn) throws SQLException {
+        String query = "SELECT * FROM Books WHERE isbn = ?";
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setString(1, isbn);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new BookRowMapper(rs).mapRow(rs);
+                }
+            }
+        }
+        return null;
+    }
+
     // Add this method to the BookDAO class
     public String getBookTitle(int bookId) throws SQLException {
         String query = "SELECT title FROM Books WHERE book_id = ?";
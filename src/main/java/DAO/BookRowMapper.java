@@ -0,0 +1,51 @@
+package DAO;
+
+import Entity.Book;
+import Entity.Enums.BookStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of the Books table to {@link Book}.
+ */
+public class BookRowMapper implements RowMapper<Book> {
+    private static final EnumLookup<BookStatus> STATUSES = EnumLookup.of(BookStatus.class);
+
+    private final int bookIdColumn;
+    private final int titleColumn;
+    private final int authorColumn;
+    private final int publicationYearColumn;
+    private final int genreColumn;
+    private final int statusColumn;
+    private final int isbnColumn;
+
+    // Resolve column positions once for this result set
+    public BookRowMapper(ResultSet rs) throws SQLException {
+        this.bookIdColumn = rs.findColumn("book_id");
+        this.titleColumn = rs.findColumn("title");
+        this.authorColumn = rs.findColumn("author");
+        this.publicationYearColumn = rs.findColumn("publication_year");
+        this.genreColumn = rs.findColumn("genre");
+        this.statusColumn = rs.findColumn("status");
+        this.isbnColumn = rs.findColumn("isbn");
+    }
+
+    @Override
+    public Book mapRow(ResultSet rs) throws SQLException {
+        String status = rs.getString(statusColumn);
+        BookStatus bookStatus = STATUSES.lookup(status);
+        if (bookStatus == null) {
+            throw new IllegalArgumentException("Unknown book status in DB: " + status);
+        }
+        return new Book(
+                rs.getInt(bookIdColumn),
+                rs.getString(titleColumn),
+                rs.getString(authorColumn),
+                rs.getInt(publicationYearColumn),
+                rs.getString(genreColumn),
+                bookStatus,
+                rs.getString(isbnColumn)
+        );
+    }
+}
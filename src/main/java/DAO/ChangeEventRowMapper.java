@@ -0,0 +1,43 @@
+package DAO;
+
+import Entity.ChangeEvent;
+import Entity.Enums.ChangeEntity;
+import Entity.Enums.ChangeOperation;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of the ChangeLog table to {@link ChangeEvent}. Rows naming an entity this version does not know map to null.
+ */
+public class ChangeEventRowMapper implements RowMapper<ChangeEvent> {
+    private static final EnumLookup<ChangeEntity> ENTITIES = EnumLookup.of(ChangeEntity.class);
+    private static final EnumLookup<ChangeOperation> OPERATIONS = EnumLookup.of(ChangeOperation.class);
+
+    private final int sequenceColumn;
+    private final int entityColumn;
+    private final int entityIdColumn;
+    private final int operationColumn;
+
+    // Resolve column positions once for this result set
+    public ChangeEventRowMapper(ResultSet rs) throws SQLException {
+        this.sequenceColumn = rs.findColumn("sequence");
+        this.entityColumn = rs.findColumn("entity");
+        this.entityIdColumn = rs.findColumn("entity_id");
+        this.operationColumn = rs.findColumn("operation");
+    }
+
+    @Override
+    public ChangeEvent mapRow(ResultSet rs) throws SQLException {
+        ChangeEntity entity = ENTITIES.lookup(rs.getString(entityColumn));
+        if (entity == null) {
+            return null;
+        }
+        return new ChangeEvent(
+                rs.getLong(sequenceColumn),
+                entity,
+                rs.getInt(entityIdColumn),
+                OPERATIONS.lookup(rs.getString(operationColumn), ChangeOperation.UPDATE)
+        );
+    }
+}
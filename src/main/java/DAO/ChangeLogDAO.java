@@ -0,0 +1,48 @@
+package DAO;
+
+import DatabaseConnection.DatabaseUtil;
+import Entity.ChangeEvent;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the ChangeLog table. Rows are written by triggers on the cached tables (see sql/change_log.sql),
+ * so every write lands in the log in the same transaction, whichever client or tool made it.
+ */
+public class ChangeLogDAO {
+
+    // The newest sequence number, or 0 if the log is empty; a new client starts reading after it
+    public long getLatestSequence() throws SQLException {
+        String query = "SELECT COALESCE(MAX(sequence), 0) FROM ChangeLog";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    // Up to limit changes with a sequence above the given one, oldest first
+    public List<ChangeEvent> getChangesSince(long sequence, int limit) throws SQLException {
+        String query = "SELECT sequence, entity, entity_id, operation FROM ChangeLog WHERE sequence > ? ORDER BY sequence LIMIT ?";
+        List<ChangeEvent> changes = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setLong(1, sequence);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ChangeEventRowMapper mapper = new ChangeEventRowMapper(rs);
+                while (rs.next()) {
+                    ChangeEvent change = mapper.mapRow(rs);
+                    if (change != null) {
+                        changes.add(change);
+                    }
+                }
+            }
+        }
+        return changes;
+    }
+}
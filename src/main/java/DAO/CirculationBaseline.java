@@ -0,0 +1,57 @@
+package DAO;
+
+import Entity.Enums.BookStatus;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Circulation counts as the database has them, used to correct the in-memory counters.
+ */
+public final class CirculationBaseline {
+    private final Map<BookStatus, Long> booksByStatus;
+    private final Map<String, Long> booksByGenre;
+    private final Map<Integer, Long> openLoansByPatron;
+    private final Map<LocalDate, Long> openLoansByDueDate;
+    private final Map<YearMonth, Long> loansPerMonth;
+    private final long pendingReservations;
+
+    public CirculationBaseline(Map<BookStatus, Long> booksByStatus, Map<String, Long> booksByGenre,
+                               Map<Integer, Long> openLoansByPatron, Map<LocalDate, Long> openLoansByDueDate,
+                               Map<YearMonth, Long> loansPerMonth, long pendingReservations) {
+        this.booksByStatus = Collections.unmodifiableMap(booksByStatus);
+        this.booksByGenre = Collections.unmodifiableMap(booksByGenre);
+        this.openLoansByPatron = Collections.unmodifiableMap(openLoansByPatron);
+        this.openLoansByDueDate = Collections.unmodifiableMap(openLoansByDueDate);
+        this.loansPerMonth = Collections.unmodifiableMap(loansPerMonth);
+        this.pendingReservations = pendingReservations;
+    }
+
+    public Map<BookStatus, Long> getBooksByStatus() {
+        return booksByStatus;
+    }
+
+    // Genre names as stored; books without one are counted under "Unspecified"
+    public Map<String, Long> getBooksByGenre() {
+        return booksByGenre;
+    }
+
+    public Map<Integer, Long> getOpenLoansByPatron() {
+        return openLoansByPatron;
+    }
+
+    public Map<LocalDate, Long> getOpenLoansByDueDate() {
+        return openLoansByDueDate;
+    }
+
+    // Transactions recorded per borrow month
+    public Map<YearMonth, Long> getLoansPerMonth() {
+        return loansPerMonth;
+    }
+
+    public long getPendingReservations() {
+        return pendingReservations;
+    }
+}
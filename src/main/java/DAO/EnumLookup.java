@@ -0,0 +1,52 @@
+package DAO;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive String to enum decoding for values read from the database.
+ *
+ * The table is built once per enum type. Lookups of the common spellings (exact name, all lower
+ * or all upper case) are a single hash probe, and mixed-case values fall back to a scan with
+ * equalsIgnoreCase, so no per-row String is created the way {@code valueOf(s.toUpperCase())} does.
+ */
+public final class EnumLookup<E extends Enum<E>> {
+    private final E[] constants;
+    private final Map<String, E> table = new HashMap<>();
+
+    private EnumLookup(Class<E> type) {
+        this.constants = type.getEnumConstants();
+        for (E constant : constants) {
+            table.put(constant.name(), constant);
+            table.put(constant.name().toLowerCase(Locale.ROOT), constant);
+            table.put(constant.name().toUpperCase(Locale.ROOT), constant);
+        }
+    }
+
+    public static <E extends Enum<E>> EnumLookup<E> of(Class<E> type) {
+        return new EnumLookup<>(type);
+    }
+
+    // Returns null when the value is null or does not name a constant
+    public E lookup(String value) {
+        if (value == null) {
+            return null;
+        }
+        E constant = table.get(value);
+        if (constant != null) {
+            return constant;
+        }
+        for (E candidate : constants) {
+            if (candidate.name().equalsIgnoreCase(value)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public E lookup(String value, E defaultValue) {
+        E constant = lookup(value);
+        return constant != null ? constant : defaultValue;
+    }
+}
@@ -0,0 +1,39 @@
+package DAO;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads AUTO_INCREMENT keys from a statement prepared with {@code Statement.RETURN_GENERATED_KEYS}.
+ */
+final class GeneratedKeys {
+
+    private GeneratedKeys() {
+    }
+
+    // The key of the single row inserted by the last executeUpdate
+    static int single(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            if (keys != null && keys.next()) {
+                return keys.getInt(1);
+            }
+        }
+        throw new SQLException("Insert did not return a generated key.");
+    }
+
+    // The keys of the rows inserted by the last executeBatch, in the order the rows were added
+    static int[] batch(PreparedStatement pstmt, int expectedRows) throws SQLException {
+        int[] ids = new int[expectedRows];
+        int count = 0;
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            while (keys != null && count < expectedRows && keys.next()) {
+                ids[count++] = keys.getInt(1);
+            }
+        }
+        if (count != expectedRows) {
+            throw new SQLException("Expected " + expectedRows + " generated keys but the driver returned " + count + ".");
+        }
+        return ids;
+    }
+}
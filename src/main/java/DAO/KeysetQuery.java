@@ -0,0 +1,78 @@
+package DAO;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the SQL for a keyset-paginated SELECT: optional filters, a seek predicate past the
+ * cursor in the {@link PageRequest}, ORDER BY on the key columns and {@code LIMIT pageSize + 1}.
+ */
+class KeysetQuery {
+    private final StringBuilder sql;
+    private final List<Object> parameters = new ArrayList<>();
+    private boolean hasWhere;
+    private String orderBy;
+    private int limit;
+
+    KeysetQuery(String select) {
+        this.sql = new StringBuilder(select);
+    }
+
+    KeysetQuery where(String condition, Object... values) {
+        sql.append(hasWhere ? " AND " : " WHERE ").append(condition);
+        hasWhere = true;
+        parameters.addAll(List.of(values));
+        return this;
+    }
+
+    // Seek on the primary key alone
+    KeysetQuery seek(PageRequest request, String idColumn) {
+        String direction = request.isDescending() ? "DESC" : "ASC";
+        if (!request.isFirstPage()) {
+            where(idColumn + (request.isDescending() ? " < ?" : " > ?"), request.getAfterId());
+        }
+        orderBy = idColumn + " " + direction;
+        limit = request.getPageSize() + 1;
+        return this;
+    }
+
+    // Seek on (date, primary key); the key breaks ties between rows sharing a date
+    KeysetQuery seek(PageRequest request, String dateColumn, String idColumn) {
+        String direction = request.isDescending() ? "DESC" : "ASC";
+        if (!request.isFirstPage()) {
+            String comparison = request.isDescending() ? " < ?" : " > ?";
+            where("(" + dateColumn + comparison + " OR (" + dateColumn + " = ? AND " + idColumn + comparison + "))",
+                    request.getAfterDate(), request.getAfterDate(), request.getAfterId());
+        }
+        orderBy = dateColumn + " " + direction + ", " + idColumn + " " + direction;
+        limit = request.getPageSize() + 1;
+        return this;
+    }
+
+    String toSql() {
+        return sql + " ORDER BY " + orderBy + " LIMIT " + limit;
+    }
+
+    PreparedStatement prepare(Connection conn) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(toSql());
+        try {
+            for (int i = 0; i < parameters.size(); i++) {
+                Object value = parameters.get(i);
+                if (value instanceof LocalDate date) {
+                    pstmt.setDate(i + 1, Date.valueOf(date));
+                } else {
+                    pstmt.setObject(i + 1, value);
+                }
+            }
+            return pstmt;
+        } catch (SQLException e) {
+            pstmt.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package DAO;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of rows from a keyset-paginated query, plus the request for the page that follows it.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final PageRequest nextPageRequest;
+
+    public Page(List<T> items, PageRequest nextPageRequest) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextPageRequest = nextPageRequest;
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code LIMIT pageSize + 1}: the extra row only tells us
+     * whether another page exists and is dropped, and the cursor comes from the last row kept.
+     */
+    static <T> Page<T> fromOverfetched(List<T> rows, PageRequest request, Function<T, PageRequest> nextRequest) {
+        if (rows.size() <= request.getPageSize()) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, request.getPageSize());
+        return new Page<>(items, nextRequest.apply(items.get(items.size() - 1)));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public boolean hasNext() {
+        return nextPageRequest != null;
+    }
+
+    // Request for the following page, or null on the last page
+    public PageRequest getNextPageRequest() {
+        return nextPageRequest;
+    }
+}
@@ -0,0 +1,76 @@
+package DAO;
+
+import java.time.LocalDate;
+
+/**
+ * Describes one page of a keyset-paginated query: how many rows to return, the sort direction,
+ * and the key of the last row already seen (the cursor). Queries seek past the cursor instead of
+ * using OFFSET, so fetching page 500 costs the same as fetching page 1.
+ */
+public class PageRequest {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final int pageSize;
+    private final boolean descending;
+    private final Integer afterId;
+    private final LocalDate afterDate;
+
+    private PageRequest(int pageSize, boolean descending, Integer afterId, LocalDate afterDate) {
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        this.pageSize = pageSize;
+        this.descending = descending;
+        this.afterId = afterId;
+        this.afterDate = afterDate;
+    }
+
+    // First page in ascending key order
+    public static PageRequest firstPage(int pageSize) {
+        return new PageRequest(pageSize, false, null, null);
+    }
+
+    public static PageRequest firstPage(int pageSize, boolean descending) {
+        return new PageRequest(pageSize, descending, null, null);
+    }
+
+    // Next page for queries sorted by primary key
+    public PageRequest after(int lastId) {
+        return new PageRequest(pageSize, descending, lastId, null);
+    }
+
+    // Next page for queries sorted by (date, primary key)
+    public PageRequest after(LocalDate lastDate, int lastId) {
+        return new PageRequest(pageSize, descending, lastId, lastDate);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Integer getAfterId() {
+        return afterId;
+    }
+
+    public LocalDate getAfterDate() {
+        return afterDate;
+    }
+
+    public boolean isFirstPage() {
+        return afterId == null;
+    }
+
+    @Override
+    public String toString() {
+        return "PageRequest{" +
+                "pageSize=" + pageSize +
+                ", descending=" + descending +
+                ", afterId=" + afterId +
+                ", afterDate=" + afterDate +
+                '}';
+    }
+}
@@ -9,35 +9,43 @@ import java.util.List;
 
 public class PatronDAO {
 
-    public void addPatron(Patron patron) throws SQLException {
+    public Patron addPatron(Patron patron) throws SQLException {
         String query = "INSERT INTO Patrons (first_name, last_name, email, phone_number, address, membership_date) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, patron.getFirstName());
-            pstmt.setString(2, patron.getLastName());
-            pstmt.setString(3, patron.getEmail());
-            pstmt.setString(4, patron.getPhoneNumber());
-            pstmt.setString(5, patron.getAddress());
-            // Converting LocalDate to java.sql.Date before inserting into database
-            pstmt.setDate(6, patron.getMembershipDate() != null ? Date.valueOf(patron.getMembershipDate()) : null);
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            bindPatron(pstmt, patron);
             pstmt.executeUpdate();
+            patron.setPatronId(GeneratedKeys.single(pstmt));
+            return patron;
         }
     }
 
+    public BatchResult<Patron> addPatrons(List<Patron> patrons) throws SQLException {
+        return addPatrons(patrons, BatchWriter.DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchResult<Patron> addPatrons(List<Patron> patrons, int batchSize) throws SQLException {
+        String query = "INSERT INTO Patrons (first_name, last_name, email, phone_number, address, membership_date) VALUES (?, ?, ?, ?, ?, ?)";
+        return BatchWriter.execute(query, patrons, batchSize, PatronDAO::bindPatron, Patron::setPatronId);
+    }
+
+    private static void bindPatron(PreparedStatement pstmt, Patron patron) throws SQLException {
+        pstmt.setString(1, patron.getFirstName());
+        pstmt.setString(2, patron.getLastName());
+        pstmt.setString(3, patron.getEmail());
+        pstmt.setString(4, patron.getPhoneNumber());
+        pstmt.setString(5, patron.getAddress());
+        // Converting LocalDate to java.sql.Date before inserting into database
+        pstmt.setDate(6, patron.getMembershipDate() != null ? Date.valueOf(patron.getMembershipDate()) : null);
+    }
+
     public static Patron getPatronById(int patronId) throws SQLException {
         String query = "SELECT * FROM Patrons WHERE patron_id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, patronId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Patron(
-                            rs.getInt("patron_id"),
-                            rs.getString("first_name"),
-                            rs.getString("last_name"),
-                            rs.getString("email"),
-                            rs.getString("phone_number"),
-                            rs.getString("address"),
-                            rs.getDate("membership_date") != null ? rs.getDate("membership_date").toLocalDate() : null
-                    );
+                    return new PatronRowMapper(rs).mapRow(rs);
                 }
             }
         }
@@ -48,21 +56,34 @@ public class PatronDAO {
         String query = "SELECT * FROM Patrons";
         List<Patron> patrons = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+            PatronRowMapper mapper = new PatronRowMapper(rs);
             while (rs.next()) {
-                patrons.add(new Patron(
-                        rs.getInt("patron_id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getString("email"),
-                        rs.getString("phone_number"),
-                        rs.getString("address"),
-                        rs.getDate("membership_date") != null ? rs.getDate("membership_date").toLocalDate() : null
-                ));
+                patrons.add(mapper.mapRow(rs));
             }
         }
         return patrons;
     }
 
+    // Retrieve one page of patrons in patron_id order, optionally filtered by last name prefix
+    public Page<Patron> getPatronsPage(PageRequest request, String lastNamePrefix) throws SQLException {
+        KeysetQuery query = new KeysetQuery("SELECT * FROM Patrons");
+        if (lastNamePrefix != null && !lastNamePrefix.isBlank()) {
+            query.where("last_name LIKE ?", lastNamePrefix.trim() + "%");
+        }
+        query.seek(request, "patron_id");
+
+        List<Patron> patrons = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = query.prepare(conn);
+             ResultSet rs = pstmt.executeQuery()) {
+            PatronRowMapper mapper = new PatronRowMapper(rs);
+            while (rs.next()) {
+                patrons.add(mapper.mapRow(rs));
+            }
+        }
+        return Page.fromOverfetched(patrons, request, patron -> request.after(patron.getPatronId()));
+    }
+
     public void updatePatronAddress(int patronId, String address) throws SQLException {
         String query = "UPDATE Patrons SET address = ? WHERE patron_id = ?";
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
@@ -88,16 +109,9 @@ public class PatronDAO {
             pstmt.setString(1, searchTerm);
             pstmt.setString(2, searchTerm);
             try (ResultSet rs = pstmt.executeQuery()) {
+                PatronRowMapper mapper = new PatronRowMapper(rs);
                 while (rs.next()) {
-                    patrons.add(new Patron(
-                            rs.getInt("patron_id"),
-                            rs.getString("first_name"),
-                            rs.getString("last_name"),
-                            rs.getString("email"),
-                            rs.getString("phone_number"),
-                            rs.getString("address"),
-                            rs.getDate("membership_date") != null ? rs.getDate("membership_date").toLocalDate() : null
-                    ));
+                    patrons.add(mapper.mapRow(rs));
                 }
             }
         }
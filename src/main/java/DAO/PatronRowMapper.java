@@ -0,0 +1,45 @@
+package DAO;
+
+import Entity.Patron;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of the Patrons table to {@link Patron}.
+ */
+public class PatronRowMapper implements RowMapper<Patron> {
+    private final int patronIdColumn;
+    private final int firstNameColumn;
+    private final int lastNameColumn;
+    private final int emailColumn;
+    private final int phoneNumberColumn;
+    private final int addressColumn;
+    private final int membershipDateColumn;
+
+    // Resolve column positions once for this result set
+    public PatronRowMapper(ResultSet rs) throws SQLException {
+        this.patronIdColumn = rs.findColumn("patron_id");
+        this.firstNameColumn = rs.findColumn("first_name");
+        this.lastNameColumn = rs.findColumn("last_name");
+        this.emailColumn = rs.findColumn("email");
+        this.phoneNumberColumn = rs.findColumn("phone_number");
+        this.addressColumn = rs.findColumn("address");
+        this.membershipDateColumn = rs.findColumn("membership_date");
+    }
+
+    @Override
+    public Patron mapRow(ResultSet rs) throws SQLException {
+        Date membershipDate = rs.getDate(membershipDateColumn);
+        return new Patron(
+                rs.getInt(patronIdColumn),
+                rs.getString(firstNameColumn),
+                rs.getString(lastNameColumn),
+                rs.getString(emailColumn),
+                rs.getString(phoneNumberColumn),
+                rs.getString(addressColumn),
+                membershipDate != null ? membershipDate.toLocalDate() : null
+        );
+    }
+}
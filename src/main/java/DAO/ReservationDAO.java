@@ -3,21 +3,25 @@ package DAO;
 import DatabaseConnection.DatabaseUtil;
 import Entity.Enums.ReservationStatus;
 import Entity.Reservation;
+import Entity.ReservationDetails;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ReservationDAO {
 
-    public void addReservation(Reservation reservation) throws SQLException {
+    public Reservation addReservation(Reservation reservation) throws SQLException {
         String query = "INSERT INTO Reservations (patron_id, book_id, reservation_date, status, due_date) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, reservation.getPatronId());
             pstmt.setInt(2, reservation.getBookId());
             pstmt.setDate(3, Date.valueOf(reservation.getReservationDate()));
             pstmt.setString(4, reservation.getStatus().name());  // Status stored as enum name
             pstmt.setDate(5, Date.valueOf(reservation.getDueDate()));  // Due date
             pstmt.executeUpdate();
+            reservation.setReservationId(GeneratedKeys.single(pstmt));
+            return reservation;
         }
     }
 
@@ -27,16 +31,7 @@ public class ReservationDAO {
             pstmt.setInt(1, reservationId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    // Convert status string to enum value
-                    ReservationStatus status = ReservationStatus.valueOf(rs.getString("status"));
-                    return new Reservation(
-                            rs.getInt("reservation_id"),
-                            rs.getInt("patron_id"),
-                            rs.getInt("book_id"),
-                            rs.getDate("reservation_date").toLocalDate(),
-                            status,  // Set status from DB
-                            rs.getDate("due_date").toLocalDate()
-                    );
+                    return new ReservationRowMapper(rs).mapRow(rs);
                 }
                 return null; // If no result found
             }
@@ -47,31 +42,51 @@ public class ReservationDAO {
         String query = "SELECT * FROM Reservations";
         List<Reservation> reservations = new ArrayList<>();
         try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+            ReservationRowMapper mapper = new ReservationRowMapper(rs);
             while (rs.next()) {
-                String statusString = rs.getString("status");
-
-                // Handle possible invalid status value by defaulting to 'PENDING' if invalid
-                ReservationStatus status = ReservationStatus.PENDING;
-                try {
-                    // Convert status string to uppercase before mapping to enum
-                    status = ReservationStatus.valueOf(statusString.toUpperCase());
-                } catch (IllegalArgumentException e) {
-                    System.err.println("Invalid reservation status found in DB: " + statusString + ". Defaulting to PENDING.");
-                }
+                reservations.add(mapper.mapRow(rs));
+            }
+        }
+        return reservations;
+    }
 
-                reservations.add(new Reservation(
-                        rs.getInt("reservation_id"),
-                        rs.getInt("patron_id"),
-                        rs.getInt("book_id"),
-                        rs.getDate("reservation_date").toLocalDate(),
-                        status,  // Safely set the status from DB (with proper handling)
-                        rs.getDate("due_date").toLocalDate()
-                ));
+    // All reservations with the patron's name and book title, in one query instead of two lookups per row
+    public List<ReservationDetails> getAllReservationDetails() throws SQLException {
+        String query = "SELECT r.*, CONCAT(p.first_name, ' ', p.last_name) AS patron_name, b.title AS book_title "
+                + "FROM Reservations r "
+                + "LEFT JOIN Patrons p ON p.patron_id = r.patron_id "
+                + "LEFT JOIN Books b ON b.book_id = r.book_id "
+                + "ORDER BY r.reservation_id";
+        List<ReservationDetails> reservations = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+            ReservationDetailsRowMapper mapper = new ReservationDetailsRowMapper(rs);
+            while (rs.next()) {
+                reservations.add(mapper.mapRow(rs));
             }
         }
         return reservations;
     }
 
+    // Retrieve one page of reservations in reservation_id order, optionally filtered by status
+    public Page<Reservation> getReservationsPage(PageRequest request, ReservationStatus status) throws SQLException {
+        KeysetQuery query = new KeysetQuery("SELECT * FROM Reservations");
+        if (status != null) {
+            query.where("status = ?", status.name());
+        }
+        query.seek(request, "reservation_id");
+
+        List<Reservation> reservations = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = query.prepare(conn);
+             ResultSet rs = pstmt.executeQuery()) {
+            ReservationRowMapper mapper = new ReservationRowMapper(rs);
+            while (rs.next()) {
+                reservations.add(mapper.mapRow(rs));
+            }
+        }
+        return Page.fromOverfetched(reservations, request, reservation -> request.after(reservation.getReservationId()));
+    }
+
 
     public void updateReservationStatus(int reservationId, ReservationStatus status) throws SQLException {
         String query = "UPDATE Reservations SET status = ? WHERE reservation_id = ?";
@@ -0,0 +1,34 @@
+package DAO;
+
+import Entity.ReservationDetails;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of the Reservations/Patrons/Books join to {@link ReservationDetails}.
+ * Reservations whose patron or book has gone get the same placeholders the per-row lookups used.
+ */
+public class ReservationDetailsRowMapper implements RowMapper<ReservationDetails> {
+    private final ReservationRowMapper reservationMapper;
+    private final int patronNameColumn;
+    private final int bookTitleColumn;
+
+    // Resolve column positions once for this result set
+    public ReservationDetailsRowMapper(ResultSet rs) throws SQLException {
+        this.reservationMapper = new ReservationRowMapper(rs);
+        this.patronNameColumn = rs.findColumn("patron_name");
+        this.bookTitleColumn = rs.findColumn("book_title");
+    }
+
+    @Override
+    public ReservationDetails mapRow(ResultSet rs) throws SQLException {
+        String patronName = rs.getString(patronNameColumn);
+        String bookTitle = rs.getString(bookTitleColumn);
+        return new ReservationDetails(
+                reservationMapper.mapRow(rs),
+                patronName != null ? patronName : "Unknown Patron",
+                bookTitle != null ? bookTitle : "Unknown Book"
+        );
+    }
+}
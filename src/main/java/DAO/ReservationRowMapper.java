@@ -0,0 +1,50 @@
+package DAO;
+
+import Entity.Enums.ReservationStatus;
+import Entity.Reservation;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of the Reservations table to {@link Reservation}.
+ */
+public class ReservationRowMapper implements RowMapper<Reservation> {
+    private static final EnumLookup<ReservationStatus> STATUSES = EnumLookup.of(ReservationStatus.class);
+
+    private final int reservationIdColumn;
+    private final int patronIdColumn;
+    private final int bookIdColumn;
+    private final int reservationDateColumn;
+    private final int statusColumn;
+    private final int dueDateColumn;
+
+    // Resolve column positions once for this result set
+    public ReservationRowMapper(ResultSet rs) throws SQLException {
+        this.reservationIdColumn = rs.findColumn("reservation_id");
+        this.patronIdColumn = rs.findColumn("patron_id");
+        this.bookIdColumn = rs.findColumn("book_id");
+        this.reservationDateColumn = rs.findColumn("reservation_date");
+        this.statusColumn = rs.findColumn("status");
+        this.dueDateColumn = rs.findColumn("due_date");
+    }
+
+    @Override
+    public Reservation mapRow(ResultSet rs) throws SQLException {
+        String statusString = rs.getString(statusColumn);
+        ReservationStatus status = STATUSES.lookup(statusString);
+        if (status == null) {
+            // Handle possible invalid status value by defaulting to 'PENDING'
+            System.err.println("Invalid reservation status found in DB: " + statusString + ". Defaulting to PENDING.");
+            status = ReservationStatus.PENDING;
+        }
+        return new Reservation(
+                rs.getInt(reservationIdColumn),
+                rs.getInt(patronIdColumn),
+                rs.getInt(bookIdColumn),
+                rs.getDate(reservationDateColumn).toLocalDate(),
+                status,
+                rs.getDate(dueDateColumn).toLocalDate()
+        );
+    }
+}
@@ -0,0 +1,24 @@
+package DAO;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a {@link ResultSet} to an entity.
+ *
+ * Implementations resolve column positions once, when they are created for a result set,
+ * so mapping each row is plain index-based access instead of a by-name lookup per column.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    T mapRow(ResultSet rs) throws SQLException;
+
+    /**
+     * Creates a mapper bound to the columns of a particular result set, e.g. {@code BookRowMapper::new}.
+     */
+    @FunctionalInterface
+    interface Factory<T> {
+        RowMapper<T> create(ResultSet rs) throws SQLException;
+    }
+}
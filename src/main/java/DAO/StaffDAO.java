@@ -22,16 +22,7 @@ public class StaffDAO {
             ResultSet rs = ps.executeQuery();
 
             if (rs.next()) {
-                return new Staff(
-                        rs.getInt("staff_id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getString("role"),
-                        rs.getString("email"),
-                        rs.getString("phone_number"),
-                        rs.getDate("hire_date").toLocalDate(),
-                        rs.getString("password")
-                );
+                return new StaffRowMapper(rs).mapRow(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -68,17 +59,9 @@ public class StaffDAO {
 
             ResultSet rs = ps.executeQuery();
 
+            StaffRowMapper mapper = new StaffRowMapper(rs);
             while (rs.next()) {
-                staffList.add(new Staff(
-                        rs.getInt("staff_id"),
-                        rs.getString("first_name"),
-                        rs.getString("last_name"),
-                        rs.getString("role"),
-                        rs.getString("email"),
-                        rs.getString("phone_number"),
-                        rs.getDate("hire_date").toLocalDate(),
-                        rs.getString("password")
-                ));
+                staffList.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,46 @@
+package DAO;
+
+import Entity.Staff;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of the Staff table to {@link Staff}.
+ */
+public class StaffRowMapper implements RowMapper<Staff> {
+    private final int staffIdColumn;
+    private final int firstNameColumn;
+    private final int lastNameColumn;
+    private final int roleColumn;
+    private final int emailColumn;
+    private final int phoneNumberColumn;
+    private final int hireDateColumn;
+    private final int passwordColumn;
+
+    // Resolve column positions once for this result set
+    public StaffRowMapper(ResultSet rs) throws SQLException {
+        this.staffIdColumn = rs.findColumn("staff_id");
+        this.firstNameColumn = rs.findColumn("first_name");
+        this.lastNameColumn = rs.findColumn("last_name");
+        this.roleColumn = rs.findColumn("role");
+        this.emailColumn = rs.findColumn("email");
+        this.phoneNumberColumn = rs.findColumn("phone_number");
+        this.hireDateColumn = rs.findColumn("hire_date");
+        this.passwordColumn = rs.findColumn("password");
+    }
+
+    @Override
+    public Staff mapRow(ResultSet rs) throws SQLException {
+        return new Staff(
+                rs.getInt(staffIdColumn),
+                rs.getString(firstNameColumn),
+                rs.getString(lastNameColumn),
+                rs.getString(roleColumn),
+                rs.getString(emailColumn),
+                rs.getString(phoneNumberColumn),
+                rs.getDate(hireDateColumn).toLocalDate(),
+                rs.getString(passwordColumn)
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package DAO;
+
+import DatabaseConnection.DatabaseUtil;
+import Entity.Enums.BookStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dashboard counts computed by the database. Only the totals cross the wire, never the rows behind them.
+ */
+public class StatisticsDAO {
+    public static final String UNSPECIFIED_GENRE = "Unspecified";
+    private static final EnumLookup<BookStatus> STATUSES = EnumLookup.of(BookStatus.class);
+
+    // One statement, one round trip: a labelled row per group of every breakdown the counters keep
+    static final String BASELINE_QUERY =
+            "SELECT 'status' AS metric, status AS label, COUNT(*) AS total FROM Books GROUP BY status "
+            + "UNION ALL SELECT 'genre', genre, COUNT(*) FROM Books GROUP BY genre "
+            + "UNION ALL SELECT 'patron', CAST(patron_id AS CHAR), COUNT(*) FROM Transactions "
+            + "WHERE transaction_type = 'BORROW' AND return_date IS NULL GROUP BY patron_id "
+            + "UNION ALL SELECT 'due', CAST(due_date AS CHAR), COUNT(*) FROM Transactions "
+            + "WHERE transaction_type = 'BORROW' AND return_date IS NULL GROUP BY due_date "
+            + "UNION ALL SELECT 'month', DATE_FORMAT(borrow_date, '%Y-%m'), COUNT(*) FROM Transactions "
+            + "GROUP BY DATE_FORMAT(borrow_date, '%Y-%m') "
+            + "UNION ALL SELECT 'pending_reservations', NULL, COUNT(*) FROM Reservations WHERE status = 'PENDING'";
+
+    public CirculationBaseline getCirculationBaseline() throws SQLException {
+        Map<BookStatus, Long> booksByStatus = new EnumMap<>(BookStatus.class);
+        Map<String, Long> booksByGenre = new HashMap<>();
+        Map<Integer, Long> openLoansByPatron = new HashMap<>();
+        Map<LocalDate, Long> openLoansByDueDate = new HashMap<>();
+        Map<YearMonth, Long> loansPerMonth = new HashMap<>();
+        long pendingReservations = 0;
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(BASELINE_QUERY);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                String metric = rs.getString(1);
+                String label = rs.getString(2);
+                long total = rs.getLong(3);
+                switch (metric) {
+                    case "status" -> {
+                        BookStatus status = STATUSES.lookup(label);
+                        if (status != null) {
+                            booksByStatus.merge(status, total, Long::sum);
+                        }
+                    }
+                    case "genre" -> booksByGenre.merge(genreKey(label), total, Long::sum);
+                    case "patron" -> openLoansByPatron.put(Integer.parseInt(label), total);
+                    case "due" -> {
+                        if (label != null) {
+                            openLoansByDueDate.put(LocalDate.parse(label), total);
+                        }
+                    }
+                    case "month" -> {
+                        if (label != null) {
+                            loansPerMonth.put(YearMonth.parse(label), total);
+                        }
+                    }
+                    case "pending_reservations" -> pendingReservations = total;
+                    default -> throw new SQLException("Unexpected statistics row: " + metric);
+                }
+            }
+        }
+        return new CirculationBaseline(booksByStatus, booksByGenre, openLoansByPatron, openLoansByDueDate, loansPerMonth, pendingReservations);
+    }
+
+    // The name a genre is counted under, so the database and the in-memory counters agree
+    public static String genreKey(String genre) {
+        return genre == null || genre.isBlank() ? UNSPECIFIED_GENRE : genre;
+    }
+}
@@ -0,0 +1,108 @@
+package DAO;
+
+import DatabaseConnection.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs a SELECT as a forward-only, read-only cursor so rows are mapped one at a time instead of
+ * being collected into a List. With MySQL Connector/J a fetch size of {@code Integer.MIN_VALUE}
+ * streams rows from the server as they are read; any positive value (set with
+ * {@code -Dlibrarydb.stream.fetchSize}) fetches that many rows per round trip when the
+ * connection URL enables {@code useCursorFetch}. Either way memory stays constant in the table size.
+ */
+final class StreamingQuery {
+    static final int FETCH_SIZE = Integer.getInteger("librarydb.stream.fetchSize", Integer.MIN_VALUE);
+
+    private StreamingQuery() {
+    }
+
+    /**
+     * Returns a lazily populated stream over the query result. The stream owns a pooled connection
+     * until it is closed, so callers must use it in a try-with-resources block.
+     */
+    static <T> Stream<T> stream(String sql, RowMapper.Factory<T> mapperFactory) throws SQLException {
+        Connection conn = DatabaseUtil.getConnection();
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        try {
+            pstmt = prepare(conn, sql);
+            rs = pstmt.executeQuery();
+            ResultSet cursor = rs;
+            RowMapper<T> mapper = mapperFactory.create(cursor);
+
+            Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super T> action) {
+                    try {
+                        if (!cursor.next()) {
+                            return false;
+                        }
+                        action.accept(mapper.mapRow(cursor));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Failed to read row: " + e.getMessage(), e);
+                    }
+                }
+            };
+
+            PreparedStatement statement = pstmt;
+            return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(cursor, statement, conn));
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(rs, pstmt, conn);
+            throw e;
+        }
+    }
+
+    // Visit every row of the query result in order and return the number of rows visited
+    static <T> long forEach(String sql, RowMapper.Factory<T> mapperFactory, Consumer<? super T> visitor) throws SQLException {
+        long count = 0;
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = prepare(conn, sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            RowMapper<T> mapper = mapperFactory.create(rs);
+            while (rs.next()) {
+                visitor.accept(mapper.mapRow(rs));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(FETCH_SIZE);
+        return pstmt;
+    }
+
+    private static void closeQuietly(ResultSet rs, PreparedStatement pstmt, Connection conn) {
+        try {
+            if (rs != null) {
+                rs.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing result set: " + e.getMessage());
+        }
+        try {
+            if (pstmt != null) {
+                pstmt.close();
+            }
+        } catch (SQLException e) {
+            System.err.println("Error closing statement: " + e.getMessage());
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing connection: " + e.getMessage());
+        }
+    }
+}
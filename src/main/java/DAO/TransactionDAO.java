@@ -7,28 +7,114 @@ import Entity.Enums.TransactionType;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class TransactionDAO {
+    static final int MAX_DEADLOCK_RETRIES = 3;
+    // Streaming and visiting share one scan; InnoDB stores rows in primary key order, so it needs no sort
+    private static final String ALL_TRANSACTIONS_BY_ID = "SELECT * FROM Transactions ORDER BY transaction_id";
+    static final int ID_LIST_SIZE = 500; // IDs per IN (...) list, keeping each statement well under packet limits
 
-    // Add a new transaction to the database
-    public void addTransaction(Transaction transaction) throws SQLException {
+    // Add a new transaction to the database and return it with its generated ID
+    public Transaction addTransaction(Transaction transaction) throws SQLException {
         String query = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseUtil.getConnection(); PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, transaction.getPatronId());
-            pstmt.setInt(2, transaction.getBookId());
-            pstmt.setDate(3, Date.valueOf(transaction.getBorrowDate()));
-            pstmt.setDate(4, transaction.getReturnDate() != null ? Date.valueOf(transaction.getReturnDate()) : null);
-            pstmt.setDate(5, Date.valueOf(transaction.getDueDate()));
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            bindTransaction(pstmt, transaction);
+            pstmt.executeUpdate();
+            transaction.setTransactionId(GeneratedKeys.single(pstmt));
+            return transaction;
+        }
+    }
+
+    // Add many transactions in one transaction, sending DEFAULT_BATCH_SIZE rows per round trip.
+    // Once committed, each transaction carries its generated ID.
+    public BatchResult<Transaction> addTransactions(List<Transaction> transactions) throws SQLException {
+        return addTransactions(transactions, BatchWriter.DEFAULT_BATCH_SIZE);
+    }
 
-            // Directly set BigDecimal fine
-            pstmt.setBigDecimal(6, transaction.getFine());
+    public BatchResult<Transaction> addTransactions(List<Transaction> transactions, int batchSize) throws SQLException {
+        String query = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        return BatchWriter.execute(query, transactions, batchSize, TransactionDAO::bindTransaction, Transaction::setTransactionId);
+    }
 
-            pstmt.setString(7, transaction.getTransactionType().name());
-            pstmt.executeUpdate();
+    // As above, and in the same database transaction mark each BORROW's book borrowed and each RETURN's book
+    // available; a rejected row leaves every status as it was
+    public BatchResult<Transaction> addTransactionsWithBookStatus(List<Transaction> transactions, int batchSize) throws SQLException {
+        String query = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String statusQuery = "UPDATE Books SET status = ? WHERE book_id = ?";
+        return BatchWriter.execute(query, transactions, batchSize, TransactionDAO::bindTransaction, Transaction::setTransactionId, conn -> {
+            try (PreparedStatement status = conn.prepareStatement(statusQuery)) {
+                int pending = 0;
+                for (Transaction transaction : transactions) {
+                    if (transaction.getTransactionType() == TransactionType.BORROW) {
+                        status.setString(1, "borrowed");
+                    } else if (transaction.getTransactionType() == TransactionType.RETURN) {
+                        status.setString(1, "available");
+                    } else {
+                        continue;
+                    }
+                    status.setInt(2, transaction.getBookId());
+                    status.addBatch();
+                    if (++pending % batchSize == 0) {
+                        status.executeBatch();
+                    }
+                }
+                status.executeBatch();
+            }
+        });
+    }
+
+    private static void bindTransaction(PreparedStatement pstmt, Transaction transaction) throws SQLException {
+        pstmt.setInt(1, transaction.getPatronId());
+        pstmt.setInt(2, transaction.getBookId());
+        pstmt.setDate(3, Date.valueOf(transaction.getBorrowDate()));
+        pstmt.setDate(4, transaction.getReturnDate() != null ? Date.valueOf(transaction.getReturnDate()) : null);
+        pstmt.setDate(5, Date.valueOf(transaction.getDueDate()));
+
+        // Directly set BigDecimal fine
+        pstmt.setBigDecimal(6, transaction.getFine());
+
+        pstmt.setString(7, transaction.getTransactionType().name());
+    }
+
+    // The transactions with these IDs, up to ID_LIST_SIZE per query; IDs with no row are left out
+    public List<Transaction> getTransactionsByIds(Collection<Integer> transactionIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>(transactionIds);
+        List<Transaction> transactions = new ArrayList<>(ids.size());
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < ids.size(); from += ID_LIST_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + ID_LIST_SIZE));
+                String query = "SELECT * FROM Transactions WHERE transaction_id IN ("
+                        + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        TransactionRowMapper mapper = new TransactionRowMapper(rs);
+                        while (rs.next()) {
+                            transactions.add(mapper.mapRow(rs));
+                        }
+                    }
+                }
+            }
         }
+        return transactions;
     }
 
     // Retrieve a transaction by its ID
@@ -38,30 +124,7 @@ public class TransactionDAO {
             pstmt.setInt(1, transactionId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    // Retrieve transaction_type and handle potential case insensitivity
-                    String transactionTypeString = rs.getString("transaction_type");
-                    TransactionType transactionType = null;
-
-                    // Check if the string is not null and handle the case insensitivity
-                    if (transactionTypeString != null) {
-                        try {
-                            transactionType = TransactionType.valueOf(transactionTypeString.toUpperCase());
-                        } catch (IllegalArgumentException e) {
-                            // Handle unexpected values (e.g., log an error or set to a default value)
-                            transactionType = TransactionType.RETURN; // Default value or log error
-                        }
-                    }
-
-                    return new Transaction(
-                            rs.getInt("transaction_id"),
-                            rs.getInt("patron_id"),
-                            rs.getInt("book_id"),
-                            rs.getDate("borrow_date").toLocalDate(),
-                            rs.getDate("return_date") != null ? rs.getDate("return_date").toLocalDate() : null,
-                            rs.getDate("due_date").toLocalDate(),
-                            rs.getBigDecimal("fine"),
-                            transactionType // Set the parsed transaction type
-                    );
+                    return new TransactionRowMapper(rs).mapRow(rs);
                 }
             }
         }
@@ -74,36 +137,60 @@ public class TransactionDAO {
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(query);
              ResultSet rs = pstmt.executeQuery()) {
+            TransactionRowMapper mapper = new TransactionRowMapper(rs);
             while (rs.next()) {
-                // Retrieve transaction_type and handle potential case insensitivity
-                String transactionTypeString = rs.getString("transaction_type");
-                TransactionType transactionType = null;
-
-                // Check if the string is not null and handle the case insensitivity
-                if (transactionTypeString != null) {
-                    try {
-                        transactionType = TransactionType.valueOf(transactionTypeString.toUpperCase());
-                    } catch (IllegalArgumentException e) {
-                        // Handle unexpected values (e.g., log an error or set to a default value)
-                        transactionType = TransactionType.RETURN; // Default value or log error
-                    }
-                }
-
-                transactions.add(new Transaction(
-                        rs.getInt("transaction_id"),
-                        rs.getInt("patron_id"),
-                        rs.getInt("book_id"),
-                        rs.getDate("borrow_date").toLocalDate(),
-                        rs.getDate("return_date") != null ? rs.getDate("return_date").toLocalDate() : null,
-                        rs.getDate("due_date").toLocalDate(),
-                        rs.getBigDecimal("fine"),
-                        transactionType // Set the parsed transaction type
-                ));
+                transactions.add(mapper.mapRow(rs));
             }
         }
         return transactions;
     }
 
+    /**
+     * Stream every transaction in transaction_id order without loading the table into memory.
+     * The stream holds a database connection until closed; use it in a try-with-resources block.
+     */
+    public Stream<Transaction> streamAllTransactions() throws SQLException {
+        return StreamingQuery.stream(ALL_TRANSACTIONS_BY_ID, TransactionRowMapper::new);
+    }
+
+    // Visit every transaction in transaction_id order, returning the number of transactions visited
+    public long forEachTransaction(Consumer<? super Transaction> visitor) throws SQLException {
+        return StreamingQuery.forEach(ALL_TRANSACTIONS_BY_ID, TransactionRowMapper::new, visitor);
+    }
+
+    /**
+     * Retrieve one page of transactions, optionally filtered by type and patron.
+     * Sorted by transaction_id, or by (due_date, transaction_id) when {@code orderByDueDate} is set.
+     */
+    public Page<Transaction> getTransactionsPage(PageRequest request, TransactionType type, Integer patronId,
+                                                 boolean orderByDueDate) throws SQLException {
+        KeysetQuery query = new KeysetQuery("SELECT * FROM Transactions");
+        if (type != null) {
+            query.where("transaction_type = ?", type.name());
+        }
+        if (patronId != null) {
+            query.where("patron_id = ?", patronId);
+        }
+        if (orderByDueDate) {
+            query.seek(request, "due_date", "transaction_id");
+        } else {
+            query.seek(request, "transaction_id");
+        }
+
+        List<Transaction> transactions = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement pstmt = query.prepare(conn);
+             ResultSet rs = pstmt.executeQuery()) {
+            TransactionRowMapper mapper = new TransactionRowMapper(rs);
+            while (rs.next()) {
+                transactions.add(mapper.mapRow(rs));
+            }
+        }
+        return Page.fromOverfetched(transactions, request, transaction -> orderByDueDate
+                ? request.after(transaction.getDueDate(), transaction.getTransactionId())
+                : request.after(transaction.getTransactionId()));
+    }
+
 
     // Update the fine for a specific transaction
     public void updateTransactionFine(int transactionId, BigDecimal fine) throws SQLException {
@@ -129,78 +216,188 @@ public class TransactionDAO {
         }
     }
 
+    // Borrow a book for two weeks; returns false if the book is not available
     public boolean borrowBook(int patronId, int bookId) throws SQLException {
-        // First, check if the book is available for borrowing
-        String checkAvailabilityQuery = "SELECT status FROM Books WHERE book_id = ?";
-        try (Connection conn = DatabaseUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(checkAvailabilityQuery)) {
-            pstmt.setInt(1, bookId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next() && rs.getString("status").equalsIgnoreCase("available")) {
-                    // The book is available, create a borrow transaction
-
-                    // Get the current date and calculate the due date (e.g., 2 weeks from now)
-                    LocalDate borrowDate = LocalDate.now();
-                    LocalDate dueDate = borrowDate.plusWeeks(2);
-
-                    // Start a transaction (disable auto-commit)
-                    conn.setAutoCommit(false);
-                    try {
-                        // Insert the transaction record in the Transactions table
-                        String insertTransactionQuery = "INSERT INTO Transactions (patron_id, book_id, borrow_date, due_date, transaction_type) " +
-                                "VALUES (?, ?, ?, ?, ?)";
-                        try (PreparedStatement pstmtInsert = conn.prepareStatement(insertTransactionQuery, Statement.RETURN_GENERATED_KEYS)) {
-                            pstmtInsert.setInt(1, patronId);
-                            pstmtInsert.setInt(2, bookId);
-                            pstmtInsert.setDate(3, Date.valueOf(borrowDate));
-                            pstmtInsert.setDate(4, Date.valueOf(dueDate));
-                            pstmtInsert.setString(5, "BORROW"); // Transaction type is BORROW
-                            int affectedRows = pstmtInsert.executeUpdate();
-
-                            if (affectedRows > 0) {
-                                // Get the generated keys
-                                try (ResultSet generatedKeys = pstmtInsert.getGeneratedKeys()) {
-                                    if (generatedKeys != null && generatedKeys.next()) {
-                                        int transactionId = generatedKeys.getInt(1);
-
-                                        // Now update the book status to "BORROWED"
-                                        String updateBookStatusQuery = "UPDATE Books SET status = ? WHERE book_id = ?";
-                                        try (PreparedStatement pstmtUpdate = conn.prepareStatement(updateBookStatusQuery)) {
-                                            pstmtUpdate.setString(1, "BORROWED"); // Mark the book as borrowed
-                                            pstmtUpdate.setInt(2, bookId);
-                                            pstmtUpdate.executeUpdate();
-                                        }
-
-                                        // Commit the transaction if both updates succeed
-                                        conn.commit();
-
-                                        // Optionally, you can return the transactionId for further processing
-                                        System.out.println("Transaction created successfully with ID: " + transactionId);
-                                        return true; // Successfully borrowed the book
-                                    } else {
-                                        // No generated keys were returned
-                                        System.err.println("No generated keys returned by the insert statement.");
-                                        return false;
-                                    }
-                                }
-                            } else {
-                                System.err.println("No rows affected by the insert statement.");
-                                return false;
-                            }
-                        }
-                    } catch (SQLException e) {
-                        // Rollback if any exception occurs
-                        conn.rollback();
-                        throw new SQLException("Failed to borrow the book, rolling back transaction.", e);
-                    } finally {
-                        // Set auto-commit back to true
-                        conn.setAutoCommit(true);
+        LocalDate borrowDate = LocalDate.now();
+        Transaction transaction = new Transaction(0, patronId, bookId, borrowDate, null, borrowDate.plusWeeks(2),
+                BigDecimal.ZERO, TransactionType.BORROW);
+        return borrowBook(transaction);
+    }
+
+    /**
+     * Claim the book and record the loan in one database transaction.
+     *
+     * The claim is a conditional UPDATE that only matches an available book, so when two desks borrow the
+     * same copy the row lock serialises them and the second sees zero rows updated. Nothing is read first,
+     * so there is no window between checking availability and writing.
+     *
+     * @return true with the generated ID set on {@code transaction}, or false if the book was not available
+     */
+    public boolean borrowBook(Transaction transaction) throws SQLException {
+        return inTransaction(conn -> claimAndRecordLoan(conn, transaction));
+    }
+
+    /**
+     * Close a loan in place: set its return date, fine and type, and make the book available again,
+     * in one database transaction. The loan row is locked first so two desks cannot return it twice.
+     *
+     * @return the updated transaction, or null if there is no open loan with that ID
+     */
+    public Transaction returnBook(int transactionId, LocalDate returnDate, BigDecimal finePerDay) throws SQLException {
+        return inTransaction(conn -> {
+            Transaction transaction;
+            String lockQuery = "SELECT * FROM Transactions WHERE transaction_id = ? FOR UPDATE";
+            try (PreparedStatement lock = conn.prepareStatement(lockQuery)) {
+                lock.setInt(1, transactionId);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    transaction = new TransactionRowMapper(rs).mapRow(rs);
+                }
+            }
+            if (transaction.getReturnDate() != null) {
+                return null;
+            }
+
+            long daysLate = Math.max(0, ChronoUnit.DAYS.between(transaction.getDueDate(), returnDate));
+            BigDecimal fine = daysLate > 0 ? finePerDay.multiply(BigDecimal.valueOf(daysLate)) : transaction.getFine();
+
+            String closeQuery = "UPDATE Transactions SET return_date = ?, fine = ?, transaction_type = ? WHERE transaction_id = ?";
+            try (PreparedStatement close = conn.prepareStatement(closeQuery)) {
+                close.setDate(1, Date.valueOf(returnDate));
+                close.setBigDecimal(2, fine);
+                close.setString(3, TransactionType.RETURN.name());
+                close.setInt(4, transactionId);
+                close.executeUpdate();
+            }
+
+            String releaseQuery = "UPDATE Books SET status = 'available' WHERE book_id = ?";
+            try (PreparedStatement release = conn.prepareStatement(releaseQuery)) {
+                release.setInt(1, transaction.getBookId());
+                release.executeUpdate();
+            }
+
+            transaction.setReturnDate(returnDate);
+            transaction.setFine(fine);
+            transaction.setTransactionType(TransactionType.RETURN);
+            return transaction;
+        });
+    }
+
+    /**
+     * One-time cleanup for rows written before returns were processed in place. Back then a return
+     * inserted a second RETURN row that copied the loan's patron, book, borrow and due dates. Each such
+     * row is folded into the earliest open BORROW row with the same values, and then deleted.
+     *
+     * @return the number of BORROW/RETURN pairs merged
+     */
+    public int compactReturnDuplicates() throws SQLException {
+        Map<String, Deque<Integer>> openLoans = new HashMap<>();
+        List<Integer> loanIds = new ArrayList<>();
+        List<Transaction> duplicates = new ArrayList<>();
+        forEachTransaction(transaction -> {
+            String key = transaction.getPatronId() + ":" + transaction.getBookId() + ":"
+                    + transaction.getBorrowDate() + ":" + transaction.getDueDate();
+            if (transaction.getTransactionType() == TransactionType.BORROW && transaction.getReturnDate() == null) {
+                openLoans.computeIfAbsent(key, k -> new ArrayDeque<>()).addLast(transaction.getTransactionId());
+            } else if (transaction.getTransactionType() == TransactionType.RETURN && transaction.getReturnDate() != null) {
+                Deque<Integer> candidates = openLoans.get(key);
+                if (candidates != null && !candidates.isEmpty()) {
+                    loanIds.add(candidates.pollFirst());
+                    duplicates.add(transaction);
+                }
+            }
+        });
+        if (duplicates.isEmpty()) {
+            return 0;
+        }
+
+        String mergeQuery = "UPDATE Transactions SET return_date = ?, fine = ?, transaction_type = ? WHERE transaction_id = ? AND return_date IS NULL";
+        String deleteQuery = "DELETE FROM Transactions WHERE transaction_id = ?";
+        return inTransaction(conn -> {
+            int merged = 0;
+            try (PreparedStatement merge = conn.prepareStatement(mergeQuery);
+                 PreparedStatement delete = conn.prepareStatement(deleteQuery)) {
+                for (int i = 0; i < duplicates.size(); i++) {
+                    Transaction duplicate = duplicates.get(i);
+                    merge.setDate(1, Date.valueOf(duplicate.getReturnDate()));
+                    merge.setBigDecimal(2, duplicate.getFine());
+                    merge.setString(3, TransactionType.RETURN.name());
+                    merge.setInt(4, loanIds.get(i));
+                    // The scan held no locks; a loan closed since then keeps its own return, and this row with it
+                    if (merge.executeUpdate() != 1) {
+                        continue;
+                    }
+                    delete.setInt(1, duplicate.getTransactionId());
+                    delete.addBatch();
+                    if (++merged % BatchWriter.DEFAULT_BATCH_SIZE == 0) {
+                        delete.executeBatch();
                     }
                 }
+                delete.executeBatch();
             }
+            return merged;
+        });
+    }
+
+    private boolean claimAndRecordLoan(Connection conn, Transaction transaction) throws SQLException {
+        String claimQuery = "UPDATE Books SET status = 'borrowed' WHERE book_id = ? AND status = 'available'";
+        try (PreparedStatement claim = conn.prepareStatement(claimQuery)) {
+            claim.setInt(1, transaction.getBookId());
+            if (claim.executeUpdate() == 0) {
+                return false;
+            }
+        }
+
+        String insertQuery = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+            bindTransaction(insert, transaction);
+            insert.executeUpdate();
+            transaction.setTransactionId(GeneratedKeys.single(insert));
         }
-        return false; // Book not available for borrowing
+        return true;
     }
 
+    @FunctionalInterface
+    private interface TransactionWork<T> {
+        T run(Connection conn) throws SQLException;
+    }
 
+    // Run work in one database transaction, retrying the whole unit if InnoDB picks it as a deadlock victim
+    private <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try (Connection conn = DatabaseUtil.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    T result = work.run(conn);
+                    conn.commit();
+                    return result;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    if (!isDeadlock(e) || attempt > MAX_DEADLOCK_RETRIES) {
+                        throw e;
+                    }
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+            backOff(attempt);
+        }
+    }
+
+    // InnoDB reports a deadlock victim as SQLState 40001 / error 1213
+    static boolean isDeadlock(SQLException e) {
+        return "40001".equals(e.getSQLState()) || e.getErrorCode() == 1213;
+    }
+
+    private static void backOff(int attempt) throws SQLException {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20) * attempt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying a deadlocked transaction.", e);
+        }
+    }
 }
\ No newline at end of file
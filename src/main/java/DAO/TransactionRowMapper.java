@@ -0,0 +1,55 @@
+package DAO;
+
+import Entity.Enums.TransactionType;
+import Entity.Transaction;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows of the Transactions table to {@link Transaction}.
+ */
+public class TransactionRowMapper implements RowMapper<Transaction> {
+    private static final EnumLookup<TransactionType> TYPES = EnumLookup.of(TransactionType.class);
+
+    private final int transactionIdColumn;
+    private final int patronIdColumn;
+    private final int bookIdColumn;
+    private final int borrowDateColumn;
+    private final int returnDateColumn;
+    private final int dueDateColumn;
+    private final int fineColumn;
+    private final int transactionTypeColumn;
+
+    // Resolve column positions once for this result set
+    public TransactionRowMapper(ResultSet rs) throws SQLException {
+        this.transactionIdColumn = rs.findColumn("transaction_id");
+        this.patronIdColumn = rs.findColumn("patron_id");
+        this.bookIdColumn = rs.findColumn("book_id");
+        this.borrowDateColumn = rs.findColumn("borrow_date");
+        this.returnDateColumn = rs.findColumn("return_date");
+        this.dueDateColumn = rs.findColumn("due_date");
+        this.fineColumn = rs.findColumn("fine");
+        this.transactionTypeColumn = rs.findColumn("transaction_type");
+    }
+
+    @Override
+    public Transaction mapRow(ResultSet rs) throws SQLException {
+        // A null type stays null; unexpected values fall back to RETURN as before
+        String type = rs.getString(transactionTypeColumn);
+        TransactionType transactionType = type != null ? TYPES.lookup(type, TransactionType.RETURN) : null;
+
+        Date returnDate = rs.getDate(returnDateColumn);
+        return new Transaction(
+                rs.getInt(transactionIdColumn),
+                rs.getInt(patronIdColumn),
+                rs.getInt(bookIdColumn),
+                rs.getDate(borrowDateColumn).toLocalDate(),
+                returnDate != null ? returnDate.toLocalDate() : null,
+                rs.getDate(dueDateColumn).toLocalDate(),
+                rs.getBigDecimal(fineColumn),
+                transactionType
+        );
+    }
+}
@@ -0,0 +1,364 @@
+package DatabaseConnection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe JDBC connection pool.
+ *
+ * Callers get a proxy {@link Connection}; closing it hands the physical connection back to the pool
+ * instead of tearing down the socket, so the existing try-with-resources blocks in the DAOs keep working unchanged.
+ * Connections are validated on borrow, retired after {@code maxLifetime}, evicted after {@code idleTimeout},
+ * and reported with the borrowing stack trace if they are held longer than the leak detection threshold.
+ * Each physical connection keeps its own {@link StatementCache}, so repeated DAO queries reuse their prepared statements.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+
+    private ConnectionPool(ConnectionFactory factory, PoolConfig config) {
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxPoolSize(), true);
+
+        if (config.getHousekeepingPeriodMillis() > 0) {
+            this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.housekeeper = null;
+        }
+    }
+
+    // Create a pool and start its housekeeping; the task is only scheduled once the pool is fully constructed
+    public static ConnectionPool create(ConnectionFactory factory, PoolConfig config) {
+        ConnectionPool pool = new ConnectionPool(factory, config);
+        if (pool.housekeeper != null) {
+            long period = config.getHousekeepingPeriodMillis();
+            pool.housekeeper.scheduleWithFixedDelay(pool::runHousekeeping, period, period, TimeUnit.MILLISECONDS);
+        }
+        return pool;
+    }
+
+    // Borrow a connection, waiting up to connectionTimeout for one to become free
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down.");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.getConnectionTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+        totalWaitNanos.add(System.nanoTime() - start);
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTransientConnectionException("Timed out after " + config.getConnectionTimeoutMillis()
+                    + " ms waiting for a database connection (" + stats() + ")");
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdleConnection();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.create());
+                createdCount.increment();
+            }
+            pooled.lease(config.getLeakDetectionThresholdMillis() > 0
+                    ? new Throwable("Connection borrowed by " + Thread.currentThread().getName())
+                    : null);
+            inUse.add(pooled);
+            borrowCount.increment();
+            return pooled.newProxy();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolStats stats() {
+        return new PoolStats(inUse.size(), idle.size(), permits.getQueueLength(), borrowCount.sum(),
+                totalWaitNanos.sum(), timeoutCount.sum(), createdCount.sum(), destroyedCount.sum(), leakCount.sum(),
+                statementCacheHits.sum(), statementCacheMisses.sum());
+    }
+
+    // Close idle connections and refuse new borrows; connections still in use are closed when returned
+    @Override
+    public void close() {
+        closed = true;
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    // Evict idle or expired connections and report leaked ones
+    void runHousekeeping() {
+        long now = System.nanoTime();
+        for (PooledConnection pooled : idle) {
+            if ((pooled.idleMillis(now) > config.getIdleTimeoutMillis() || isExpired(pooled, now)) && idle.remove(pooled)) {
+                destroy(pooled);
+            }
+        }
+
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold > 0) {
+            for (PooledConnection pooled : inUse) {
+                if (pooled.leasedMillis(now) > threshold && pooled.markLeakReported()) {
+                    leakCount.increment();
+                    System.err.println("Possible connection leak: connection held for " + pooled.leasedMillis(now)
+                            + " ms (threshold " + threshold + " ms)");
+                    Throwable borrowSite = pooled.borrowSite();
+                    if (borrowSite != null) {
+                        borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    private PooledConnection takeValidIdleConnection() {
+        PooledConnection pooled;
+        long now = System.nanoTime();
+        // LIFO keeps the hottest connections in use and lets the cold ones age out
+        while ((pooled = idle.pollFirst()) != null) {
+            if (!isExpired(pooled, now) && isValid(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return config.getMaxLifetimeMillis() > 0 && pooled.ageMillis(now) > config.getMaxLifetimeMillis();
+    }
+
+    private void release(PooledConnection pooled) {
+        inUse.remove(pooled);
+        try {
+            boolean reusable = !closed && !pooled.physical.isClosed() && !isExpired(pooled, System.nanoTime());
+            if (reusable && !pooled.physical.getAutoCommit()) {
+                // Never hand out a connection with someone else's uncommitted work on it
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (reusable) {
+                pooled.markIdle();
+                idle.offerFirst(pooled);
+            } else {
+                destroy(pooled);
+            }
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        destroyedCount.increment();
+        if (pooled.statements != null) {
+            pooled.statements.clear();
+        }
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A physical connection plus the bookkeeping the pool needs about it.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements;
+        private final long createdAt = System.nanoTime();
+        private volatile long lastReturnedAt = createdAt;
+        private volatile long leasedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = config.getStatementCacheSize() > 0
+                    ? new StatementCache(config.getStatementCacheSize(), statementCacheHits, statementCacheMisses)
+                    : null;
+        }
+
+        void lease(Throwable borrowSite) {
+            this.leasedAt = System.nanoTime();
+            this.borrowSite = borrowSite;
+            this.leakReported = false;
+        }
+
+        void markIdle() {
+            this.lastReturnedAt = System.nanoTime();
+            this.borrowSite = null;
+        }
+
+        boolean markLeakReported() {
+            if (leakReported) {
+                return false;
+            }
+            leakReported = true;
+            return true;
+        }
+
+        Throwable borrowSite() {
+            return borrowSite;
+        }
+
+        long ageMillis(long now) {
+            return TimeUnit.NANOSECONDS.toMillis(now - createdAt);
+        }
+
+        long idleMillis(long now) {
+            return TimeUnit.NANOSECONDS.toMillis(now - lastReturnedAt);
+        }
+
+        long leasedMillis(long now) {
+            return TimeUnit.NANOSECONDS.toMillis(now - leasedAt);
+        }
+
+        Connection newProxy() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LogicalConnectionHandler(this));
+        }
+    }
+
+    /**
+     * Routes calls on the borrowed proxy to the physical connection until the caller closes it.
+     */
+    private final class LogicalConnectionHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LogicalConnectionHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection has already been returned to the pool.");
+                    }
+                    StatementCache.Key key = statementKey(method, args);
+                    if (key != null) {
+                        return pooled.statements.prepare(key, () -> (PreparedStatement) invokePhysical(method, args));
+                    }
+                    return invokePhysical(method, args);
+            }
+        }
+
+        // Only the prepareStatement overloads the DAOs use are cached; the column-list variants pass through
+        private StatementCache.Key statementKey(Method method, Object[] args) {
+            if (pooled.statements == null || !method.getName().equals("prepareStatement")) {
+                return null;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            String sql = (String) args[0];
+            if (types.length == 1) {
+                return new StatementCache.Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, Statement.NO_GENERATED_KEYS);
+            }
+            if (types.length == 2 && types[1] == int.class) {
+                return new StatementCache.Key(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, (Integer) args[1]);
+            }
+            if (types.length == 3) {
+                return new StatementCache.Key(sql, (Integer) args[1], (Integer) args[2], Statement.NO_GENERATED_KEYS);
+            }
+            return null;
+        }
+
+        private Object invokePhysical(Method method, Object[] args) throws SQLException {
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException sqlException) {
+                    throw sqlException;
+                }
+                if (cause instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw new SQLException(cause);
+            } catch (IllegalAccessException e) {
+                throw new SQLException(e);
+            }
+        }
+    }
+}
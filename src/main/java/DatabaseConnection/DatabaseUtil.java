@@ -3,13 +3,46 @@ package DatabaseConnection;
 import java.sql.*;
 
 public class DatabaseUtil {
-    private static final String URL = "jdbc:mysql://localhost:3306/librarydb";
+    private static final String URL = "jdbc:mysql://localhost:3306/librarydb?rewriteBatchedStatements=true&useServerPrepStmts=true";
     private static final String USER = "root";
     private static final String PASSWORD = "FaridaYussif8*";
 
+    private static volatile ConnectionPool pool;
+
+    // Borrow a pooled connection; closing it returns it to the pool
     public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
+
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseUtil.class) {
+                current = pool;
+                if (current == null) {
+                    current = ConnectionPool.create(DatabaseUtil::openPhysicalConnection, PoolConfig.fromSystemProperties());
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static PoolStats getPoolStats() {
+        return getPool().stats();
+    }
+
+    // Close the pool on application exit
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static Connection openPhysicalConnection() throws SQLException {
         return DriverManager.getConnection(URL, USER, PASSWORD);
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package DatabaseConnection;
+
+/**
+ * Tuning knobs for {@link ConnectionPool}.
+ * Defaults can be overridden with {@code -Dlibrarydb.pool.*} system properties (see {@link #fromSystemProperties()}).
+ */
+public class PoolConfig {
+    private int maxPoolSize = 10;
+    private long connectionTimeoutMillis = 5_000;
+    private long idleTimeoutMillis = 5 * 60_000;
+    private long maxLifetimeMillis = 30 * 60_000;
+    private int validationTimeoutSeconds = 2;
+    private long leakDetectionThresholdMillis = 30_000; // 0 disables leak detection
+    private long housekeepingPeriodMillis = 30_000;
+    private int statementCacheSize = 64; // Prepared statements kept per connection, 0 disables caching
+
+    // Build a config from system properties, falling back to the defaults above
+    public static PoolConfig fromSystemProperties() {
+        PoolConfig config = new PoolConfig();
+        config.setMaxPoolSize(Integer.getInteger("librarydb.pool.maxSize", config.maxPoolSize));
+        config.setConnectionTimeoutMillis(Long.getLong("librarydb.pool.connectionTimeoutMs", config.connectionTimeoutMillis));
+        config.setIdleTimeoutMillis(Long.getLong("librarydb.pool.idleTimeoutMs", config.idleTimeoutMillis));
+        config.setMaxLifetimeMillis(Long.getLong("librarydb.pool.maxLifetimeMs", config.maxLifetimeMillis));
+        config.setValidationTimeoutSeconds(Integer.getInteger("librarydb.pool.validationTimeoutSec", config.validationTimeoutSeconds));
+        config.setLeakDetectionThresholdMillis(Long.getLong("librarydb.pool.leakDetectionMs", config.leakDetectionThresholdMillis));
+        config.setHousekeepingPeriodMillis(Long.getLong("librarydb.pool.housekeepingMs", config.housekeepingPeriodMillis));
+        config.setStatementCacheSize(Integer.getInteger("librarydb.pool.statementCacheSize", config.statementCacheSize));
+        return config;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(int maxPoolSize) {
+        if (maxPoolSize <= 0) {
+            throw new IllegalArgumentException("Max pool size must be greater than zero.");
+        }
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public long getConnectionTimeoutMillis() {
+        return connectionTimeoutMillis;
+    }
+
+    public void setConnectionTimeoutMillis(long connectionTimeoutMillis) {
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public long getMaxLifetimeMillis() {
+        return maxLifetimeMillis;
+    }
+
+    public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+        this.maxLifetimeMillis = maxLifetimeMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public long getLeakDetectionThresholdMillis() {
+        return leakDetectionThresholdMillis;
+    }
+
+    public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+    }
+
+    public long getHousekeepingPeriodMillis() {
+        return housekeepingPeriodMillis;
+    }
+
+    public void setHousekeepingPeriodMillis(long housekeepingPeriodMillis) {
+        this.housekeepingPeriodMillis = housekeepingPeriodMillis;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative.");
+        }
+        this.statementCacheSize = statementCacheSize;
+    }
+}
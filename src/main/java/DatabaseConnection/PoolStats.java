@@ -0,0 +1,109 @@
+package DatabaseConnection;
+
+/**
+ * Point-in-time snapshot of {@link ConnectionPool} counters.
+ */
+public class PoolStats {
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int waitingThreads;
+    private final long borrowCount;
+    private final long totalWaitNanos;
+    private final long timeoutCount;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long leakCount;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    public PoolStats(int activeConnections, int idleConnections, int waitingThreads, long borrowCount,
+                     long totalWaitNanos, long timeoutCount, long createdCount, long destroyedCount, long leakCount,
+                     long statementCacheHits, long statementCacheMisses) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.waitingThreads = waitingThreads;
+        this.borrowCount = borrowCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.timeoutCount = timeoutCount;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.leakCount = leakCount;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return activeConnections + idleConnections;
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    public long getBorrowCount() {
+        return borrowCount;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    // Average time a caller waited for a connection, in microseconds
+    public double getAverageWaitMicros() {
+        return borrowCount == 0 ? 0 : totalWaitNanos / 1_000.0 / borrowCount;
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    public long getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    public long getLeakCount() {
+        return leakCount;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    // Share of prepareStatement calls served from a connection's statement cache
+    public double getStatementCacheHitRatio() {
+        long lookups = statementCacheHits + statementCacheMisses;
+        return lookups == 0 ? 0 : (double) statementCacheHits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "active=" + activeConnections +
+                ", idle=" + idleConnections +
+                ", waiting=" + waitingThreads +
+                ", borrows=" + borrowCount +
+                ", avgWaitMicros=" + String.format("%.1f", getAverageWaitMicros()) +
+                ", timeouts=" + timeoutCount +
+                ", created=" + createdCount +
+                ", destroyed=" + destroyedCount +
+                ", leaks=" + leakCount +
+                ", stmtCacheHitRatio=" + String.format("%.2f", getStatementCacheHitRatio()) +
+                '}';
+    }
+}
@@ -0,0 +1,185 @@
+package DatabaseConnection;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements belonging to one physical connection.
+ *
+ * Callers get a proxy; closing it clears the parameters and keeps the physical statement for the next
+ * caller that prepares the same SQL, so neither the driver nor the server parses it again. Fetch size,
+ * fetch direction, row and field limits and the query timeout are put back to what the driver gave the new
+ * statement, so a streaming read cannot leave the next caller streaming; a statement changed in any other
+ * way is closed instead of cached. A pooled connection is only ever leased to one thread at a time, so the
+ * cache needs no locking.
+ */
+final class StatementCache {
+    private static final Set<String> RESTORED_SETTINGS = Set.of(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setMaxFieldSize", "setQueryTimeout");
+    private static final Set<String> UNRESTORED_SETTINGS = Set.of(
+            "setLargeMaxRows", "setEscapeProcessing", "setCursorName", "setPoolable", "closeOnCompletion");
+
+    @FunctionalInterface
+    interface StatementFactory {
+        PreparedStatement prepare() throws SQLException;
+    }
+
+    // The same SQL prepared with different options is a different statement
+    record Key(String sql, int resultSetType, int resultSetConcurrency, int autoGeneratedKeys) {
+    }
+
+    private final int capacity;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LinkedHashMap<Key, CachedStatement> statements;
+
+    StatementCache(int capacity, LongAdder hits, LongAdder misses) {
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    PreparedStatement prepare(Key key, StatementFactory factory) throws SQLException {
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            hits.increment();
+            return cached.lease();
+        }
+
+        misses.increment();
+        PreparedStatement physical = factory.prepare();
+        if (cached != null) {
+            // The cached copy is still open further up the stack; this one is closed for real when done
+            return physical;
+        }
+        cached = new CachedStatement(key, physical);
+        statements.put(key, cached);
+        evictOverflow();
+        return cached.lease();
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    // The physical connection closes its statements itself; just forget them
+    void clear() {
+        statements.clear();
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedStatement> eldestFirst = statements.values().iterator();
+        while (statements.size() > capacity && eldestFirst.hasNext()) {
+            CachedStatement eldest = eldestFirst.next();
+            eldestFirst.remove();
+            eldest.evicted = true;
+            if (!eldest.inUse) {
+                eldest.closePhysical();
+            }
+        }
+    }
+
+    private final class CachedStatement {
+        private final Key key;
+        private final PreparedStatement physical;
+        private final int fetchSize;
+        private final int fetchDirection;
+        private final int maxRows;
+        private final int maxFieldSize;
+        private final int queryTimeout;
+        private boolean inUse;
+        private boolean evicted;
+        private boolean settingsChanged; // By the current lease, through one of RESTORED_SETTINGS
+        private boolean unreusable; // By the current lease, through one of UNRESTORED_SETTINGS
+
+        CachedStatement(Key key, PreparedStatement physical) throws SQLException {
+            this.key = key;
+            this.physical = physical;
+            this.fetchSize = physical.getFetchSize();
+            this.fetchDirection = physical.getFetchDirection();
+            this.maxRows = physical.getMaxRows();
+            this.maxFieldSize = physical.getMaxFieldSize();
+            this.queryTimeout = physical.getQueryTimeout();
+        }
+
+        PreparedStatement lease() {
+            inUse = true;
+            boolean[] closed = {false};
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (!closed[0]) {
+                                    closed[0] = true;
+                                    release();
+                                }
+                                return null;
+                            case "isClosed":
+                                return closed[0] || physical.isClosed();
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "toString":
+                                return "CachedStatement[" + key.sql() + "]";
+                            default:
+                                if (closed[0]) {
+                                    throw new SQLException("Statement has already been closed.");
+                                }
+                                if (RESTORED_SETTINGS.contains(method.getName())) {
+                                    settingsChanged = true;
+                                } else if (UNRESTORED_SETTINGS.contains(method.getName())) {
+                                    unreusable = true;
+                                }
+                                try {
+                                    return method.invoke(physical, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                        }
+                    });
+        }
+
+        private void release() {
+            inUse = false;
+            if (evicted || unreusable) {
+                statements.remove(key, this);
+                closePhysical();
+                return;
+            }
+            try {
+                physical.clearParameters();
+                physical.clearBatch();
+                if (settingsChanged) {
+                    physical.setFetchSize(fetchSize);
+                    physical.setFetchDirection(fetchDirection);
+                    physical.setMaxRows(maxRows);
+                    physical.setMaxFieldSize(maxFieldSize);
+                    physical.setQueryTimeout(queryTimeout);
+                    settingsChanged = false;
+                }
+            } catch (SQLException e) {
+                // A statement that cannot be reset is not safe to hand out again
+                statements.remove(key, this);
+                closePhysical();
+            }
+        }
+
+        private void closePhysical() {
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing cached statement: " + e.getMessage());
+            }
+        }
+    }
+}
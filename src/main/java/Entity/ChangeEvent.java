@@ -0,0 +1,48 @@
+package Entity;
+
+import Entity.Enums.ChangeEntity;
+import Entity.Enums.ChangeOperation;
+
+/**
+ * One row of the ChangeLog table: some client wrote this entity, in this order.
+ */
+public class ChangeEvent {
+
+    private final long sequence;
+    private final ChangeEntity entity;
+    private final int entityId;
+    private final ChangeOperation operation;
+
+    public ChangeEvent(long sequence, ChangeEntity entity, int entityId, ChangeOperation operation) {
+        this.sequence = sequence;
+        this.entity = entity;
+        this.entityId = entityId;
+        this.operation = operation;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ChangeEntity getEntity() {
+        return entity;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    public ChangeOperation getOperation() {
+        return operation;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "sequence=" + sequence +
+                ", entity=" + entity +
+                ", entityId=" + entityId +
+                ", operation=" + operation +
+                '}';
+    }
+}
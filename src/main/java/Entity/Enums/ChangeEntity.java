@@ -0,0 +1,9 @@
+package Entity.Enums;
+
+public enum ChangeEntity {
+    BOOK,
+    PATRON,
+    TRANSACTION,
+    RESERVATION,
+    STAFF
+}
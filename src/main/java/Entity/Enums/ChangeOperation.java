@@ -0,0 +1,7 @@
+package Entity.Enums;
+
+public enum ChangeOperation {
+    INSERT,
+    UPDATE,
+    DELETE
+}
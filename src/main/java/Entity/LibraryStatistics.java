@@ -0,0 +1,91 @@
+package Entity;
+
+import Entity.Enums.BookStatus;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Headline counts for the dashboard, taken together at one point in time.
+ */
+public class LibraryStatistics {
+
+    private final Map<BookStatus, Long> booksByStatus;
+    private final long activePatrons;
+    private final long openLoans;
+    private final long overdueLoans;
+    private final long pendingReservations;
+    private final Map<String, Long> booksByGenre;
+    private final Map<YearMonth, Long> loansPerMonth;
+
+    public LibraryStatistics(Map<BookStatus, Long> booksByStatus, long activePatrons, long openLoans, long overdueLoans,
+                             long pendingReservations, Map<String, Long> booksByGenre, Map<YearMonth, Long> loansPerMonth) {
+        this.booksByStatus = booksByStatus.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(new EnumMap<>(booksByStatus));
+        this.activePatrons = activePatrons;
+        this.openLoans = openLoans;
+        this.overdueLoans = overdueLoans;
+        this.pendingReservations = pendingReservations;
+
+        Map<String, Long> genres = new LinkedHashMap<>();
+        booksByGenre.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> genres.put(entry.getKey(), entry.getValue()));
+        this.booksByGenre = Collections.unmodifiableMap(genres);
+        this.loansPerMonth = Collections.unmodifiableMap(new TreeMap<>(loansPerMonth));
+    }
+
+    public long getTotalBooks() {
+        return booksByStatus.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getBooks(BookStatus status) {
+        return booksByStatus.getOrDefault(status, 0L);
+    }
+
+    // Patrons with at least one book out
+    public long getActivePatrons() {
+        return activePatrons;
+    }
+
+    public long getOpenLoans() {
+        return openLoans;
+    }
+
+    // Open loans whose due date has passed
+    public long getOverdueLoans() {
+        return overdueLoans;
+    }
+
+    public long getPendingReservations() {
+        return pendingReservations;
+    }
+
+    // Number of books per genre, largest first
+    public Map<String, Long> getBooksByGenre() {
+        return booksByGenre;
+    }
+
+    // Transactions recorded per borrow month, oldest first
+    public Map<YearMonth, Long> getLoansPerMonth() {
+        return loansPerMonth;
+    }
+
+    @Override
+    public String toString() {
+        return "LibraryStatistics{" +
+                "booksByStatus=" + booksByStatus +
+                ", activePatrons=" + activePatrons +
+                ", openLoans=" + openLoans +
+                ", overdueLoans=" + overdueLoans +
+                ", pendingReservations=" + pendingReservations +
+                ", booksByGenre=" + booksByGenre +
+                ", loansPerMonth=" + loansPerMonth +
+                '}';
+    }
+}
@@ -28,6 +28,10 @@ public class Patron {
         return patronId;
     }
 
+    public void setPatronId(int patronId) {
+        this.patronId = patronId;
+    }
+
 
     public String getFirstName() {
         return firstName;
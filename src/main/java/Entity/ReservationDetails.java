@@ -0,0 +1,40 @@
+package Entity;
+
+/**
+ * A reservation together with the patron's name and the book's title, as shown in the reservations table.
+ * Loaded in one joined query, so the names are read from memory instead of being looked up per cell.
+ */
+public class ReservationDetails extends Reservation {
+
+    private final String patronName;
+    private final String bookTitle;
+
+    public ReservationDetails(Reservation reservation, String patronName, String bookTitle) {
+        super(reservation.getReservationId(), reservation.getPatronId(), reservation.getBookId(),
+                reservation.getReservationDate(), reservation.getStatus(), reservation.getDueDate());
+        this.patronName = patronName;
+        this.bookTitle = bookTitle;
+    }
+
+    @Override
+    public String getPatronName() {
+        return patronName;
+    }
+
+    @Override
+    public String getBookTitle() {
+        return bookTitle;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservationDetails{" +
+                "reservationId=" + getReservationId() +
+                ", patronName='" + patronName + '\'' +
+                ", bookTitle='" + bookTitle + '\'' +
+                ", reservationDate=" + getReservationDate() +
+                ", status=" + getStatus() +
+                ", dueDate=" + getDueDate() +
+                '}';
+    }
+}
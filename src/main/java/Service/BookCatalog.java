@@ -0,0 +1,411 @@
+package Service;
+
+import DAO.BookDAO;
+import Entity.Book;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * In-memory copy of the Books table, published as immutable, versioned snapshots.
+ *
+ * The first refresh loads everything. Later refreshes only fetch the rows whose {@code updated_at} is
+ * newer than the last sync, and the IDs the change log records as deleted since then, so a refresh costs
+ * time in proportion to the number of changes, not the catalog size. Snapshots are stored as fixed-size chunks indexed by book ID. A new version copies only
+ * the chunks it touches, so readers keep the snapshot they started with and never see a half-applied refresh.
+ * Books handed out by a snapshot are shared between readers and must be treated as read-only.
+ */
+public class BookCatalog {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    // Re-read a little history each time so a transaction that committed just after the last sync is not missed
+    static final Duration SYNC_OVERLAP = Duration.ofSeconds(5);
+    // Change log rows are purged after a day (see sql/change_log.sql); a catalog older than that reloads instead
+    static final Duration CHANGE_LOG_RETENTION = Duration.ofHours(12);
+
+    private final BookDAO bookDAO;
+    private volatile Snapshot current = Snapshot.EMPTY;
+    // The indexes follow every change published to current
+    private volatile BookSearchIndex index = new BookSearchIndex();
+    private volatile TrigramIndex trigrams = new TrigramIndex();
+    private volatile PrefixIndex titles = new PrefixIndex();
+    private volatile IsbnIndex isbns = new IsbnIndex();
+    private volatile FacetIndex facets = new FacetIndex();
+    private Timestamp watermark; // Database time of the last successful sync; guarded by this
+
+    public BookCatalog(BookDAO bookDAO) {
+        this.bookDAO = bookDAO;
+    }
+
+    // The latest published snapshot, without touching the database
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    // Whether the whole table has been read at least once; books put before that are only a few of them
+    public synchronized boolean isLoaded() {
+        return watermark != null;
+    }
+
+    // Bring the catalog up to date and return the new snapshot; unchanged data keeps the same version
+    public synchronized Snapshot refresh() throws SQLException {
+        if (watermark == null) {
+            return reload();
+        }
+
+        Timestamp syncTime = bookDAO.getDatabaseTime();
+        if (syncTime.getTime() - watermark.getTime() > CHANGE_LOG_RETENTION.toMillis()) {
+            return reload(); // The deletes since the last sync may already be purged from the change log
+        }
+        Timestamp since = new Timestamp(watermark.getTime() - SYNC_OVERLAP.toMillis());
+        List<Book> changed = bookDAO.getBooksUpdatedSince(since);
+        // Deletes leave no updated_at behind, only a change log row
+        Set<Integer> deleted = new HashSet<>(bookDAO.getBookIdsDeletedSince(since));
+        for (Book book : changed) {
+            deleted.remove(book.getBookId()); // Still in the table, so the delete came before a re-insert
+        }
+        Snapshot next = current.withChanges(changed, deleted);
+
+        for (Book book : changed) {
+            Book previous = current.get(book.getBookId());
+            if (next.get(book.getBookId()) != previous) {
+                indexChange(previous, book);
+            }
+        }
+        for (int bookId : deleted) {
+            Book previous = current.get(bookId);
+            if (previous != null) {
+                unindex(previous);
+            }
+        }
+        watermark = syncTime;
+        current = next;
+        return next;
+    }
+
+    // Throw away the snapshot and load the whole table again
+    public synchronized Snapshot reload() throws SQLException {
+        Timestamp syncTime = bookDAO.getDatabaseTime();
+        List<Book> books = bookDAO.getAllBooks();
+        // Build the new index aside, so searches keep using the old one until the reload is complete
+        BookSearchIndex rebuilt = new BookSearchIndex();
+        TrigramIndex rebuiltTrigrams = new TrigramIndex();
+        PrefixIndex rebuiltTitles = new PrefixIndex();
+        IsbnIndex rebuiltIsbns = new IsbnIndex(books.size());
+        FacetIndex rebuiltFacets = new FacetIndex();
+        for (Book book : books) {
+            rebuilt.put(book);
+            rebuiltTrigrams.put(null, book);
+            rebuiltTitles.put(book.getBookId(), titleKeys(book));
+            rebuiltIsbns.put(Isbn.parse(book.getIsbn()), book.getBookId());
+            rebuiltFacets.put(book);
+        }
+        current = Snapshot.EMPTY.withChanges(books, List.of()).withVersion(current.version + 1);
+        index = rebuilt;
+        trigrams = rebuiltTrigrams;
+        titles = rebuiltTitles;
+        isbns = rebuiltIsbns;
+        facets = rebuiltFacets;
+        watermark = syncTime;
+        return current;
+    }
+
+    // Publish a book this process has just written, ahead of the next refresh
+    public synchronized void put(Book book) {
+        putAll(List.of(book));
+    }
+
+    // Publish a batch this process has just written as one new version, ahead of the next refresh
+    public synchronized void putAll(Collection<Book> books) {
+        List<Book> copies = new ArrayList<>(books.size());
+        for (Book book : books) {
+            copies.add(copyOf(book));
+        }
+        Snapshot previous = current;
+        current = previous.withChanges(copies, List.of());
+        for (Book copy : copies) {
+            Book before = previous.get(copy.getBookId());
+            if (current.get(copy.getBookId()) != before) {
+                indexChange(before, copy);
+            }
+        }
+    }
+
+    public synchronized void remove(int bookId) {
+        Book previous = current.get(bookId);
+        current = current.withChanges(List.of(), List.of(bookId));
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    // Books whose title, author or genre contain every word of the query, in ID order; no database access
+    public List<Book> search(String query) {
+        Snapshot snapshot = current;
+        int[] bookIds = index.search(query);
+        List<Book> books = new ArrayList<>(bookIds.length);
+        for (int bookId : bookIds) {
+            Book book = snapshot.get(bookId);
+            if (book != null) { // Removed between reading the index and the snapshot
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // The best matches for the query, most relevant first, at most limit of them; no database access
+    public List<Book> rank(String query, int limit) {
+        return rank(query, Map.of(), limit);
+    }
+
+    // The best matches for the query among the books with every selected facet value; no database access
+    public List<Book> rank(String query, Map<FacetIndex.Facet, String> selection, int limit) {
+        Snapshot snapshot = current;
+        FacetIndex facetIndex = facets;
+        int[] bookIds = selection.isEmpty()
+                ? index.rank(query, limit)
+                : index.rank(query, limit, matches -> facetIndex.retain(matches, selection));
+        List<Book> books = new ArrayList<>(bookIds.length);
+        for (int bookId : bookIds) {
+            Book book = snapshot.get(bookId);
+            if (book != null) { // Removed between reading the index and the snapshot
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // Books whose title or author contains the text anywhere, ignoring case, in ID order; no database access
+    public List<Book> searchSubstring(String text) {
+        Snapshot snapshot = current;
+        String needle = TrigramIndex.normalize(text);
+        int[] bookIds = trigrams.candidates(needle);
+        List<Book> books = new ArrayList<>();
+        if (bookIds == null) {
+            // One or two characters say too little to narrow the search; check every book
+            for (Book book : snapshot.asList()) {
+                if (containsText(book, needle)) {
+                    books.add(book);
+                }
+            }
+            return books;
+        }
+        for (int bookId : bookIds) {
+            Book book = snapshot.get(bookId);
+            if (book != null && containsText(book, needle)) { // The trigrams only say the text may be there
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // Up to limit books whose title starts with the prefix, in title order; a leading article may be left out
+    public List<Book> suggestTitles(String prefix, int limit) {
+        Snapshot snapshot = current;
+        List<Book> books = new ArrayList<>();
+        for (int bookId : titles.top(prefix, limit)) {
+            Book book = snapshot.get(bookId);
+            if (book != null) {
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // Genre, status, decade and author-initial counts for the selected facet values; no database access
+    public Map<FacetIndex.Facet, SortedMap<String, Integer>> facetCounts(Map<FacetIndex.Facet, String> selection) {
+        return facets.counts(selection);
+    }
+
+    // Books with every selected facet value, in ID order; no database access
+    public List<Book> browse(Map<FacetIndex.Facet, String> selection) {
+        Snapshot snapshot = current;
+        int[] bookIds = facets.matching(selection);
+        List<Book> books = new ArrayList<>(bookIds.length);
+        for (int bookId : bookIds) {
+            Book book = snapshot.get(bookId);
+            if (book != null) { // Removed between reading the index and the snapshot
+                books.add(book);
+            }
+        }
+        return books;
+    }
+
+    // The book with this canonical ISBN, or null
+    public Book findByIsbn(long isbn) {
+        Snapshot snapshot = current;
+        int bookId = isbns.get(isbn);
+        return bookId < 0 ? null : snapshot.get(bookId);
+    }
+
+    private void indexChange(Book previous, Book book) {
+        index.put(book); // Books whose words did not change are skipped by the index
+        trigrams.put(previous, book);
+        titles.put(book.getBookId(), titleKeys(book));
+        if (previous != null) {
+            isbns.remove(Isbn.parse(previous.getIsbn()), book.getBookId());
+        }
+        isbns.put(Isbn.parse(book.getIsbn()), book.getBookId());
+        facets.put(book);
+    }
+
+    private void unindex(Book previous) {
+        int bookId = previous.getBookId();
+        index.remove(bookId);
+        trigrams.remove(previous);
+        titles.remove(bookId);
+        isbns.remove(Isbn.parse(previous.getIsbn()), bookId);
+        facets.remove(bookId);
+    }
+
+    // "The Famished Road" can be found by typing "Famished" as well
+    private static String[] titleKeys(Book book) {
+        String title = PrefixIndex.normalize(book.getTitle());
+        for (String article : new String[]{"the ", "a ", "an "}) {
+            if (title.startsWith(article) && title.length() > article.length()) {
+                return new String[]{title, title.substring(article.length())};
+            }
+        }
+        return new String[]{title};
+    }
+
+    private static boolean containsText(Book book, String needle) {
+        return TrigramIndex.normalize(book.getTitle()).contains(needle) || TrigramIndex.normalize(book.getAuthor()).contains(needle);
+    }
+
+    static Book copyOf(Book book) {
+        return new Book(book.getBookId(), book.getTitle(), book.getAuthor(), book.getPublicationYear(),
+                book.getGenre(), book.getStatus(), book.getIsbn());
+    }
+
+    private static boolean sameContent(Book a, Book b) {
+        return a.getBookId() == b.getBookId()
+                && a.getPublicationYear() == b.getPublicationYear()
+                && a.getStatus() == b.getStatus()
+                && Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getAuthor(), b.getAuthor())
+                && Objects.equals(a.getGenre(), b.getGenre())
+                && Objects.equals(a.getIsbn(), b.getIsbn());
+    }
+
+    /**
+     * One immutable version of the catalog.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(0, new Book[0][], 0);
+
+        private final long version;
+        private final Book[][] chunks;
+        private final int size;
+        private volatile List<Book> books; // Built on first use, then shared by every reader of this version
+
+        private Snapshot(long version, Book[][] chunks, int size) {
+            this.version = version;
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public Book get(int bookId) {
+            int chunk = bookId >>> CHUNK_BITS;
+            if (bookId < 0 || chunk >= chunks.length || chunks[chunk] == null) {
+                return null;
+            }
+            return chunks[chunk][bookId & (CHUNK_SIZE - 1)];
+        }
+
+        // All books in ID order; materialised once per version, so repeated screen refreshes do not copy
+        public List<Book> asList() {
+            List<Book> result = books;
+            if (result == null) {
+                List<Book> list = new ArrayList<>(size);
+                for (Book[] chunk : chunks) {
+                    if (chunk != null) {
+                        for (Book book : chunk) {
+                            if (book != null) {
+                                list.add(book);
+                            }
+                        }
+                    }
+                }
+                result = Collections.unmodifiableList(list);
+                books = result;
+            }
+            return result;
+        }
+
+        private Snapshot withVersion(long newVersion) {
+            return new Snapshot(newVersion, chunks, size);
+        }
+
+        // Copy-on-write: only the chunks holding changed IDs are cloned
+        private Snapshot withChanges(Collection<Book> upserts, Collection<Integer> deletions) {
+            Book[][] nextChunks = null;
+            boolean[] copied = null;
+            int nextSize = size;
+
+            for (Book book : upserts) {
+                Book existing = get(book.getBookId());
+                if (existing != null && sameContent(existing, book)) {
+                    continue;
+                }
+                int chunk = book.getBookId() >>> CHUNK_BITS;
+                if (nextChunks == null) {
+                    nextChunks = chunks.clone();
+                    copied = new boolean[nextChunks.length];
+                }
+                if (chunk >= nextChunks.length) {
+                    nextChunks = Arrays.copyOf(nextChunks, chunk + 1);
+                    copied = Arrays.copyOf(copied, chunk + 1);
+                }
+                if (!copied[chunk]) {
+                    nextChunks[chunk] = nextChunks[chunk] == null ? new Book[CHUNK_SIZE] : nextChunks[chunk].clone();
+                    copied[chunk] = true;
+                }
+                nextChunks[chunk][book.getBookId() & (CHUNK_SIZE - 1)] = book;
+                if (existing == null) {
+                    nextSize++;
+                }
+            }
+
+            for (int bookId : deletions) {
+                if (get(bookId) == null) {
+                    continue;
+                }
+                int chunk = bookId >>> CHUNK_BITS;
+                if (nextChunks == null) {
+                    nextChunks = chunks.clone();
+                    copied = new boolean[nextChunks.length];
+                }
+                if (!copied[chunk]) {
+                    nextChunks[chunk] = nextChunks[chunk].clone();
+                    copied[chunk] = true;
+                }
+                if (nextChunks[chunk][bookId & (CHUNK_SIZE - 1)] != null) {
+                    nextChunks[chunk][bookId & (CHUNK_SIZE - 1)] = null;
+                    nextSize--;
+                }
+            }
+
+            return nextChunks == null ? this : new Snapshot(version + 1, nextChunks, nextSize);
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package Service;
+
+import Entity.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over book titles, authors and genres, for filtering the catalog as the user types.
+ *
+ * Text is split into lowercase tokens of letters and digits. Each token maps to the IDs of the books that
+ * contain it, kept sorted, so a query is answered by intersecting a few posting lists instead of scanning
+ * every book. All query tokens must match; the last one may be a prefix, since it is usually still being typed.
+ *
+ * The index also remembers each book's tokens, field by field, so an update only touches the postings that
+ * changed and matches can be ranked. {@link #rank} scores them with BM25F: a term counts for more in the title
+ * than in the author or genre, for less the more books contain it, and for less in a long field than a short
+ * one, with repeats saturating quickly. Searches share a read lock; updates take the write lock.
+ */
+public class BookSearchIndex {
+    private static final int TITLE = 0;
+    private static final int AUTHOR = 1;
+    private static final int GENRE = 2;
+    private static final double[] FIELD_WEIGHTS = {3.0, 2.0, 1.0};
+    private static final double[] LENGTH_NORMALIZATION = {0.75, 0.5, 0.3}; // BM25 b, per field
+    private static final double K1 = 1.2;
+    private static final double PARTIAL_MATCH = 0.5; // A word the last query token is only the start of
+
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Integer, Document> documents = new HashMap<>();
+    private final long[] fieldLengths = new long[3]; // Total tokens per field, for the average lengths
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Index a new book, or re-index one whose text changed
+    public void put(Book book) {
+        Document document = Document.of(book);
+        String[] tokens = document.tokens;
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.get(book.getBookId());
+            if (previous != null && previous.sameAs(document)) {
+                return;
+            }
+            if (previous != null) {
+                unindex(book.getBookId(), previous);
+            }
+            for (int i = 0; i < tokens.length; i++) {
+                Postings list = postings.get(tokens[i]);
+                if (list == null) {
+                    list = new Postings();
+                    postings.put(tokens[i], list);
+                } else {
+                    tokens[i] = postings.ceilingKey(tokens[i]); // Share one String per distinct token
+                }
+                list.add(book.getBookId());
+            }
+            documents.put(book.getBookId(), document);
+            for (int field = TITLE; field <= GENRE; field++) {
+                fieldLengths[field] += document.length(field);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            Document previous = documents.remove(bookId);
+            if (previous != null) {
+                unindex(bookId, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // IDs of the books containing every token of the query, in ascending order; the last token matches as a prefix
+    public int[] search(String query) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return new int[0];
+        }
+        String prefix = terms.remove(terms.size() - 1);
+
+        lock.readLock().lock();
+        try {
+            return matching(terms, prefix);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // IDs of the best matches for the query, best first, at most limit of them
+    public int[] rank(String query, int limit) {
+        return rank(query, limit, UnaryOperator.identity());
+    }
+
+    /**
+     * IDs of the best matches for the query among the books the filter keeps, best first, at most limit of them.
+     * The filter is given every match in ascending ID order before any is scored, so books it drops never reach
+     * the heap and a narrow filter cannot leave the results short.
+     */
+    public int[] rank(String query, int limit, UnaryOperator<int[]> filter) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        String prefix = terms.remove(terms.size() - 1);
+
+        lock.readLock().lock();
+        try {
+            int[] candidates = matching(terms, prefix);
+            if (candidates.length > 0) {
+                candidates = filter.apply(candidates);
+            }
+            if (candidates.length == 0) {
+                return candidates;
+            }
+            double[] weights = new double[terms.size() + 1];
+            for (int i = 0; i < terms.size(); i++) {
+                weights[i] = idf(postings.get(terms.get(i)).size());
+                terms.set(i, postings.ceilingKey(terms.get(i))); // The String the books share, so matches compare by identity
+            }
+            String indexed = postings.ceilingKey(prefix);
+            prefix = prefix.equals(indexed) ? indexed : prefix;
+            weights[terms.size()] = idf(prefixFrequency(prefix));
+            double[] averageLengths = new double[3];
+            for (int field = TITLE; field <= GENRE; field++) {
+                averageLengths[field] = Math.max(1.0, (double) fieldLengths[field] / Math.max(1, documents.size()));
+            }
+
+            // Keep the best few in a min-heap instead of sorting every match; the weakest kept match is on top
+            PriorityQueue<Scored> best = new PriorityQueue<>(Math.min(limit, candidates.length) + 1, Scored.WEAKEST_FIRST);
+            for (int bookId : candidates) {
+                double score = score(documents.get(bookId), terms, prefix, weights, averageLengths);
+                if (best.size() < limit) {
+                    best.add(new Scored(bookId, score));
+                } else if (score > best.peek().score() || score == best.peek().score() && bookId < best.peek().bookId()) {
+                    best.poll();
+                    best.add(new Scored(bookId, score));
+                }
+            }
+            int[] ranked = new int[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = best.poll().bookId();
+            }
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Books containing every term and a token starting with the prefix, in ascending order; caller holds the read lock
+    private int[] matching(List<String> terms, String prefix) {
+        List<Postings> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        // Start from the rarest term so every later intersection works on as few IDs as possible
+        lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+        int[] result = null;
+        for (Postings list : lists) {
+            result = result == null ? list.toArray() : list.intersect(result);
+            if (result.length == 0) {
+                return result;
+            }
+        }
+        return result == null ? matchingPrefix(prefix) : filterByPrefix(result, prefix);
+    }
+
+    // BM25F: each field's matches are weighted and length-normalised, then summed before saturating
+    private static double score(Document document, List<String> terms, String prefix, double[] weights, double[] averageLengths) {
+        double score = 0;
+        for (int i = 0; i <= terms.size(); i++) {
+            boolean last = i == terms.size();
+            String term = last ? prefix : terms.get(i);
+            double frequency = 0;
+            for (int field = TITLE; field <= GENRE; field++) {
+                double matches = 0;
+                for (int t = document.start(field); t < document.end(field); t++) {
+                    String token = document.tokens[t];
+                    if (token == term) {
+                        matches++;
+                    } else if (last && token.startsWith(term)) {
+                        matches += PARTIAL_MATCH;
+                    }
+                }
+                if (matches > 0) {
+                    double b = LENGTH_NORMALIZATION[field];
+                    frequency += FIELD_WEIGHTS[field] * matches / (1 - b + b * document.length(field) / averageLengths[field]);
+                }
+            }
+            score += weights[i] * frequency / (K1 + frequency);
+        }
+        return score;
+    }
+
+    // Rarer terms say more about what is wanted
+    private double idf(int bookCount) {
+        return Math.log(1 + (documents.size() - bookCount + 0.5) / (bookCount + 0.5));
+    }
+
+    // How many books a partly typed token could match, at most; the lists overlap, so this overstates a little
+    private int prefixFrequency(String prefix) {
+        long count = 0;
+        for (Postings list : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            count += list.size();
+            if (count >= documents.size()) {
+                return documents.size();
+            }
+        }
+        return (int) count;
+    }
+
+    // Every book with a token starting with the prefix, merged through a bit set since the lists overlap
+    private int[] matchingPrefix(String prefix) {
+        NavigableMap<String, Postings> range = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        if (range.size() == 1) {
+            return range.firstEntry().getValue().toArray();
+        }
+        BitSet ids = new BitSet();
+        for (Postings list : range.values()) {
+            list.addTo(ids);
+        }
+        return ids.stream().toArray();
+    }
+
+    // Candidates are already few after the exact terms, so check their own tokens rather than merging lists
+    private int[] filterByPrefix(int[] candidates, String prefix) {
+        int count = 0;
+        int[] result = new int[candidates.length];
+        for (int bookId : candidates) {
+            for (String token : documents.get(bookId).tokens) {
+                if (token.startsWith(prefix)) {
+                    result[count++] = bookId;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private void unindex(int bookId, Document document) {
+        for (String token : document.tokens) {
+            Postings list = postings.get(token);
+            if (list != null && list.remove(bookId) && list.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+        for (int field = TITLE; field <= GENRE; field++) {
+            fieldLengths[field] -= document.length(field);
+        }
+    }
+
+    // Lowercase runs of letters and digits; everything else separates tokens
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * A book's tokens in field order, title then author then genre, repeats included; authorStart and genreStart
+     * mark where each field begins.
+     */
+    private static final class Document {
+        private final String[] tokens;
+        private final int authorStart;
+        private final int genreStart;
+
+        private Document(String[] tokens, int authorStart, int genreStart) {
+            this.tokens = tokens;
+            this.authorStart = authorStart;
+            this.genreStart = genreStart;
+        }
+
+        static Document of(Book book) {
+            List<String> tokens = tokenize(book.getTitle());
+            int authorStart = tokens.size();
+            tokens.addAll(tokenize(book.getAuthor()));
+            int genreStart = tokens.size();
+            tokens.addAll(tokenize(book.getGenre()));
+            return new Document(tokens.toArray(new String[0]), authorStart, genreStart);
+        }
+
+        int start(int field) {
+            return field == TITLE ? 0 : field == AUTHOR ? authorStart : genreStart;
+        }
+
+        int end(int field) {
+            return field == TITLE ? authorStart : field == AUTHOR ? genreStart : tokens.length;
+        }
+
+        int length(int field) {
+            return end(field) - start(field);
+        }
+
+        boolean sameAs(Document other) {
+            return authorStart == other.authorStart && genreStart == other.genreStart && Arrays.equals(tokens, other.tokens);
+        }
+    }
+
+    private record Scored(int bookId, double score) {
+        // Lower score first; on a tie the later book, so earlier books win ties
+        static final Comparator<Scored> WEAKEST_FIRST = Comparator.comparingDouble(Scored::score)
+                .thenComparing(Comparator.comparingInt(Scored::bookId).reversed());
+    }
+}
@@ -1,50 +1,165 @@
 package Service;
 
+import Cache.CacheStats;
+import Cache.QueryResultCache;
+import Cache.TinyLfuCache;
+import DAO.BatchResult;
 import DAO.BookDAO;
+import DAO.Page;
+import DAO.PageRequest;
 import Entity.Book;
+import Entity.ChangeEvent;
 import Entity.Enums.BookStatus;
+import Entity.Enums.ChangeEntity;
+import Entity.Enums.ChangeOperation;
 import Exception.BookException;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.*;
 
 
 public class BookService {
     private final BookDAO bookDAO;
-    private final LinkedList<Book> bookCache;
+    private final BookCatalog catalog;
+    private final CirculationCounters counters;
     private final Stack<Book> recentlyAddedBooks;
-    private final Map<Integer, Book> quickAccessCache;
-    private static final int CACHE_SIZE = 100;
+    private final TinyLfuCache<Integer, Book> quickAccessCache;
+    private static final int CACHE_SIZE = 1_000;
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+    private final QueryResultCache<Book> searchCache;
+    private volatile boolean catalogStale = true; // Set when another desk has changed books the catalog holds
+    private static final long SEARCH_CACHE_WEIGHT = 4L * 1024 * 1024; // Estimated bytes of cached results
 
     public BookService() {
+        this(new CirculationCounters());
+    }
+
+    public BookService(CirculationCounters counters) {
         this.bookDAO = new BookDAO();
-        this.bookCache = new LinkedList<>();
+        this.counters = counters;
+        this.searchCache = new QueryResultCache<>(SEARCH_CACHE_WEIGHT, BookService::estimateWeight, Book::getBookId);
+        this.catalog = new BookCatalog(bookDAO);
         this.recentlyAddedBooks = new Stack<>();
-        this.quickAccessCache = new HashMap<>();
+        this.quickAccessCache = TinyLfuCache.<Integer, Book>builder()
+                .maximumSize(CACHE_SIZE)
+                .expireAfterWrite(CACHE_TTL)
+                .build();
     }
 
-    // Add a new book
+    // Add a new book; its ISBN is stored in canonical ISBN-13 form and must not belong to another book
     public void addBook(Book book) throws BookException {
         try {
             validateBook(book);
-            bookDAO.addBook(book);
-
-            // Update caches
-            bookCache.add(book);
-            recentlyAddedBooks.push(book);
-            if (quickAccessCache.size() < CACHE_SIZE) {
-                quickAccessCache.put(book.getBookId(), book);
+            canonicalizeIsbn(book);
+            if (book.getIsbn() != null && loadedCatalog().findByIsbn(Isbn.parse(book.getIsbn())) != null) {
+                throw new BookException("A book with ISBN " + book.getIsbn() + " already exists");
             }
+            Book saved = bookDAO.addBook(book);
+
+            // Update caches under the ID the database assigned
+            catalog.put(saved);
+            recentlyAddedBooks.push(saved);
+            quickAccessCache.put(saved.getBookId(), saved);
+            counters.bookAdded(saved.getStatus(), saved.getGenre());
+            searchCache.invalidateIf(keyword -> matches(saved, keyword));
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new BookException("A book with ISBN " + book.getIsbn() + " already exists", e);
         } catch (SQLException e) {
             throw new BookException("Failed to add book: " + book.getTitle(), e);
         }
     }
 
+    // Add many books in one database transaction; nothing is written if any row is rejected
+    public BatchResult<Book> addBooks(List<Book> books, int batchSize) throws BookException {
+        // Duplicates are rejected up front; the Bloom filter in front of the ISBN index clears most new ISBNs cheaply
+        Set<Long> batchIsbns = new HashSet<>();
+        BookCatalog known = loadedCatalog();
+        for (int i = 0; i < books.size(); i++) {
+            try {
+                validateBook(books.get(i));
+            } catch (BookException e) {
+                throw new BookException("Row " + i + ": " + e.getMessage());
+            }
+            Book book = books.get(i);
+            canonicalizeIsbn(book);
+            if (book.getIsbn() != null) {
+                long isbn = Isbn.parse(book.getIsbn());
+                if (!batchIsbns.add(isbn) || known.findByIsbn(isbn) != null) {
+                    throw new BookException("Row " + i + ": A book with ISBN " + book.getIsbn() + " already exists");
+                }
+            }
+        }
+        try {
+            BatchResult<Book> result = bookDAO.addBooks(books, batchSize);
+            if (result.isCommitted()) {
+                catalog.putAll(books);
+                for (Book book : books) {
+                    recentlyAddedBooks.push(book);
+                    quickAccessCache.put(book.getBookId(), book);
+                    counters.bookAdded(book.getStatus(), book.getGenre());
+                }
+                searchCache.invalidateIf(keyword -> books.stream().anyMatch(book -> matches(book, keyword)));
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new BookException("Failed to add " + books.size() + " books", e);
+        }
+    }
+
+    /**
+     * Rows left for a person to fix after {@link #canonicalizeIsbns()}: ISBNs that do not parse, and canonical
+     * ISBNs now shared by more than one book. The unique index on Books.isbn cannot be added until the second
+     * list is empty.
+     */
+    public record IsbnCleanup(int rewritten, List<Book> unparseable, Map<String, List<Integer>> shared) {
+    }
+
+    // One-off migration for sql/books_isbn_unique.sql: rewrite every parseable ISBN, either form, as 13 digits
+    // and clear blank ones; rows whose ISBN does not parse are left as they are and reported
+    public IsbnCleanup canonicalizeIsbns() throws BookException {
+        List<Book> rewritten = new ArrayList<>();
+        List<Book> unparseable = new ArrayList<>();
+        Map<String, List<Integer>> booksByIsbn = new TreeMap<>();
+        try {
+            bookDAO.forEachBook(book -> {
+                String stored = book.getIsbn();
+                if (stored == null) {
+                    return;
+                }
+                String canonical = stored.isBlank() ? null : Isbn.normalize(stored);
+                if (canonical == null && !stored.isBlank()) {
+                    unparseable.add(book);
+                    return;
+                }
+                if (canonical != null) {
+                    booksByIsbn.computeIfAbsent(canonical, isbn -> new ArrayList<>()).add(book.getBookId());
+                }
+                if (!Objects.equals(canonical, stored)) {
+                    book.setIsbn(canonical);
+                    rewritten.add(book);
+                }
+            });
+            BatchResult<Book> result = bookDAO.updateIsbns(rewritten);
+            if (!result.isCommitted()) {
+                throw new BookException("Failed to rewrite ISBNs: " + result);
+            }
+        } catch (SQLException e) {
+            throw new BookException("Failed to rewrite ISBNs", e);
+        }
+        catalogStale = true; // The rewritten rows come back through updated_at on the next refresh
+        rewritten.forEach(book -> quickAccessCache.invalidate(book.getBookId()));
+        searchCache.invalidateAll();
+        booksByIsbn.values().removeIf(bookIds -> bookIds.size() < 2);
+        return new IsbnCleanup(rewritten.size(), unparseable, booksByIsbn);
+    }
+
     // Get a book by ID
     public Book getBookById(int bookId) throws BookException {
         // Check quick access cache first
-        Book cachedBook = quickAccessCache.get(bookId);
+        Book cachedBook = quickAccessCache.getIfPresent(bookId);
         if (cachedBook != null) {
             return cachedBook;
         }
@@ -55,24 +170,124 @@ public class BookService {
                 throw new BookException("No book found with ID: " + bookId);
             }
 
-            // Add to cache if not full
-            if (quickAccessCache.size() < CACHE_SIZE) {
-                quickAccessCache.put(bookId, book);
-            }
+            quickAccessCache.put(bookId, book);
             return book;
         } catch (SQLException e) {
             throw new BookException("Error retrieving book", e);
         }
     }
 
-    // Get all books
+    // Get all books, in ID order; only rows changed since the last call are read from the database
     public List<Book> getAllBooks() throws BookException {
         try {
-            List<Book> books = bookDAO.getAllBooks();
-            // Update cache with fetched books
-            bookCache.clear();
-            bookCache.addAll(books);
-            return books;
+            return catalog.refresh().asList();
+        } catch (SQLException e) {
+            throw new BookException("Error retrieving books", e);
+        }
+    }
+
+    // Find the keyword anywhere in titles and authors, through the catalog's trigram index
+    // Repeated searches are answered from the search cache until a matching book changes
+    public List<Book> searchBooks(String keyword) throws BookException {
+        String normalized = normalizeKeyword(keyword);
+        List<Book> cached = searchCache.get(normalized);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            long stamp = searchCache.stamp();
+            if (catalogStale) {
+                catalogStale = false;
+                catalog.refresh();
+            }
+            List<Book> books = catalog.searchSubstring(normalized);
+            searchCache.put(normalized, books, stamp);
+            return Collections.unmodifiableList(books);
+        } catch (SQLException e) {
+            catalogStale = true;
+            throw new BookException("Error searching books", e);
+        }
+    }
+
+    // Filter the loaded catalog as the user types: every word must match, the last one as a prefix, best matches
+    // first; blank returns all
+    public List<Book> filterBooks(String query, int limit) throws BookException {
+        return filterBooks(query, Map.of(), limit);
+    }
+
+    // As above, among the books with every chosen facet value; blank returns the books with those values
+    public List<Book> filterBooks(String query, Map<FacetIndex.Facet, String> selection, int limit) throws BookException {
+        if (BookSearchIndex.tokenize(query).isEmpty()) {
+            return browseBooks(selection);
+        }
+        return Collections.unmodifiableList(loadedCatalog().rank(query, selection, limit));
+    }
+
+    // Facet counts for browsing the catalog, given the values already chosen on some facets
+    public Map<FacetIndex.Facet, SortedMap<String, Integer>> getFacetCounts(Map<FacetIndex.Facet, String> selection) throws BookException {
+        return loadedCatalog().facetCounts(selection);
+    }
+
+    // The books with every chosen facet value; no selection returns all
+    public List<Book> browseBooks(Map<FacetIndex.Facet, String> selection) throws BookException {
+        if (selection.isEmpty()) {
+            return getAllBooks();
+        }
+        return Collections.unmodifiableList(loadedCatalog().browse(selection));
+    }
+
+    // Type-ahead for book pickers: the first books by title starting with what has been typed
+    public List<Book> suggestBooks(String prefix, int limit) throws BookException {
+        return loadedCatalog().suggestTitles(prefix, limit);
+    }
+
+    // Look up a scanned or typed ISBN, in either the 10- or 13-digit form
+    public Book findByIsbn(String isbn) throws BookException {
+        long canonical = Isbn.parse(isbn);
+        if (canonical == Isbn.INVALID) {
+            throw new BookException("Invalid ISBN: " + isbn);
+        }
+        Book book = loadedCatalog().findByIsbn(canonical);
+        if (book != null) {
+            return book;
+        }
+        try {
+            // Added at another desk since the catalog was last refreshed
+            book = bookDAO.getBookByIsbn(Isbn.format(canonical));
+        } catch (SQLException e) {
+            throw new BookException("Error retrieving book", e);
+        }
+        if (book == null) {
+            throw new BookException("No book found with ISBN: " + isbn);
+        }
+        catalog.put(book);
+        return book;
+    }
+
+    // Whether any book already has this ISBN; used to avoid handing out a generated ISBN twice
+    public boolean isIsbnInUse(String isbn) throws BookException {
+        long canonical = Isbn.parse(isbn);
+        if (canonical == Isbn.INVALID) {
+            return false;
+        }
+        if (loadedCatalog().findByIsbn(canonical) != null) {
+            return true;
+        }
+        try {
+            return bookDAO.getBookByIsbn(Isbn.format(canonical)) != null;
+        } catch (SQLException e) {
+            throw new BookException("Error retrieving book", e);
+        }
+    }
+
+    public CacheStats getSearchCacheStats() {
+        return searchCache.stats();
+    }
+
+    // Get one page of books, optionally filtered by status and genre
+    public Page<Book> getBooksPage(PageRequest request, BookStatus status, String genre) throws BookException {
+        try {
+            return bookDAO.getBooksPage(request, status, genre);
         } catch (SQLException e) {
             throw new BookException("Error retrieving books", e);
         }
@@ -89,13 +304,87 @@ public class BookService {
             // Update book status in the database
             bookDAO.updateBookStatus(bookId, status);
 
-            // Update the book status in the local object
+            // Update the book status in the local object and drop the cached copy
+            counters.bookStatusChanged(book.getStatus(), status);
             book.setStatus(String.valueOf(status));
+            quickAccessCache.invalidate(bookId);
+            searchCache.invalidateId(bookId);
+            catalog.put(book);
         } catch (SQLException e) {
             throw new BookException("Error updating book status", e);
         }
     }
 
+    // Set the same status on many books at once
+    public BatchResult<Integer> updateBookStatuses(List<Integer> bookIds, BookStatus status) throws BookException {
+        try {
+            BatchResult<Integer> result = bookDAO.updateBookStatuses(bookIds, status);
+            if (result.isCommitted()) {
+                bookStatusesChanged(bookIds, status);
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new BookException("Error updating book statuses", e);
+        }
+    }
+
+    // The same status has just been committed for many books, here or by another service: count the changes and
+    // update the caches and the catalog
+    void bookStatusesChanged(List<Integer> bookIds, BookStatus status) {
+        BookCatalog.Snapshot known = catalog.snapshot();
+        List<Book> updates = new ArrayList<>();
+        for (int bookId : bookIds) {
+            quickAccessCache.invalidate(bookId);
+            searchCache.invalidateId(bookId);
+            // Books the catalog has not seen yet are counted at the next reconciliation
+            Book book = known.get(bookId);
+            if (book != null) {
+                counters.bookStatusChanged(book.getStatus(), status);
+                Book updated = BookCatalog.copyOf(book);
+                updated.setStatus(String.valueOf(status));
+                updates.add(updated);
+            }
+        }
+        catalog.putAll(updates);
+    }
+
+    // Another service has just set a book's status in the database: drop cached copies and update the catalog
+    void bookStatusChanged(int bookId, BookStatus status) {
+        quickAccessCache.invalidate(bookId);
+        searchCache.invalidateId(bookId);
+        Book book = catalog.snapshot().get(bookId);
+        if (book != null) {
+            Book updated = BookCatalog.copyOf(book);
+            updated.setStatus(String.valueOf(status));
+            catalog.put(updated);
+        } else if (catalog.isLoaded()) {
+            catalogStale = true; // Not seen yet; the next refresh reads it through updated_at
+        }
+    }
+
+    // Another client changed a book: drop what we hold for it
+    void applyChange(ChangeEvent change) {
+        if (change.getEntity() != ChangeEntity.BOOK) {
+            return;
+        }
+        quickAccessCache.invalidate(change.getEntityId());
+        if (change.getOperation() == ChangeOperation.DELETE) {
+            searchCache.invalidateId(change.getEntityId());
+        } else {
+            // The new or edited title is unknown here, so a cached search it now matches might be missing it
+            searchCache.invalidateAll();
+        }
+        if (change.getOperation() == ChangeOperation.DELETE) {
+            catalog.remove(change.getEntityId());
+        } else {
+            catalogStale = true; // Inserts and updates reach the catalog through updated_at on the next refresh
+        }
+    }
+
+    public CacheStats getCacheStats() {
+        return quickAccessCache.stats();
+    }
+
     // Delete a book
     public void deleteBook(int bookId) throws BookException {
         try {
@@ -107,8 +396,10 @@ public class BookService {
             bookDAO.deleteBook(bookId);
 
             // Update caches
-            bookCache.remove(book);
-            quickAccessCache.remove(bookId);
+            catalog.remove(bookId);
+            quickAccessCache.invalidate(bookId);
+            searchCache.invalidateId(bookId);
+            counters.bookRemoved(book.getStatus(), book.getGenre());
             // Note: We keep it in recentlyAddedBooks for history
         } catch (SQLException e) {
             throw new BookException("Error deleting book", e);
@@ -118,6 +409,44 @@ public class BookService {
 
 
     // Private helper methods
+
+    private BookCatalog loadedCatalog() throws BookException {
+        if (!catalog.isLoaded()) {
+            getAllBooks(); // Nothing read from the database yet, so load the whole catalog
+        }
+        return catalog;
+    }
+
+    // Store every ISBN as 13 digits, so equal ISBNs are equal strings for the unique index
+    private static void canonicalizeIsbn(Book book) {
+        if (book.getIsbn() != null) {
+            book.setIsbn(Isbn.normalize(book.getIsbn()));
+        }
+    }
+
+    // Searches that differ only in case or spacing share one cache entry
+    static String normalizeKeyword(String keyword) {
+        return keyword == null ? "" : keyword.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // The same test the search query applies, for finding cached searches a new book belongs in
+    private static boolean matches(Book book, String keyword) {
+        return contains(book.getTitle(), keyword) || contains(book.getAuthor(), keyword);
+    }
+
+    private static boolean contains(String value, String keyword) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(keyword);
+    }
+
+    // Rough heap footprint of a cached book: object headers and fields plus two bytes per character
+    private static long estimateWeight(Book book) {
+        long chars = length(book.getTitle()) + length(book.getAuthor()) + length(book.getGenre()) + length(book.getIsbn());
+        return 160 + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
     private void validateBook(Book book) throws BookException {
         List<String> errors = new ArrayList<>();
 
@@ -130,7 +459,7 @@ public class BookService {
         if (book.getPublicationYear() < 1000 || book.getPublicationYear() > LocalDate.now().getYear()) {
             errors.add("Invalid publication year");
         }
-        if (book.getIsbn() != null && !isValidISBN(book.getIsbn())) {
+        if (book.getIsbn() != null && !Isbn.isValid(book.getIsbn())) {
             errors.add("Invalid ISBN format");
         }
 
@@ -139,9 +468,6 @@ public class BookService {
         }
     }
 
-    private boolean isValidISBN(String isbn) {
-        return isbn.matches("^(?:ISBN(?:-1[03])?:? )?(?=[0-9X]{10}$|(?=(?:[0-9]+[- ]){3})[- 0-9X]{13}$|97[89][0-9]{10}$|(?=(?:[0-9]+[- ]){4})[- 0-9]{17}$)(?:97[89][- ]?)?[0-9]{1,5}[- ]?[0-9]+[- ]?[0-9]+[- ]?[0-9X]$");
-    }
 
 
 
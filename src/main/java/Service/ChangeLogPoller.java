@@ -0,0 +1,132 @@
+package Service;
+
+import DAO.ChangeLogDAO;
+import Entity.ChangeEvent;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps this client's caches in step with writes made by other desks.
+ *
+ * Every write to a cached table leaves a row in the ChangeLog table. The poller reads the rows past the
+ * last sequence it has applied and hands them, in sequence order, to the registered listeners, which drop
+ * whatever they hold for that entity.
+ *
+ * Sequence numbers are handed out when a row is inserted, not when its transaction commits, so a long
+ * transaction can make its change visible after higher numbers have already been read. A skipped number is
+ * therefore remembered as a gap and looked for again on later polls, until {@link #GAP_TIMEOUT} passes and it
+ * is taken to be a rollback. Listeners only invalidate, so seeing a change late, or twice, is harmless.
+ */
+public class ChangeLogPoller {
+    static final Duration GAP_TIMEOUT = Duration.ofSeconds(30);
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    private final ChangeLogDAO changeLogDAO;
+    private final long pollIntervalMillis;
+    private final LongSupplier ticker;
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private long lastSequence = -1;
+    private final TreeMap<Long, Long> gaps = new TreeMap<>(); // Missing sequence -> when it was first noticed
+    private ScheduledExecutorService scheduler;
+
+    public ChangeLogPoller() {
+        this(new ChangeLogDAO(), Long.getLong("librarydb.changeLog.pollMillis", 1_000), System::nanoTime);
+    }
+
+    ChangeLogPoller(ChangeLogDAO changeLogDAO, long pollIntervalMillis, LongSupplier ticker) {
+        this.changeLogDAO = changeLogDAO;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.ticker = ticker;
+    }
+
+    public void addListener(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    // Start polling in the background; changes made before this call are not replayed
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-log-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                poll();
+            } catch (SQLException e) {
+                System.err.println("Could not read the change log: " + e.getMessage());
+            } catch (RuntimeException e) {
+                System.err.println("Error applying the change log: " + e.getMessage());
+            }
+        }, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    // Apply everything logged since the last poll; returns the number of changes handed to the listeners
+    public synchronized int poll() throws SQLException {
+        if (lastSequence < 0) {
+            lastSequence = changeLogDAO.getLatestSequence();
+            return 0;
+        }
+
+        int applied = 0;
+        // Read from just below the oldest open gap, so a late commit inside it is picked up
+        long from = gaps.isEmpty() ? lastSequence : Math.min(lastSequence, gaps.firstKey() - 1);
+        List<ChangeEvent> changes;
+        do {
+            changes = changeLogDAO.getChangesSince(from, BATCH_SIZE);
+            long now = ticker.getAsLong();
+            for (ChangeEvent change : changes) {
+                long sequence = change.getSequence();
+                if (sequence <= lastSequence) {
+                    if (gaps.remove(sequence) == null) {
+                        continue; // Already applied
+                    }
+                } else {
+                    for (long missing = lastSequence + 1; missing < sequence && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                        gaps.put(missing, now);
+                    }
+                    lastSequence = sequence;
+                }
+                for (Consumer<ChangeEvent> listener : listeners) {
+                    listener.accept(change);
+                }
+                applied++;
+            }
+            if (!changes.isEmpty()) {
+                from = changes.get(changes.size() - 1).getSequence();
+            }
+        } while (changes.size() == BATCH_SIZE);
+
+        long expired = ticker.getAsLong() - GAP_TIMEOUT.toNanos();
+        gaps.values().removeIf(noticedAt -> noticedAt < expired);
+        return applied;
+    }
+
+    // Sequence numbers skipped so far and still being watched for; for tests and diagnostics
+    synchronized Map<Long, Long> openGaps() {
+        return new TreeMap<>(gaps);
+    }
+}
@@ -0,0 +1,213 @@
+package Service;
+
+import DAO.CirculationBaseline;
+import DAO.StatisticsDAO;
+import Entity.Enums.BookStatus;
+import Entity.Enums.ReservationStatus;
+import Entity.Enums.TransactionType;
+import Entity.LibraryStatistics;
+import Entity.Transaction;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running circulation totals, kept in memory and moved by the services as they write.
+ *
+ * Every counter is a {@link LongAdder}, so desks borrowing and returning at the same time update separate
+ * cells instead of fighting over one field, and reading the dashboard never touches the database.
+ * Writes made outside this process, or lost to a crash between commit and count, are corrected by
+ * {@link #reconcile(CirculationBaseline, CirculationBaseline)}: it adds the difference between the database and what the
+ * counters showed just before the database was read. That is exact only if nothing was counted while the query
+ * ran, since such a write may or may not be in the database's totals; {@link #changeCount()} lets the caller
+ * check, and a write counted twice is taken back out by the next reconciliation.
+ */
+public class CirculationCounters {
+
+    private final Map<BookStatus, LongAdder> booksByStatus = new EnumMap<>(BookStatus.class);
+    private final ConcurrentMap<String, LongAdder> booksByGenre = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Long> openLoansByPatron = new ConcurrentHashMap<>();
+    private final LongAdder activePatrons = new LongAdder();
+    private final LongAdder openLoans = new LongAdder();
+    private final ConcurrentSkipListMap<LocalDate, LongAdder> openLoansByDueDate = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<YearMonth, LongAdder> loansPerMonth = new ConcurrentHashMap<>();
+    private final LongAdder pendingReservations = new LongAdder();
+    private final LongAdder changes = new LongAdder(); // Every counted write, for spotting writes during a reconciliation
+    private volatile boolean reconciled;
+
+    public CirculationCounters() {
+        for (BookStatus status : BookStatus.values()) {
+            booksByStatus.put(status, new LongAdder());
+        }
+    }
+
+    public void bookAdded(BookStatus status, String genre) {
+        changes.increment();
+        if (status != null) {
+            booksByStatus.get(status).increment();
+        }
+        adder(booksByGenre, StatisticsDAO.genreKey(genre)).increment();
+    }
+
+    public void bookRemoved(BookStatus status, String genre) {
+        changes.increment();
+        if (status != null) {
+            booksByStatus.get(status).decrement();
+        }
+        adder(booksByGenre, StatisticsDAO.genreKey(genre)).decrement();
+    }
+
+    public void bookStatusChanged(BookStatus from, BookStatus to) {
+        if (from == to) {
+            return;
+        }
+        changes.increment();
+        if (from != null) {
+            booksByStatus.get(from).decrement();
+        }
+        if (to != null) {
+            booksByStatus.get(to).increment();
+        }
+    }
+
+    // A new Transactions row; a borrow without a return date is an open loan
+    public void transactionRecorded(Transaction transaction) {
+        changes.increment();
+        if (transaction.getBorrowDate() != null) {
+            adder(loansPerMonth, YearMonth.from(transaction.getBorrowDate())).increment();
+        }
+        if (transaction.getTransactionType() == TransactionType.BORROW && transaction.getReturnDate() == null) {
+            adjustOpenLoans(transaction.getPatronId(), transaction.getDueDate(), 1);
+        }
+    }
+
+    // An open loan has been closed in place
+    public void loanClosed(Transaction transaction) {
+        changes.increment();
+        adjustOpenLoans(transaction.getPatronId(), transaction.getDueDate(), -1);
+    }
+
+    public void reservationAdded(ReservationStatus status) {
+        if (status == ReservationStatus.PENDING) {
+            changes.increment();
+            pendingReservations.increment();
+        }
+    }
+
+    public void reservationRemoved(ReservationStatus status) {
+        if (status == ReservationStatus.PENDING) {
+            changes.increment();
+            pendingReservations.decrement();
+        }
+    }
+
+    // How many writes have been counted so far; unchanged across a database read means none landed during it
+    public long changeCount() {
+        return changes.sum();
+    }
+
+    // Whether the counters have been seeded from the database at least once
+    public boolean isReconciled() {
+        return reconciled;
+    }
+
+    // Current totals; overdue loans are those due before today
+    public LibraryStatistics snapshot(LocalDate today) {
+        Map<BookStatus, Long> statuses = new EnumMap<>(BookStatus.class);
+        booksByStatus.forEach((status, count) -> statuses.put(status, count.sum()));
+        long overdue = 0;
+        for (LongAdder dueThatDay : openLoansByDueDate.headMap(today).values()) {
+            overdue += dueThatDay.sum();
+        }
+        return new LibraryStatistics(statuses, activePatrons.sum(), openLoans.sum(), overdue, pendingReservations.sum(),
+                sums(booksByGenre), sums(loansPerMonth));
+    }
+
+    // What the counters show right now, in the shape of a database baseline; take it just before reading one
+    public CirculationBaseline capture() {
+        Map<BookStatus, Long> statuses = new EnumMap<>(BookStatus.class);
+        booksByStatus.forEach((status, count) -> statuses.put(status, count.sum()));
+        return new CirculationBaseline(statuses, sums(booksByGenre), new HashMap<>(openLoansByPatron),
+                sums(openLoansByDueDate), sums(loansPerMonth), pendingReservations.sum());
+    }
+
+    // Move every counter by the drift between the database and the capture taken before it was read; a write
+    // counted after the capture that the database already included ends up counted twice
+    public void reconcile(CirculationBaseline database, CirculationBaseline before) {
+        booksByStatus.forEach((status, count) ->
+                count.add(database.getBooksByStatus().getOrDefault(status, 0L) - before.getBooksByStatus().getOrDefault(status, 0L)));
+        applyDrift(booksByGenre, database.getBooksByGenre(), before.getBooksByGenre());
+        applyDrift(loansPerMonth, database.getLoansPerMonth(), before.getLoansPerMonth());
+        pendingReservations.add(database.getPendingReservations() - before.getPendingReservations());
+
+        // Open loans move the patron, due-date and total counters together, so correct them through one path
+        Set<Integer> patrons = new HashSet<>(database.getOpenLoansByPatron().keySet());
+        patrons.addAll(before.getOpenLoansByPatron().keySet());
+        for (Integer patronId : patrons) {
+            long drift = database.getOpenLoansByPatron().getOrDefault(patronId, 0L) - before.getOpenLoansByPatron().getOrDefault(patronId, 0L);
+            if (drift != 0) {
+                adjustPatron(patronId, drift);
+                openLoans.add(drift);
+            }
+        }
+        applyDrift(openLoansByDueDate, database.getOpenLoansByDueDate(), before.getOpenLoansByDueDate());
+        reconciled = true;
+    }
+
+    private void adjustOpenLoans(int patronId, LocalDate dueDate, long delta) {
+        openLoans.add(delta);
+        adjustPatron(patronId, delta);
+        if (dueDate != null) {
+            adder(openLoansByDueDate, dueDate).add(delta);
+        }
+    }
+
+    // A patron becomes active with their first open loan and stops being active with their last
+    private void adjustPatron(int patronId, long delta) {
+        openLoansByPatron.compute(patronId, (id, current) -> {
+            long before = current == null ? 0 : current;
+            long after = before + delta;
+            if (before <= 0 && after > 0) {
+                activePatrons.increment();
+            } else if (before > 0 && after <= 0) {
+                activePatrons.decrement();
+            }
+            return after == 0 ? null : after;
+        });
+    }
+
+    private static <K> LongAdder adder(ConcurrentMap<K, LongAdder> counters, K key) {
+        return counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K> void applyDrift(ConcurrentMap<K, LongAdder> counters, Map<K, Long> database, Map<K, Long> before) {
+        Set<K> keys = new HashSet<>(database.keySet());
+        keys.addAll(before.keySet());
+        for (K key : keys) {
+            long drift = database.getOrDefault(key, 0L) - before.getOrDefault(key, 0L);
+            if (drift != 0) {
+                adder(counters, key).add(drift);
+            }
+        }
+    }
+
+    private static <K> Map<K, Long> sums(Map<K, LongAdder> counters) {
+        Map<K, Long> sums = new HashMap<>();
+        counters.forEach((key, count) -> {
+            long sum = count.sum();
+            if (sum != 0) {
+                sums.put(key, sum);
+            }
+        });
+        return sums;
+    }
+}
@@ -0,0 +1,233 @@
+package Service;
+
+import Entity.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facet counts for browsing the catalog: "Science (412) › Available (230) › 2010s (41)".
+ *
+ * Every book gets a slot, a small dense number reused after a delete, and every facet value keeps a bit set of
+ * the slots of the books that have it. Counts for a selection are intersections of those bit sets, so they
+ * never look at the books themselves. Each facet is counted with the selections on the other facets only, so
+ * the values a user could switch to keep their counts instead of dropping to zero.
+ * Reads share a read lock; updates take the write lock.
+ */
+public class FacetIndex {
+
+    public enum Facet {
+        GENRE,
+        STATUS,
+        DECADE,
+        AUTHOR_INITIAL
+    }
+
+    private final Map<Facet, Map<String, BitSet>> bitsByValue = new EnumMap<>(Facet.class);
+    private final Map<Integer, Integer> slotsByBook = new HashMap<>();
+    private final Map<Integer, Map<Facet, String>> valuesByBook = new HashMap<>();
+    private int[] booksBySlot = new int[16];
+    private final BitSet occupied = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public FacetIndex() {
+        for (Facet facet : Facet.values()) {
+            bitsByValue.put(facet, new HashMap<>());
+        }
+    }
+
+    // Index a new book, or move one whose genre, status, year or author changed
+    public void put(Book book) {
+        Map<Facet, String> values = valuesOf(book);
+        lock.writeLock().lock();
+        try {
+            Map<Facet, String> previous = valuesByBook.get(book.getBookId());
+            if (values.equals(previous)) {
+                return;
+            }
+            Integer slot = slotsByBook.get(book.getBookId());
+            if (slot == null) {
+                slot = occupied.nextClearBit(0);
+                occupied.set(slot);
+                slotsByBook.put(book.getBookId(), slot);
+                if (slot == booksBySlot.length) {
+                    booksBySlot = Arrays.copyOf(booksBySlot, slot * 2);
+                }
+                booksBySlot[slot] = book.getBookId();
+            } else {
+                clear(slot, previous);
+            }
+            for (Map.Entry<Facet, String> value : values.entrySet()) {
+                bitsByValue.get(value.getKey()).computeIfAbsent(value.getValue(), key -> new BitSet()).set(slot);
+            }
+            valuesByBook.put(book.getBookId(), values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int bookId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotsByBook.remove(bookId);
+            if (slot != null) {
+                clear(slot, valuesByBook.remove(bookId));
+                occupied.clear(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotsByBook.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The values of every facet with how many books have them, in value order. A facet's counts apply the
+     * selections on the other facets; a value with no books is left out unless it is the one selected.
+     */
+    public Map<Facet, SortedMap<String, Integer>> counts(Map<Facet, String> selection) {
+        lock.readLock().lock();
+        try {
+            Map<Facet, SortedMap<String, Integer>> counts = new EnumMap<>(Facet.class);
+            for (Facet facet : Facet.values()) {
+                BitSet others = select(selection, facet);
+                SortedMap<String, Integer> values = new TreeMap<>();
+                for (Map.Entry<String, BitSet> value : bitsByValue.get(facet).entrySet()) {
+                    int count = intersectionSize(value.getValue(), others);
+                    if (count > 0 || value.getKey().equals(selection.get(facet))) {
+                        values.put(value.getKey(), count);
+                    }
+                }
+                counts.put(facet, values);
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // IDs of the books with every selected value, in ascending order
+    public int[] matching(Map<Facet, String> selection) {
+        lock.readLock().lock();
+        try {
+            BitSet slots = select(selection, null);
+            int[] bookIds = new int[slots.cardinality()];
+            int count = 0;
+            for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+                bookIds[count++] = booksBySlot[slot];
+            }
+            Arrays.sort(bookIds);
+            return bookIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The given book IDs that have every selected value, in the order given; reads only the bit sets
+    public int[] retain(int[] bookIds, Map<Facet, String> selection) {
+        lock.readLock().lock();
+        try {
+            BitSet slots = select(selection, null);
+            int[] kept = new int[Math.min(bookIds.length, slots.cardinality())];
+            int count = 0;
+            for (int bookId : bookIds) {
+                Integer slot = slotsByBook.get(bookId);
+                if (slot != null && slots.get(slot)) {
+                    kept[count++] = bookId;
+                }
+            }
+            return count == kept.length ? kept : Arrays.copyOf(kept, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Whether the book has every selected value, for narrowing results found some other way
+    public static boolean matches(Book book, Map<Facet, String> selection) {
+        Map<Facet, String> values = valuesOf(book);
+        for (Map.Entry<Facet, String> selected : selection.entrySet()) {
+            if (!selected.getValue().equals(values.get(selected.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The facet values of a book; a facet it has no value for, such as a missing genre, is left out
+    static Map<Facet, String> valuesOf(Book book) {
+        Map<Facet, String> values = new EnumMap<>(Facet.class);
+        if (book.getGenre() != null && !book.getGenre().isBlank()) {
+            values.put(Facet.GENRE, book.getGenre().trim());
+        }
+        if (book.getStatus() != null) {
+            values.put(Facet.STATUS, book.getStatus().name());
+        }
+        if (book.getPublicationYear() > 0) {
+            values.put(Facet.DECADE, book.getPublicationYear() / 10 * 10 + "s");
+        }
+        String author = book.getAuthor() == null ? "" : book.getAuthor().trim();
+        if (!author.isEmpty()) {
+            char initial = Character.toUpperCase(author.charAt(0));
+            values.put(Facet.AUTHOR_INITIAL, Character.isLetter(initial) ? String.valueOf(initial) : "#");
+        }
+        return values;
+    }
+
+    // Slots with every selected value, ignoring the selection on one facet; caller holds the read lock
+    private BitSet select(Map<Facet, String> selection, Facet ignored) {
+        List<BitSet> sets = new ArrayList<>(selection.size());
+        for (Map.Entry<Facet, String> selected : selection.entrySet()) {
+            if (selected.getKey() != ignored) {
+                BitSet bits = bitsByValue.get(selected.getKey()).get(selected.getValue());
+                if (bits == null) {
+                    return new BitSet();
+                }
+                sets.add(bits);
+            }
+        }
+        if (sets.isEmpty()) {
+            return (BitSet) occupied.clone();
+        }
+        // Start from the sparsest set so the copy and every later AND are as small as they can be
+        sets.sort((a, b) -> Integer.compare(a.length(), b.length()));
+        BitSet result = (BitSet) sets.get(0).clone();
+        for (int i = 1; i < sets.size(); i++) {
+            result.and(sets.get(i));
+        }
+        return result;
+    }
+
+    private void clear(int slot, Map<Facet, String> values) {
+        for (Map.Entry<Facet, String> value : values.entrySet()) {
+            Map<String, BitSet> facet = bitsByValue.get(value.getKey());
+            BitSet bits = facet.get(value.getValue());
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                facet.remove(value.getValue());
+            }
+        }
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet smaller = a.length() <= b.length() ? a : b;
+        BitSet intersection = (BitSet) smaller.clone();
+        intersection.and(smaller == a ? b : a);
+        return intersection.cardinality();
+    }
+}
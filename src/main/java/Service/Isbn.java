@@ -0,0 +1,116 @@
+package Service;
+
+/**
+ * ISBN parsing and validation without regular expressions.
+ *
+ * Both forms are accepted, with or without an "ISBN", "ISBN-10" or "ISBN-13" label and with any hyphens or
+ * spaces between digits. Every valid ISBN is canonicalised to its 13-digit form, which fits in a long, so an
+ * ISBN-10 and the equivalent ISBN-13 compare equal and can be looked up by a single number.
+ */
+public final class Isbn {
+    public static final long INVALID = -1;
+
+    private Isbn() {
+    }
+
+    // The ISBN as a 13-digit number, or INVALID if it is malformed or its check digit is wrong
+    public static long parse(String text) {
+        if (text == null) {
+            return INVALID;
+        }
+        int start = skipLabel(text);
+        long digits = 0;
+        int count = 0;
+        boolean tenthIsX = false;
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (tenthIsX || ++count > 13) {
+                    return INVALID;
+                }
+                digits = digits * 10 + (c - '0');
+            } else if ((c == 'X' || c == 'x') && count == 9) {
+                tenthIsX = true; // Only the check digit of an ISBN-10 may be X
+                count++;
+            } else if (c != '-' && c != ' ' || count == 0) {
+                return INVALID;
+            }
+        }
+
+        if (count == 13) {
+            boolean bookland = digits / 10_000_000_000L == 978 || digits / 10_000_000_000L == 979;
+            return bookland && checkDigit13(digits / 10) == digits % 10 ? digits : INVALID;
+        }
+        if (count == 10) {
+            long body = tenthIsX ? digits : digits / 10;
+            int check = tenthIsX ? 10 : (int) (digits % 10);
+            if (checkDigit10(body) != check) {
+                return INVALID;
+            }
+            long twelve = 978_000_000_000L + body;
+            return twelve * 10 + checkDigit13(twelve);
+        }
+        return INVALID;
+    }
+
+    public static boolean isValid(String text) {
+        return parse(text) != INVALID;
+    }
+
+    // The canonical ISBN-13 digits, as stored in the Books table
+    public static String format(long isbn) {
+        return String.format("%013d", isbn);
+    }
+
+    public static String normalize(String text) {
+        long isbn = parse(text);
+        return isbn == INVALID ? null : format(isbn);
+    }
+
+    // A complete ISBN-13 from its first twelve digits
+    public static long withCheckDigit(long firstTwelveDigits) {
+        return firstTwelveDigits * 10 + checkDigit13(firstTwelveDigits);
+    }
+
+    private static int skipLabel(String text) {
+        int i = 0;
+        while (i < text.length() && text.charAt(i) == ' ') {
+            i++;
+        }
+        if (!text.regionMatches(true, i, "ISBN", 0, 4)) {
+            return i;
+        }
+        i += 4;
+        if (text.startsWith("-10", i) || text.startsWith("-13", i)) {
+            i += 3;
+        }
+        if (i < text.length() && text.charAt(i) == ':') {
+            i++;
+        }
+        while (i < text.length() && text.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    // Weights 1, 3, 1, 3, ... from the left over twelve digits
+    private static int checkDigit13(long twelveDigits) {
+        int sum = 0;
+        for (int position = 11; position >= 0; position--) {
+            int digit = (int) (twelveDigits % 10);
+            sum += (position % 2 == 0) ? digit : 3 * digit;
+            twelveDigits /= 10;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    // Weights 10 down to 2 over nine digits; 10 is written as X
+    private static int checkDigit10(long nineDigits) {
+        int sum = 0;
+        for (int weight = 2; weight <= 10; weight++) {
+            sum += weight * (int) (nineDigits % 10);
+            nineDigits /= 10;
+        }
+        return (11 - sum % 11) % 11;
+    }
+}
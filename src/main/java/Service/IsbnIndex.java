@@ -0,0 +1,132 @@
+package Service;
+
+import Cache.BloomFilter;
+
+import java.util.Arrays;
+
+/**
+ * Canonical ISBN to book ID, for scanner lookups and duplicate checks.
+ *
+ * ISBNs are kept as {@link Isbn} longs in an open-addressing table with linear probing, so an entry costs
+ * twelve bytes instead of a boxed map entry. A Bloom filter sits in front: most ISBNs in a bulk import are
+ * new, and the filter rules those out without probing the table. The filter cannot forget removed ISBNs, so
+ * it is rebuilt from the table whenever the table grows or enough removals have built up.
+ */
+public class IsbnIndex {
+    private static final long EMPTY = 0; // No valid ISBN is zero
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private long[] keys;
+    private int[] bookIds;
+    private int size;
+    private int removedSinceRebuild;
+    private BloomFilter filter;
+
+    public IsbnIndex() {
+        this(16);
+    }
+
+    public IsbnIndex(int expectedBooks) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedBooks * 2) - 1) << 1;
+        keys = new long[capacity];
+        bookIds = new int[capacity];
+        filter = new BloomFilter(capacity / 2, FALSE_POSITIVE_RATE);
+    }
+
+    // Map an ISBN to a book; a later book with the same ISBN replaces the earlier one
+    public synchronized void put(long isbn, int bookId) {
+        if (isbn <= EMPTY) {
+            return;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        int slot = slot(isbn);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = isbn;
+            size++;
+            filter.add(isbn);
+        }
+        bookIds[slot] = bookId;
+    }
+
+    // Forget the ISBN, but only if it still belongs to this book
+    public synchronized void remove(long isbn, int bookId) {
+        if (isbn <= EMPTY) {
+            return;
+        }
+        int slot = slot(isbn);
+        if (keys[slot] == EMPTY || bookIds[slot] != bookId) {
+            return;
+        }
+        // Backward-shift deletion: pull later entries of the probe run into the gap so lookups never stop early
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = home(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                bookIds[gap] = bookIds[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        if (++removedSinceRebuild > Math.max(size, 1024)) {
+            rebuildFilter();
+        }
+    }
+
+    // The book with this ISBN, or -1
+    public synchronized int get(long isbn) {
+        if (isbn <= EMPTY || !filter.mightContain(isbn)) {
+            return -1;
+        }
+        int slot = slot(isbn);
+        return keys[slot] == EMPTY ? -1 : bookIds[slot];
+    }
+
+    public synchronized boolean contains(long isbn) {
+        return get(isbn) >= 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // The slot holding the ISBN, or the empty slot where it would go
+    private int slot(long isbn) {
+        int mask = keys.length - 1;
+        int slot = home(isbn);
+        while (keys[slot] != EMPTY && keys[slot] != isbn) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int home(long isbn) {
+        long h = isbn * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (keys.length - 1);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldIds = bookIds;
+        keys = new long[capacity];
+        bookIds = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                bookIds[slot] = oldIds[i];
+            }
+        }
+        rebuildFilter();
+    }
+
+    private void rebuildFilter() {
+        filter = new BloomFilter(keys.length / 2, FALSE_POSITIVE_RATE);
+        Arrays.stream(keys).filter(key -> key != EMPTY).forEach(filter::add);
+        removedSinceRebuild = 0;
+    }
+}
@@ -0,0 +1,148 @@
+package Service;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+/**
+ * Lawrence Philips' Metaphone: reduces a name to a key of consonant sounds, so spellings that sound alike
+ * ("Mensah" and "Mensa", "Kwame" and "Kwami") get the same key. Vowels are kept only at the start, silent
+ * letters are dropped and letter groups are replaced by the sound they make; "0" stands for "th".
+ */
+final class Metaphone {
+    private static final String VOWELS = "AEIOU";
+
+    private Metaphone() {
+    }
+
+    static String encode(String word) {
+        String w = letters(word);
+        if (w.isEmpty()) {
+            return "";
+        }
+
+        // Silent or altered first letters
+        if (w.startsWith("AE") || w.startsWith("GN") || w.startsWith("KN") || w.startsWith("PN") || w.startsWith("WR")) {
+            w = w.substring(1);
+        } else if (w.charAt(0) == 'X') {
+            w = "S" + w.substring(1);
+        } else if (w.startsWith("WH")) {
+            w = "W" + w.substring(2);
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < w.length(); i++) {
+            char c = w.charAt(i);
+            if (c != 'C' && i > 0 && w.charAt(i - 1) == c) {
+                continue; // Doubled letters sound once
+            }
+            switch (c) {
+                case 'A', 'E', 'I', 'O', 'U' -> {
+                    if (i == 0) {
+                        key.append(c);
+                    }
+                }
+                case 'B' -> {
+                    if (!(i == w.length() - 1 && at(w, i - 1) == 'M')) {
+                        key.append('B');
+                    }
+                }
+                case 'C' -> {
+                    if (at(w, i + 1) == 'I' && at(w, i + 2) == 'A') {
+                        key.append('X');
+                    } else if (at(w, i + 1) == 'H') {
+                        key.append(at(w, i - 1) == 'S' ? 'K' : 'X');
+                        i++;
+                    } else if ("IEY".indexOf(at(w, i + 1)) >= 0) {
+                        if (at(w, i - 1) != 'S') {
+                            key.append('S');
+                        }
+                    } else {
+                        key.append('K');
+                    }
+                }
+                case 'D' -> {
+                    if (at(w, i + 1) == 'G' && "IEY".indexOf(at(w, i + 2)) >= 0) {
+                        key.append('J');
+                        i++;
+                    } else {
+                        key.append('T');
+                    }
+                }
+                case 'G' -> {
+                    if (at(w, i + 1) == 'H' && i + 2 < w.length() && !isVowel(at(w, i + 2))) {
+                        continue; // "night"
+                    }
+                    if (at(w, i + 1) == 'N' && (i + 2 == w.length() || w.startsWith("ED", i + 2) && i + 4 == w.length())) {
+                        continue; // "sign", "signed"
+                    }
+                    key.append("IEY".indexOf(at(w, i + 1)) >= 0 ? 'J' : 'K');
+                }
+                case 'H' -> {
+                    boolean afterModifier = "CSPTG".indexOf(at(w, i - 1)) >= 0;
+                    boolean silentAfterVowel = isVowel(at(w, i - 1)) && !isVowel(at(w, i + 1));
+                    if (!afterModifier && !silentAfterVowel) {
+                        key.append('H');
+                    }
+                }
+                case 'K' -> {
+                    if (at(w, i - 1) != 'C') {
+                        key.append('K');
+                    }
+                }
+                case 'P' -> key.append(at(w, i + 1) == 'H' ? 'F' : 'P');
+                case 'Q' -> key.append('K');
+                case 'S' -> {
+                    if (at(w, i + 1) == 'H' || at(w, i + 1) == 'I' && (at(w, i + 2) == 'O' || at(w, i + 2) == 'A')) {
+                        key.append('X');
+                    } else {
+                        key.append('S');
+                    }
+                }
+                case 'T' -> {
+                    if (at(w, i + 1) == 'I' && (at(w, i + 2) == 'O' || at(w, i + 2) == 'A')) {
+                        key.append('X');
+                    } else if (at(w, i + 1) == 'H') {
+                        key.append('0');
+                        i++;
+                    } else if (!(at(w, i + 1) == 'C' && at(w, i + 2) == 'H')) {
+                        key.append('T');
+                    }
+                }
+                case 'V' -> key.append('F');
+                case 'W', 'Y' -> {
+                    if (isVowel(at(w, i + 1))) {
+                        key.append(c);
+                    }
+                }
+                case 'X' -> key.append("KS");
+                case 'Z' -> key.append('S');
+                default -> key.append(c); // F, J, L, M, N, R
+            }
+        }
+        return key.toString();
+    }
+
+    // Uppercase ASCII letters only; accents are dropped first so "Adéwálé" sounds like "Adewale"
+    private static String letters(String word) {
+        if (word == null) {
+            return "";
+        }
+        String plain = Normalizer.normalize(word, Normalizer.Form.NFD).toUpperCase(Locale.ROOT);
+        StringBuilder letters = new StringBuilder(plain.length());
+        for (int i = 0; i < plain.length(); i++) {
+            char c = plain.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                letters.append(c);
+            }
+        }
+        return letters.toString();
+    }
+
+    private static char at(String w, int i) {
+        return i >= 0 && i < w.length() ? w.charAt(i) : '\0';
+    }
+
+    private static boolean isVowel(char c) {
+        return c != '\0' && VOWELS.indexOf(c) >= 0;
+    }
+}
@@ -0,0 +1,259 @@
+package Service;
+
+import Entity.Patron;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Forgiving patron name search: finds "Ama Mensah" from "mensa", "mensha" or "amma mensah".
+ *
+ * First and last names are split into lowercase words. Each word of a query is matched against the distinct
+ * name words four ways, from best to worst: exactly, as the start of a name, within a small edit distance
+ * (through a trie walked as a Levenshtein automaton, which only visits words that can be close enough), or by
+ * sounding the same (same {@link Metaphone} key). A patron must match every query word; patrons are ranked
+ * by the sum of their best match for each word.
+ */
+public class PatronNameIndex {
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int EDIT = 1; // Plus the edit distance
+    private static final int SOUNDS_ALIKE = 3;
+
+    private final NavigableMap<String, Set<Integer>> patronsByWord = new TreeMap<>();
+    private final Map<String, Set<String>> wordsBySound = new HashMap<>();
+    private final Map<Integer, Patron> patrons = new HashMap<>();
+    private final WordTrie words = new WordTrie();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Index a patron, replacing their previous names
+    public void put(Patron patron) {
+        lock.writeLock().lock();
+        try {
+            Patron previous = patrons.put(patron.getPatronId(), patron);
+            if (previous != null) {
+                unindex(previous);
+            }
+            for (String word : wordsOf(patron)) {
+                Set<Integer> ids = patronsByWord.get(word);
+                if (ids == null) {
+                    ids = new HashSet<>();
+                    patronsByWord.put(word, ids);
+                    words.add(word);
+                    wordsBySound.computeIfAbsent(Metaphone.encode(word), key -> new HashSet<>()).add(word);
+                }
+                ids.add(patron.getPatronId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int patronId) {
+        lock.writeLock().lock();
+        try {
+            Patron previous = patrons.remove(patronId);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Patrons matching every word of the query, best match first
+    public List<Patron> search(String query) {
+        List<String> terms = BookSearchIndex.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = null;
+            for (String term : terms) {
+                Map<Integer, Integer> termScores = new HashMap<>();
+                matchingWords(term).forEach((word, score) -> {
+                    for (Integer patronId : patronsByWord.getOrDefault(word, Set.of())) {
+                        termScores.merge(patronId, score, Math::min);
+                    }
+                });
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Integer, Integer> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Integer, Integer> entry : previous.entrySet()) {
+                        Integer score = termScores.get(entry.getKey());
+                        if (score != null) {
+                            scores.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<Ranked> ranked = new ArrayList<>(scores.size());
+            scores.forEach((patronId, score) -> ranked.add(new Ranked(patrons.get(patronId), score)));
+            ranked.sort(Comparator.comparingInt(Ranked::score)
+                    .thenComparing(Ranked::sortName)
+                    .thenComparingInt(match -> match.patron().getPatronId()));
+            List<Patron> results = new ArrayList<>(ranked.size());
+            ranked.forEach(match -> results.add(match.patron()));
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Name words close to the query word, with how close they are; lower is better
+    private Map<String, Integer> matchingWords(String term) {
+        Map<String, Integer> matches = new HashMap<>();
+        for (String word : patronsByWord.subMap(term, true, term + Character.MAX_VALUE, false).keySet()) {
+            matches.put(word, word.equals(term) ? EXACT : PREFIX);
+        }
+        int maxDistance = term.length() <= 3 ? 0 : term.length() <= 6 ? 1 : 2;
+        if (maxDistance > 0) {
+            words.search(term, maxDistance, (word, distance) -> matches.merge(word, EDIT + distance, Math::min));
+        }
+        String sound = Metaphone.encode(term);
+        if (!sound.isEmpty()) {
+            for (String word : wordsBySound.getOrDefault(sound, Set.of())) {
+                matches.merge(word, SOUNDS_ALIKE, Math::min);
+            }
+        }
+        return matches;
+    }
+
+    private void unindex(Patron patron) {
+        for (String word : wordsOf(patron)) {
+            Set<Integer> ids = patronsByWord.get(word);
+            if (ids != null && ids.remove(patron.getPatronId()) && ids.isEmpty()) {
+                patronsByWord.remove(word);
+                words.remove(word);
+                Set<String> alike = wordsBySound.get(Metaphone.encode(word));
+                if (alike != null && alike.remove(word) && alike.isEmpty()) {
+                    wordsBySound.remove(Metaphone.encode(word));
+                }
+            }
+        }
+    }
+
+    private static Set<String> wordsOf(Patron patron) {
+        Set<String> words = new HashSet<>(BookSearchIndex.tokenize(patron.getFirstName()));
+        words.addAll(BookSearchIndex.tokenize(patron.getLastName()));
+        return words;
+    }
+
+    /**
+     * Character trie of the name words, searched like a Levenshtein automaton: walking down the trie extends
+     * one row of the edit-distance table per character, and a branch is abandoned as soon as every entry of its
+     * row exceeds the allowed distance. Only prefixes that could still lead to a close word are visited.
+     */
+    private static final class WordTrie {
+        private final Node root = new Node();
+
+        void add(String word) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.childFor(word.charAt(i));
+            }
+            node.word = word;
+        }
+
+        void remove(String word) {
+            Node node = root;
+            for (int i = 0; i < word.length() && node != null; i++) {
+                node = node.child(word.charAt(i));
+            }
+            if (node != null) {
+                node.word = null;
+            }
+        }
+
+        void search(String word, int maxDistance, WordVisitor visitor) {
+            int[] firstRow = new int[word.length() + 1];
+            for (int j = 0; j <= word.length(); j++) {
+                firstRow[j] = j;
+            }
+            for (int i = 0; i < root.size; i++) {
+                walk(root.children[i], root.keys[i], word, firstRow, maxDistance, visitor);
+            }
+        }
+
+        private void walk(Node node, char c, String word, int[] previousRow, int maxDistance, WordVisitor visitor) {
+            int[] row = new int[previousRow.length];
+            row[0] = previousRow[0] + 1;
+            int rowMin = row[0];
+            for (int j = 1; j < row.length; j++) {
+                int substitution = previousRow[j - 1] + (word.charAt(j - 1) == c ? 0 : 1);
+                row[j] = Math.min(substitution, Math.min(previousRow[j], row[j - 1]) + 1);
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            if (node.word != null && row[row.length - 1] <= maxDistance) {
+                visitor.visit(node.word, row[row.length - 1]);
+            }
+            if (rowMin <= maxDistance) {
+                for (int i = 0; i < node.size; i++) {
+                    walk(node.children[i], node.keys[i], word, row, maxDistance, visitor);
+                }
+            }
+        }
+
+        /**
+         * Children are kept in parallel arrays sorted by character; most nodes have one or two.
+         */
+        private static final class Node {
+            private char[] keys = new char[0];
+            private Node[] children = new Node[0];
+            private int size;
+            private String word; // Set when a word ends here
+
+            Node child(char c) {
+                int at = Arrays.binarySearch(keys, 0, size, c);
+                return at >= 0 ? children[at] : null;
+            }
+
+            Node childFor(char c) {
+                int at = Arrays.binarySearch(keys, 0, size, c);
+                if (at >= 0) {
+                    return children[at];
+                }
+                at = -(at + 1);
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size + 1);
+                    children = Arrays.copyOf(children, size + 1);
+                }
+                System.arraycopy(keys, at, keys, at + 1, size - at);
+                System.arraycopy(children, at, children, at + 1, size - at);
+                keys[at] = c;
+                children[at] = new Node();
+                size++;
+                return children[at];
+            }
+        }
+    }
+
+    private record Ranked(Patron patron, int score, String sortName) {
+        Ranked(Patron patron, int score) {
+            this(patron, score, (patron.getLastName() + " " + patron.getFirstName()).toLowerCase(Locale.ROOT));
+        }
+    }
+
+    @FunctionalInterface
+    private interface WordVisitor {
+        void visit(String word, int distance);
+    }
+}
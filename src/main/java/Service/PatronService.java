@@ -1,20 +1,75 @@
 package Service;
 
+import Cache.CacheStats;
+import Cache.TinyLfuCache;
+import DAO.BatchResult;
 import DAO.PatronDAO;
+import DAO.Page;
+import DAO.PageRequest;
+import Entity.ChangeEvent;
+import Entity.Enums.ChangeEntity;
+import Entity.Enums.ChangeOperation;
 import Entity.Patron;
 
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PatronService {
     private final PatronDAO patronDAO;
+    private final TinyLfuCache<Integer, Patron> patronCache;
+    private static final int CACHE_SIZE = 1_000;
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+    // Every patron by name, loaded on the first type-ahead lookup and kept current by writes here and at other desks
+    private final Map<Integer, Patron> directory = new ConcurrentHashMap<>();
+    private final PrefixIndex patronNames = new PrefixIndex();
+    private final PatronNameIndex fuzzyNames = new PatronNameIndex();
+    private final Set<Integer> changedPatrons = ConcurrentHashMap.newKeySet(); // Re-read before the next lookup
+    private volatile boolean directoryLoaded;
 
     public PatronService() {
         this.patronDAO = new PatronDAO();
+        this.patronCache = TinyLfuCache.<Integer, Patron>builder()
+                .maximumSize(CACHE_SIZE)
+                .expireAfterWrite(CACHE_TTL)
+                .build();
     }
 
     // Add a new patron
     public void addPatron(Patron patron) throws SQLException {
+        validatePatron(patron);
+        Patron saved = patronDAO.addPatron(patron);
+        if (saved != null) {
+            patronCache.put(saved.getPatronId(), saved);
+            addToDirectory(saved);
+        }
+    }
+
+    // Add many patrons in one database transaction; nothing is written if any row is rejected
+    public BatchResult<Patron> addPatrons(List<Patron> patrons, int batchSize) throws SQLException {
+        for (int i = 0; i < patrons.size(); i++) {
+            try {
+                validatePatron(patrons.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + i + ": " + e.getMessage(), e);
+            }
+        }
+        BatchResult<Patron> result = patronDAO.addPatrons(patrons, batchSize);
+        if (result.isCommitted()) {
+            patrons.forEach(patron -> {
+                patronCache.put(patron.getPatronId(), patron);
+                addToDirectory(patron);
+            });
+        }
+        return result;
+    }
+
+    private void validatePatron(Patron patron) {
         if (patron.getFirstName() == null || patron.getFirstName().isEmpty()) {
             throw new IllegalArgumentException("Patron first name cannot be null or empty.");
         }
@@ -24,15 +79,19 @@ public class PatronService {
         if (patron.getEmail() == null || patron.getEmail().isEmpty()) {
             throw new IllegalArgumentException("Patron email cannot be null or empty.");
         }
-        patronDAO.addPatron(patron);
     }
 
     // Retrieve a patron by their ID
     public Patron getPatronById(int patronId) throws SQLException {
+        Patron cachedPatron = patronCache.getIfPresent(patronId);
+        if (cachedPatron != null) {
+            return cachedPatron;
+        }
         Patron patron = patronDAO.getPatronById(patronId);
         if (patron == null) {
             throw new IllegalArgumentException("No patron found with ID: " + patronId);
         }
+        patronCache.put(patronId, patron);
         return patron;
     }
 
@@ -41,6 +100,11 @@ public class PatronService {
         return patronDAO.getAllPatrons();
     }
 
+    // Retrieve one page of patrons, optionally filtered by last name prefix
+    public Page<Patron> getPatronsPage(PageRequest request, String lastNamePrefix) throws SQLException {
+        return patronDAO.getPatronsPage(request, lastNamePrefix);
+    }
+
     // Update a patron's address
     public void updatePatronAddress(int patronId, String address) throws SQLException {
         if (address == null || address.isEmpty()) {
@@ -51,6 +115,23 @@ public class PatronService {
             throw new IllegalArgumentException("Cannot update address. No patron found with ID: " + patronId);
         }
         patronDAO.updatePatronAddress(patronId, address);
+        patronCache.invalidate(patronId);
+        directory.computeIfPresent(patronId, (id, known) -> {
+            known.setAddress(address);
+            return known;
+        });
+    }
+
+    // Another client changed a patron: drop our cached copy and re-read that patron's name before the next lookup
+    void applyChange(ChangeEvent change) {
+        if (change.getEntity() == ChangeEntity.PATRON) {
+            patronCache.invalidate(change.getEntityId());
+            if (change.getOperation() == ChangeOperation.DELETE) {
+                removeFromDirectory(change.getEntityId());
+            } else {
+                changedPatrons.add(change.getEntityId());
+            }
+        }
     }
 
     // Delete a patron by their ID
@@ -60,9 +141,68 @@ public class PatronService {
             throw new IllegalArgumentException("Cannot delete. No patron found with ID: " + patronId);
         }
         patronDAO.deletePatron(patronId);
+        patronCache.invalidate(patronId);
+        removeFromDirectory(patronId);
     }
 
+    // Type-ahead for patron pickers: the first patrons whose "first last" or "last first" name starts with the prefix
+    public List<Patron> suggestPatrons(String prefix, int limit) throws SQLException {
+        refreshDirectory();
+        List<Patron> patrons = new ArrayList<>();
+        for (int patronId : patronNames.top(prefix, limit)) {
+            Patron patron = directory.get(patronId);
+            if (patron != null) {
+                patrons.add(patron);
+            }
+        }
+        return patrons;
+    }
+
+    // Read every name the first time, and afterwards only the patrons changed at other desks
+    private synchronized void refreshDirectory() throws SQLException {
+        if (!directoryLoaded) {
+            changedPatrons.clear(); // The full read sees these; changes arriving from here on are kept
+            for (Patron patron : patronDAO.getAllPatrons()) {
+                addToDirectory(patron);
+            }
+            directoryLoaded = true;
+        }
+        for (Iterator<Integer> pending = changedPatrons.iterator(); pending.hasNext(); ) {
+            int patronId = pending.next();
+            Patron patron = patronDAO.getPatronById(patronId);
+            if (patron == null) {
+                removeFromDirectory(patronId);
+            } else {
+                addToDirectory(patron);
+            }
+            pending.remove();
+        }
+    }
+
+    private void addToDirectory(Patron patron) {
+        directory.put(patron.getPatronId(), patron);
+        patronNames.put(patron.getPatronId(),
+                patron.getFirstName() + " " + patron.getLastName(),
+                patron.getLastName() + " " + patron.getFirstName());
+        fuzzyNames.put(patron);
+    }
+
+    private void removeFromDirectory(int patronId) {
+        directory.remove(patronId);
+        patronNames.remove(patronId);
+        fuzzyNames.remove(patronId);
+    }
+
+    public CacheStats getCacheStats() {
+        return patronCache.stats();
+    }
+
+    // Search first and last names in memory, tolerating misspellings; closest matches first
     public List<Patron> searchPatronsByName(String name) throws SQLException {
-        return patronDAO.searchPatronsByName(name);
+        if (name == null || name.isBlank()) {
+            return getAllPatrons();
+        }
+        refreshDirectory();
+        return fuzzyNames.search(name);
     }
 }
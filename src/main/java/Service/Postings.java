@@ -0,0 +1,100 @@
+package Service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Sorted, growable list of IDs, one per indexed value. IDs mostly arrive in ascending order, as rows are
+ * loaded by primary key, so adds are usually appends.
+ */
+final class Postings {
+    private int[] ids = new int[2];
+    private int size;
+
+    void add(int id) {
+        int at = size > 0 && ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+        if (at >= 0) {
+            return;
+        }
+        at = -(at + 1);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        ids[at] = id;
+        size++;
+    }
+
+    boolean remove(int id) {
+        int at = Arrays.binarySearch(ids, 0, size, id);
+        if (at < 0) {
+            return false;
+        }
+        System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+
+    void addTo(BitSet target) {
+        for (int i = 0; i < size; i++) {
+            target.set(ids[i]);
+        }
+    }
+
+    // The IDs in both this list and the sorted array; probes this list when the array is much shorter
+    int[] intersect(int[] other) {
+        int[] result = new int[Math.min(size, other.length)];
+        int count = 0;
+        if (other.length * 8 < size) {
+            for (int id : other) {
+                if (Arrays.binarySearch(ids, 0, size, id) >= 0) {
+                    result[count++] = id;
+                }
+            }
+        } else {
+            for (int i = 0, j = 0; i < size && j < other.length; ) {
+                if (ids[i] < other[j]) {
+                    i++;
+                } else if (ids[i] > other[j]) {
+                    j++;
+                } else {
+                    result[count++] = ids[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // The IDs in either sorted array, once each
+    static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || i < a.length && a[i] < b[j]) {
+                result[count++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                result[count++] = b[j++];
+            } else {
+                result[count++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
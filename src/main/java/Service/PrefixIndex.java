@@ -0,0 +1,108 @@
+package Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted names with their IDs, for type-ahead pickers: the first few IDs whose name starts with what has
+ * been typed, in name order.
+ *
+ * An entity may be known by several names (a patron as "first last" and "last first"), each stored once.
+ * Lookups are a sorted-map range walk that stops after the requested number of matches, so the cost depends
+ * on the limit, not on how many names share the prefix.
+ */
+public class PrefixIndex {
+    private static final char SEPARATOR = '\u0000'; // Sorts before any typed character, so a name's entries stay together
+
+    private final NavigableMap<String, Integer> entries = new TreeMap<>();
+    private final Map<Integer, String[]> keysById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Index an entity under the given names, replacing the names it had before
+    public void put(int id, String... names) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String name : names) {
+            String key = normalize(name);
+            if (!key.isEmpty()) {
+                normalized.add(key + SEPARATOR + id);
+            }
+        }
+        String[] keys = normalized.toArray(new String[0]);
+        lock.writeLock().lock();
+        try {
+            String[] previous = keysById.put(id, keys);
+            if (previous != null) {
+                if (Arrays.equals(previous, keys)) {
+                    return;
+                }
+                for (String key : previous) {
+                    entries.remove(key);
+                }
+            }
+            for (String key : keys) {
+                entries.put(key, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            String[] previous = keysById.remove(id);
+            if (previous != null) {
+                for (String key : previous) {
+                    entries.remove(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keysById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Up to limit distinct IDs with a name starting with the prefix, ordered by that name
+    public List<Integer> top(String prefix, int limit) {
+        String from = normalize(prefix);
+        List<Integer> ids = new ArrayList<>(Math.min(limit, 64));
+        Set<Integer> seen = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, Integer> entry : entries.tailMap(from, true).entrySet()) {
+                if (ids.size() >= limit || !entry.getKey().startsWith(from)) {
+                    break;
+                }
+                if (seen.add(entry.getValue())) {
+                    ids.add(entry.getValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    // Case and spacing do not matter when typing a name
+    static String normalize(String name) {
+        return name == null ? "" : name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
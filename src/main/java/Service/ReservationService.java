@@ -1,8 +1,11 @@
 package Service;
 
 import DAO.ReservationDAO;
+import DAO.Page;
+import DAO.PageRequest;
 import Entity.Enums.ReservationStatus;
 import Entity.Reservation;
+import Entity.ReservationDetails;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
@@ -10,9 +13,15 @@ import java.util.List;
 
 public class ReservationService {
     private final ReservationDAO reservationDAO;
+    private final CirculationCounters counters;
 
     public ReservationService() {
+        this(new CirculationCounters());
+    }
+
+    public ReservationService(CirculationCounters counters) {
         this.reservationDAO = new ReservationDAO();
+        this.counters = counters;
     }
 
     // Add a new reservation
@@ -30,6 +39,7 @@ public class ReservationService {
             throw new IllegalArgumentException("Due date cannot be before the reservation date.");
         }
         reservationDAO.addReservation(reservation);
+        counters.reservationAdded(reservation.getStatus());
     }
 
 
@@ -39,6 +49,16 @@ public class ReservationService {
         return reservationDAO.getAllReservations();
     }
 
+    // Retrieve all reservations with patron names and book titles, for display
+    public List<ReservationDetails> getAllReservationDetails() throws SQLException {
+        return reservationDAO.getAllReservationDetails();
+    }
+
+    // Retrieve one page of reservations, optionally filtered by status
+    public Page<Reservation> getReservationsPage(PageRequest request, ReservationStatus status) throws SQLException {
+        return reservationDAO.getReservationsPage(request, status);
+    }
+
 
 
     // Delete a reservation
@@ -48,5 +68,6 @@ public class ReservationService {
             throw new IllegalArgumentException("Cannot delete. No reservation found with ID: " + reservationId);
         }
         reservationDAO.deleteReservation(reservationId);
+        counters.reservationRemoved(reservation.getStatus());
     }
 }
@@ -0,0 +1,113 @@
+package Service;
+
+import Cache.CacheStats;
+import DatabaseConnection.DatabaseUtil;
+
+/**
+ * One set of services for the whole application.
+ *
+ * Controllers and views look their services up here instead of constructing their own, so every screen
+ * shares one book cache, one catalog and one patron cache: a status change made at the circulation desk
+ * is what the books screen sees next, and a book warmed by one screen is a hit for the others.
+ * Created on first use; {@link #shutdown()} reports the cache hit rates and releases the connection pool.
+ */
+public final class ServiceRegistry {
+    private static volatile ServiceRegistry instance;
+
+    private final BookService bookService;
+    private final PatronService patronService;
+    private final TransactionService transactionService;
+    private final ReservationService reservationService;
+    private final StaffService staffService;
+    private final StatisticsService statisticsService;
+    private final ChangeLogPoller changeLogPoller;
+
+    ServiceRegistry(CirculationCounters counters, BookService bookService, PatronService patronService,
+                    ReservationService reservationService, StaffService staffService, StatisticsService statisticsService) {
+        this.bookService = bookService;
+        this.patronService = patronService;
+        this.transactionService = new TransactionService(bookService, counters);
+        this.reservationService = reservationService;
+        this.staffService = staffService;
+        this.statisticsService = statisticsService;
+        this.changeLogPoller = new ChangeLogPoller();
+        changeLogPoller.addListener(bookService::applyChange);
+        changeLogPoller.addListener(patronService::applyChange);
+        changeLogPoller.addListener(transactionService::applyChange);
+    }
+
+    public static ServiceRegistry get() {
+        ServiceRegistry current = instance;
+        if (current == null) {
+            synchronized (ServiceRegistry.class) {
+                current = instance;
+                if (current == null) {
+                    // One set of counters, moved by every service that writes and read by the dashboard
+                    CirculationCounters counters = new CirculationCounters();
+                    current = new ServiceRegistry(counters, new BookService(counters), new PatronService(),
+                            new ReservationService(counters), new StaffService(), new StatisticsService(counters));
+                    instance = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public BookService getBookService() {
+        return bookService;
+    }
+
+    public PatronService getPatronService() {
+        return patronService;
+    }
+
+    public TransactionService getTransactionService() {
+        return transactionService;
+    }
+
+    public ReservationService getReservationService() {
+        return reservationService;
+    }
+
+    public StaffService getStaffService() {
+        return staffService;
+    }
+
+    public StatisticsService getStatisticsService() {
+        return statisticsService;
+    }
+
+    // Follow writes from other desks so the shared caches stay current; call once the application is up
+    public void startChangeLogPolling() {
+        changeLogPoller.start();
+    }
+
+    // One line per shared cache, e.g. for the log on exit
+    public String cacheReport() {
+        return "Book cache: " + describe(bookService.getCacheStats()) + System.lineSeparator()
+                + "Search cache: " + describe(bookService.getSearchCacheStats()) + System.lineSeparator()
+                + "Patron cache: " + describe(patronService.getCacheStats());
+    }
+
+    private static String describe(CacheStats stats) {
+        // With no requests the hit rate says nothing
+        String hits = stats.getRequestCount() == 0 ? "n/a" : String.format("%.1f%%", stats.getHitRate() * 100);
+        return String.format("%d requests, %s hits, %d evictions",
+                stats.getRequestCount(), hits, stats.getEvictionCount());
+    }
+
+    // Drop the shared services and close the pool on application exit; the next get() starts afresh.
+    // Returns the final cache report for the caller to log, or null if nothing was running
+    public static synchronized String shutdown() {
+        ServiceRegistry current = instance;
+        String report = null;
+        if (current != null) {
+            report = current.cacheReport();
+            current.statisticsService.close();
+            current.changeLogPoller.stop();
+            instance = null;
+        }
+        DatabaseUtil.shutdown();
+        return report;
+    }
+}
@@ -0,0 +1,88 @@
+package Service;
+
+import DAO.CirculationBaseline;
+import DAO.StatisticsDAO;
+import Entity.LibraryStatistics;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class StatisticsService {
+    private static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(5);
+    static final int RECONCILE_ATTEMPTS = 3;
+
+    private final StatisticsDAO statisticsDAO;
+    private final CirculationCounters counters;
+    private ScheduledExecutorService reconciler; // Guarded by this
+
+    public StatisticsService() {
+        this(new CirculationCounters());
+    }
+
+    public StatisticsService(CirculationCounters counters) {
+        this(new StatisticsDAO(), counters);
+    }
+
+    StatisticsService(StatisticsDAO statisticsDAO, CirculationCounters counters) {
+        this.statisticsDAO = statisticsDAO;
+        this.counters = counters;
+    }
+
+    // Dashboard counts from memory; only the first call reads the database, then a background task keeps them honest
+    public LibraryStatistics getStatistics() throws SQLException {
+        if (!counters.isReconciled()) {
+            synchronized (this) {
+                if (!counters.isReconciled()) {
+                    reconcile();
+                    startReconciling();
+                }
+            }
+        }
+        return counters.snapshot(LocalDate.now());
+    }
+
+    // Correct the counters against the database now. A write counted while the database was read may already be in
+    // its totals, so read again; if the desks stay that busy, apply the last read and let the next round correct it
+    public void reconcile() throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            long changes = counters.changeCount();
+            CirculationBaseline before = counters.capture();
+            CirculationBaseline database = statisticsDAO.getCirculationBaseline();
+            if (counters.changeCount() == changes || attempt == RECONCILE_ATTEMPTS) {
+                counters.reconcile(database, before);
+                return;
+            }
+        }
+    }
+
+    // Stop the background reconciliation, e.g. on application exit
+    public synchronized void close() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+    }
+
+    private synchronized void startReconciling() {
+        if (reconciler != null) {
+            return;
+        }
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statistics-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = RECONCILE_INTERVAL.toMillis();
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (SQLException e) {
+                System.err.println("Could not reconcile circulation counters: " + e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,22 +1,46 @@
 package Service;
 
+import DAO.BatchResult;
 import DAO.TransactionDAO;
+import DAO.Page;
+import DAO.PageRequest;
+import Entity.ChangeEvent;
 import Entity.Enums.BookStatus;
+import Entity.Enums.ChangeEntity;
+import Entity.Enums.ChangeOperation;
 import Entity.Enums.TransactionType;
 import Entity.Transaction;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TransactionService {
     private final TransactionDAO transactionDAO;
     private final BookService bookService;
+    private final CirculationCounters counters;
+    private static final BigDecimal FINE_PER_DAY = BigDecimal.ONE;
+
+    // Every transaction, for filtering without a query per keystroke; read in full on first use
+    private volatile TransactionStore store = new TransactionStore();
+    private volatile boolean storeLoaded;
+    private final Set<Integer> changedTransactions = ConcurrentHashMap.newKeySet(); // Re-read before the next search
 
 
     public TransactionService() {
+        this(new BookService(), new CirculationCounters());
+    }
+
+    // Share the given BookService and counters, so status changes made here are seen by their caches
+    public TransactionService(BookService bookService, CirculationCounters counters) {
         this.transactionDAO = new TransactionDAO();
-        this.bookService = new BookService();
+        this.bookService = bookService;
+        this.counters = counters;
     }
 
     // Add a new transaction
@@ -24,6 +48,8 @@ public class TransactionService {
         validateTransaction(transaction);
         try {
             transactionDAO.addTransaction(transaction);
+            counters.transactionRecorded(transaction);
+            store.put(transaction);
 
             // Update book status based on transaction type
             if (transaction.getTransactionType() == TransactionType.BORROW) {
@@ -38,6 +64,43 @@ public class TransactionService {
 
 
 
+    // Add many transactions and update the affected books' statuses, all in one database transaction
+    public BatchResult<Transaction> addTransactions(List<Transaction> transactions, int batchSize) {
+        for (int i = 0; i < transactions.size(); i++) {
+            try {
+                validateTransaction(transactions.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + i + ": " + e.getMessage(), e);
+            }
+        }
+        try {
+            BatchResult<Transaction> result = transactionDAO.addTransactionsWithBookStatus(transactions, batchSize);
+            if (result.isCommitted()) {
+                transactions.forEach(counters::transactionRecorded);
+                transactions.forEach(store::put);
+                List<Integer> borrowed = new ArrayList<>();
+                List<Integer> returned = new ArrayList<>();
+                for (Transaction transaction : transactions) {
+                    if (transaction.getTransactionType() == TransactionType.BORROW) {
+                        borrowed.add(transaction.getBookId());
+                    } else if (transaction.getTransactionType() == TransactionType.RETURN) {
+                        returned.add(transaction.getBookId());
+                    }
+                }
+                // The statuses are committed with the rows; bring the book caches in line
+                if (!borrowed.isEmpty()) {
+                    bookService.bookStatusesChanged(borrowed, BookStatus.BORROWED);
+                }
+                if (!returned.isEmpty()) {
+                    bookService.bookStatusesChanged(returned, BookStatus.AVAILABLE);
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to add transactions: " + e.getMessage(), e);
+        }
+    }
+
     // Get all transactions
     public List<Transaction> getAllTransactions() {
         try {
@@ -47,6 +110,69 @@ public class TransactionService {
         }
     }
 
+    // Get one page of transactions, optionally filtered by type and patron
+    public Page<Transaction> getTransactionsPage(PageRequest request, TransactionType type, Integer patronId, boolean orderByDueDate) {
+        try {
+            return transactionDAO.getTransactionsPage(request, type, patronId, orderByDueDate);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to retrieve transactions: " + e.getMessage(), e);
+        }
+    }
+
+    // Filter every transaction in memory, newest first: the text is a transaction, patron or book ID, and a
+    // blank or null criterion matches anything
+    public List<Transaction> searchTransactions(String text, TransactionType type, LocalDate borrowDate) {
+        Integer number = null;
+        if (text != null && !text.isBlank()) {
+            try {
+                number = Integer.valueOf(text.trim());
+            } catch (NumberFormatException e) {
+                return List.of(); // Only IDs are searched, so anything else matches nothing
+            }
+        }
+        try {
+            return currentStore().search(number, type, borrowDate);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to search transactions: " + e.getMessage(), e);
+        }
+    }
+
+    // Follow a write made at another desk
+    void applyChange(ChangeEvent change) {
+        if (change.getEntity() != ChangeEntity.TRANSACTION) {
+            return;
+        }
+        if (change.getOperation() == ChangeOperation.DELETE) {
+            store.remove(change.getEntityId());
+        } else {
+            changedTransactions.add(change.getEntityId());
+        }
+    }
+
+    // The store, read in full the first time and afterwards brought up to date one changed row at a time
+    private synchronized TransactionStore currentStore() throws SQLException {
+        if (!storeLoaded) {
+            changedTransactions.clear(); // The full read sees these; changes arriving from here on are kept
+            TransactionStore loaded = new TransactionStore();
+            transactionDAO.forEachTransaction(loaded::put);
+            store = loaded;
+            storeLoaded = true;
+        }
+        // Every changed ID is read again, including echoes of writes made here: the log cannot tell those apart
+        // from a later write to the same row at another desk, and one batched read costs little
+        if (!changedTransactions.isEmpty()) {
+            Set<Integer> pending = new HashSet<>(changedTransactions);
+            Set<Integer> missing = new HashSet<>(pending);
+            for (Transaction transaction : transactionDAO.getTransactionsByIds(pending)) {
+                store.put(transaction);
+                missing.remove(transaction.getTransactionId());
+            }
+            missing.forEach(store::remove); // No row left; deleted since the change was logged
+            changedTransactions.removeAll(pending);
+        }
+        return store;
+    }
+
 
 
     // Delete a transaction by ID
@@ -57,6 +183,7 @@ public class TransactionService {
 
         try {
             transactionDAO.deleteTransaction(transactionId);
+            store.remove(transactionId);
         } catch (Exception e) {
             throw new RuntimeException("Failed to delete transaction: " + e.getMessage(), e);
         }
@@ -95,46 +222,51 @@ public class TransactionService {
                     TransactionType.BORROW
             );
 
-            // Validate and add transaction
+            // Claim the book and record the loan in one database transaction
             validateTransaction(transaction);
-            transactionDAO.addTransaction(transaction);
+            if (!transactionDAO.borrowBook(transaction)) {
+                throw new IllegalStateException("Book " + bookId + " is not available.");
+            }
 
-            // Update book status to BORROWED
-            bookService.updateBookStatus(bookId, BookStatus.BORROWED);
+            // The database already says BORROWED; bring the cached copies in line
+            bookService.bookStatusChanged(bookId, BookStatus.BORROWED);
+            counters.bookStatusChanged(BookStatus.AVAILABLE, BookStatus.BORROWED);
+            counters.transactionRecorded(transaction);
+            store.put(transaction);
         } catch (Exception e) {
             throw new RuntimeException("Failed to process borrow transaction: " + e.getMessage(), e);
         }
     }
 
-    // Process a book return
+    // Process a book return: close the loan in place and make the book available again
     public void returnBook(int transactionId) {
         try {
-            // Get the original transaction
-            Transaction transaction = transactionDAO.getTransactionById(transactionId);
+            Transaction transaction = transactionDAO.returnBook(transactionId, LocalDate.now(), FINE_PER_DAY);
             if (transaction == null) {
-                throw new RuntimeException("Transaction not found");
+                throw new RuntimeException("Transaction not found or already returned");
             }
 
-            // Update transaction details
-            transaction.setReturnDate(LocalDate.now());
-            transaction.setTransactionType(TransactionType.RETURN);
-
-            // Calculate fine if returned late
-            if (LocalDate.now().isAfter(transaction.getDueDate())) {
-                long daysLate = transaction.getDueDate().until(LocalDate.now()).getDays();
-                transaction.setFine(BigDecimal.valueOf(daysLate)); // $1 per day
-            }
-
-            // Update transaction in database
-            transactionDAO.addTransaction(transaction); // This will update the existing transaction
-
-            // Update book status to AVAILABLE
-            bookService.updateBookStatus(transaction.getBookId(), BookStatus.AVAILABLE);
+            // The database already says AVAILABLE; bring the cached copies in line
+            bookService.bookStatusChanged(transaction.getBookId(), BookStatus.AVAILABLE);
+            counters.bookStatusChanged(BookStatus.BORROWED, BookStatus.AVAILABLE);
+            counters.loanClosed(transaction);
+            store.put(transaction);
         } catch (Exception e) {
             throw new RuntimeException("Failed to process return transaction: " + e.getMessage(), e);
         }
     }
 
+    // Merge the duplicate RETURN rows left behind by the old return path into their loans
+    public int compactReturnDuplicates() {
+        try {
+            int merged = transactionDAO.compactReturnDuplicates();
+            storeLoaded = false; // Many rows changed at once; read them all again
+            return merged;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to compact transactions: " + e.getMessage(), e);
+        }
+    }
+
 
 
 }
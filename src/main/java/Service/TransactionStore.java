@@ -0,0 +1,163 @@
+package Service;
+
+import Entity.Enums.TransactionType;
+import Entity.Transaction;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The Transactions table held in memory, for filtering the transactions screen without a query per keystroke.
+ *
+ * Besides the transactions by ID, the store keeps a sorted list of transaction IDs for every patron, book,
+ * borrow date and transaction type. A filter is answered by intersecting the lists it names, smallest first,
+ * so its cost follows the size of the answer rather than the size of the table. Transactions are copied on
+ * the way in, so a caller changing its own object cannot leave the indexes pointing at the wrong lists.
+ * Searches share a read lock; updates take the write lock.
+ */
+public class TransactionStore {
+
+    private final Map<Integer, Transaction> transactions = new HashMap<>();
+    private final Map<Integer, Postings> byPatron = new HashMap<>();
+    private final Map<Integer, Postings> byBook = new HashMap<>();
+    private final Map<LocalDate, Postings> byBorrowDate = new HashMap<>();
+    private final Map<TransactionType, Postings> byType = new EnumMap<>(TransactionType.class);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Add a transaction, or replace the stored copy of one that changed
+    public void put(Transaction transaction) {
+        Transaction copy = copyOf(transaction);
+        lock.writeLock().lock();
+        try {
+            Transaction previous = transactions.put(copy.getTransactionId(), copy);
+            if (previous != null) {
+                unindex(previous);
+            }
+            int id = copy.getTransactionId();
+            byPatron.computeIfAbsent(copy.getPatronId(), key -> new Postings()).add(id);
+            byBook.computeIfAbsent(copy.getBookId(), key -> new Postings()).add(id);
+            if (copy.getBorrowDate() != null) {
+                byBorrowDate.computeIfAbsent(copy.getBorrowDate(), key -> new Postings()).add(id);
+            }
+            if (copy.getTransactionType() != null) {
+                byType.computeIfAbsent(copy.getTransactionType(), key -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int transactionId) {
+        lock.writeLock().lock();
+        try {
+            Transaction previous = transactions.remove(transactionId);
+            if (previous != null) {
+                unindex(previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return transactions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Transactions matching every given criterion, newest first; a null criterion matches anything.
+     *
+     * @param number a transaction, patron or book ID; matches a transaction with that ID, or any transaction
+     *               of that patron or for that book
+     * @param type the transaction type
+     * @param borrowDate the day the book was borrowed
+     */
+    public List<Transaction> search(Integer number, TransactionType type, LocalDate borrowDate) {
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(2);
+            if (type != null) {
+                lists.add(byType.get(type));
+            }
+            if (borrowDate != null) {
+                lists.add(byBorrowDate.get(borrowDate));
+            }
+            if (lists.contains(null)) {
+                return List.of();
+            }
+            // Start from the smallest set so every later intersection works on as few IDs as possible
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            int[] ids;
+            if (number != null) {
+                ids = matchingNumber(number);
+            } else if (!lists.isEmpty()) {
+                ids = lists.remove(0).toArray();
+            } else {
+                ids = transactions.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            }
+            for (Postings list : lists) {
+                if (ids.length == 0) {
+                    break;
+                }
+                ids = list.intersect(ids);
+            }
+
+            List<Transaction> results = new ArrayList<>(ids.length);
+            for (int i = ids.length - 1; i >= 0; i--) {
+                results.add(copyOf(transactions.get(ids[i])));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The transaction with this ID and those of the patron or book with this ID
+    private int[] matchingNumber(int number) {
+        int[] ids = transactions.containsKey(number) ? new int[]{number} : new int[0];
+        Postings patron = byPatron.get(number);
+        if (patron != null) {
+            ids = Postings.union(ids, patron.toArray());
+        }
+        Postings book = byBook.get(number);
+        if (book != null) {
+            ids = Postings.union(ids, book.toArray());
+        }
+        return ids;
+    }
+
+    private void unindex(Transaction transaction) {
+        int id = transaction.getTransactionId();
+        removeFrom(byPatron, transaction.getPatronId(), id);
+        removeFrom(byBook, transaction.getBookId(), id);
+        removeFrom(byBorrowDate, transaction.getBorrowDate(), id);
+        removeFrom(byType, transaction.getTransactionType(), id);
+    }
+
+    private static <K> void removeFrom(Map<K, Postings> index, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        Postings list = index.get(key);
+        if (list != null && list.remove(id) && list.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static Transaction copyOf(Transaction transaction) {
+        return new Transaction(transaction.getTransactionId(), transaction.getPatronId(), transaction.getBookId(),
+                transaction.getBorrowDate(), transaction.getReturnDate(), transaction.getDueDate(),
+                transaction.getFine(), transaction.getTransactionType());
+    }
+}
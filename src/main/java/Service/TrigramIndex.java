@@ -0,0 +1,252 @@
+package Service;
+
+import Entity.Book;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index over book titles and authors, for substring search ("mock" finding "To Kill a Mockingbird").
+ *
+ * Every run of three characters in the lowercased title or author maps to the IDs of the books containing it.
+ * A search intersects the lists for the trigrams of the search text, which narrows the catalog to books that
+ * contain all of them; the caller then checks those few candidates for the actual substring.
+ *
+ * The ID lists are stored as variable-length deltas, one or two bytes per ID in a dense catalog, since a
+ * catalog has hundreds of thousands of trigram occurrences. The index does not remember which trigrams a book
+ * had; callers pass the previous version of a book when it changes.
+ */
+public class TrigramIndex {
+    // Once the candidates are this many times fewer than a list, checking them directly beats decoding the list
+    private static final int VERIFY_RATIO = 32;
+
+    private final Map<Long, GapEncodedPostings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Index a book, replacing what was indexed for its previous version (null for a new book)
+    public void put(Book previous, Book book) {
+        long[] before = previous == null ? new long[0] : trigramsOf(previous);
+        long[] after = trigramsOf(book);
+        lock.writeLock().lock();
+        try {
+            for (long trigram : before) {
+                if (Arrays.binarySearch(after, trigram) < 0) {
+                    removeFrom(trigram, previous.getBookId());
+                }
+            }
+            for (long trigram : after) {
+                if (Arrays.binarySearch(before, trigram) < 0) {
+                    postings.computeIfAbsent(trigram, key -> new GapEncodedPostings()).add(book.getBookId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Book book) {
+        lock.writeLock().lock();
+        try {
+            for (long trigram : trigramsOf(book)) {
+                removeFrom(trigram, book.getBookId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Sorted IDs of books that may contain the text, or null when the text is too short to narrow anything down
+    public int[] candidates(String text) {
+        long[] trigrams = trigrams(normalize(text));
+        if (trigrams.length == 0) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            GapEncodedPostings[] lists = new GapEncodedPostings[trigrams.length];
+            for (int i = 0; i < trigrams.length; i++) {
+                lists[i] = postings.get(trigrams[i]);
+                if (lists[i] == null) {
+                    return new int[0];
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.count, b.count));
+            int[] result = lists[0].decode();
+            for (int i = 1; i < lists.length && result.length > 0; i++) {
+                if ((long) result.length * VERIFY_RATIO < lists[i].count) {
+                    break;
+                }
+                result = lists[i].intersect(result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // The distinct trigrams of a book's title and author; a trigram never spans the two fields
+    private static long[] trigramsOf(Book book) {
+        long[] title = trigrams(normalize(book.getTitle()));
+        long[] author = trigrams(normalize(book.getAuthor()));
+        long[] all = Arrays.copyOf(title, title.length + author.length);
+        System.arraycopy(author, 0, all, title.length, author.length);
+        return distinctSorted(all);
+    }
+
+    // Three UTF-16 characters packed into one long
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return distinctSorted(trigrams);
+    }
+
+    private static long[] distinctSorted(long[] values) {
+        if (values.length == 0) {
+            return values;
+        }
+        Arrays.sort(values);
+        int count = 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[count - 1]) {
+                values[count++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    private void removeFrom(long trigram, int bookId) {
+        GapEncodedPostings list = postings.get(trigram);
+        if (list != null && list.remove(bookId) && list.count == 0) {
+            postings.remove(trigram);
+        }
+    }
+
+    /**
+     * Ascending book IDs stored as the gaps between them, seven bits per byte with the high bit marking a
+     * continuation. Appending a larger ID is cheap; anything else re-encodes the list.
+     */
+    private static final class GapEncodedPostings {
+        private byte[] data = new byte[4];
+        private int length;
+        private int count;
+        private int last = -1;
+
+        void add(int id) {
+            if (id > last) {
+                append(last < 0 ? id : id - last); // The first ID is stored as is
+                last = id;
+                count++;
+                return;
+            }
+            int[] ids = decode();
+            int at = Arrays.binarySearch(ids, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -(at + 1);
+            int[] next = new int[ids.length + 1];
+            System.arraycopy(ids, 0, next, 0, at);
+            next[at] = id;
+            System.arraycopy(ids, at, next, at + 1, ids.length - at);
+            encode(next);
+        }
+
+        boolean remove(int id) {
+            if (id > last) {
+                return false;
+            }
+            int[] ids = decode();
+            int at = Arrays.binarySearch(ids, id);
+            if (at < 0) {
+                return false;
+            }
+            int[] next = new int[ids.length - 1];
+            System.arraycopy(ids, 0, next, 0, at);
+            System.arraycopy(ids, at + 1, next, at, next.length - at);
+            encode(next);
+            return true;
+        }
+
+        int[] decode() {
+            int[] ids = new int[count];
+            int position = 0;
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value += gap;
+                ids[i] = value;
+            }
+            return ids;
+        }
+
+        // The IDs of the sorted array that are also in this list, decoding the list as it goes
+        int[] intersect(int[] sorted) {
+            int[] result = new int[Math.min(count, sorted.length)];
+            int found = 0;
+            int position = 0;
+            int value = 0;
+            int j = 0;
+            for (int i = 0; i < count && j < sorted.length; i++) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value += gap;
+                while (j < sorted.length && sorted[j] < value) {
+                    j++;
+                }
+                if (j < sorted.length && sorted[j] == value) {
+                    result[found++] = value;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, found);
+        }
+
+        private void encode(int[] ids) {
+            data = new byte[Math.max(4, ids.length * 2)];
+            length = 0;
+            count = 0;
+            last = -1;
+            for (int id : ids) {
+                add(id);
+            }
+        }
+
+        private void append(int gap) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            int value = gap;
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+}
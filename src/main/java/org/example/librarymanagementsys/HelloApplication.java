@@ -1,5 +1,6 @@
 package org.example.librarymanagementsys;
 
+import Service.ServiceRegistry;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -16,6 +17,18 @@ public class HelloApplication extends Application {
         stage.setTitle("Library Management - Login");
         stage.setScene(scene);
         stage.show();
+
+        // Keep the shared caches in step with the other desks
+        ServiceRegistry.get().startChangeLogPolling();
+    }
+
+    @Override
+    public void stop() {
+        // Release the shared services and pooled database connections
+        String cacheReport = ServiceRegistry.shutdown();
+        if (cacheReport != null) {
+            System.err.println(cacheReport);
+        }
     }
 
     public static void main(String[] args) {
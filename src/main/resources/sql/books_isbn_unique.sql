@@ -0,0 +1,13 @@
+-- One book per ISBN (Service.BookService.findByIsbn and duplicate checks on import).
+-- New rows are stored as 13 canonical digits. Older rows may hold either form, with separators, so convert
+-- them first by running Service.BookService.canonicalizeIsbns() once against this database. It rewrites every
+-- ISBN that parses, ISBN-10 included, clears blank ones, and returns the rows still needing a person:
+--   unparseable - wrong length, stray characters or a bad check digit; correct or clear these by hand
+--   shared      - books that now have the same ISBN; merge or correct these before adding the index
+
+-- Both queries must come back empty before the index can be created:
+-- SELECT book_id, isbn FROM Books WHERE isbn IS NOT NULL AND isbn NOT REGEXP '^97[89][0-9]{10}$';
+-- SELECT isbn, COUNT(*) FROM Books WHERE isbn IS NOT NULL GROUP BY isbn HAVING COUNT(*) > 1;
+
+ALTER TABLE Books
+    ADD UNIQUE INDEX uq_books_isbn (isbn);
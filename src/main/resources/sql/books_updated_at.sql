@@ -0,0 +1,5 @@
+-- Change tracking for the in-memory book catalog (Service.BookCatalog).
+-- Every insert or update stamps the row, so the catalog can fetch only rows changed since its last refresh.
+ALTER TABLE Books
+    ADD COLUMN updated_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_books_updated_at (updated_at);
@@ -0,0 +1,49 @@
+-- Cross-client cache coherence (Service.ChangeLogPoller).
+-- Every committed write to a cached table leaves one row here, in the same transaction as the write;
+-- each desk client polls for rows past the last sequence it applied and drops the matching cache entries.
+CREATE TABLE ChangeLog (
+    sequence   BIGINT      NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    entity     VARCHAR(16) NOT NULL,
+    entity_id  INT         NOT NULL,
+    operation  VARCHAR(8)  NOT NULL,
+    changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    INDEX idx_change_log_changed_at (changed_at)
+);
+
+CREATE TRIGGER books_after_insert AFTER INSERT ON Books FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('BOOK', NEW.book_id, 'INSERT');
+CREATE TRIGGER books_after_update AFTER UPDATE ON Books FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('BOOK', NEW.book_id, 'UPDATE');
+CREATE TRIGGER books_after_delete AFTER DELETE ON Books FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('BOOK', OLD.book_id, 'DELETE');
+
+CREATE TRIGGER patrons_after_insert AFTER INSERT ON Patrons FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('PATRON', NEW.patron_id, 'INSERT');
+CREATE TRIGGER patrons_after_update AFTER UPDATE ON Patrons FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('PATRON', NEW.patron_id, 'UPDATE');
+CREATE TRIGGER patrons_after_delete AFTER DELETE ON Patrons FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('PATRON', OLD.patron_id, 'DELETE');
+
+CREATE TRIGGER transactions_after_insert AFTER INSERT ON Transactions FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('TRANSACTION', NEW.transaction_id, 'INSERT');
+CREATE TRIGGER transactions_after_update AFTER UPDATE ON Transactions FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('TRANSACTION', NEW.transaction_id, 'UPDATE');
+CREATE TRIGGER transactions_after_delete AFTER DELETE ON Transactions FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('TRANSACTION', OLD.transaction_id, 'DELETE');
+
+CREATE TRIGGER reservations_after_insert AFTER INSERT ON Reservations FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('RESERVATION', NEW.reservation_id, 'INSERT');
+CREATE TRIGGER reservations_after_update AFTER UPDATE ON Reservations FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('RESERVATION', NEW.reservation_id, 'UPDATE');
+CREATE TRIGGER reservations_after_delete AFTER DELETE ON Reservations FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('RESERVATION', OLD.reservation_id, 'DELETE');
+
+CREATE TRIGGER staff_after_insert AFTER INSERT ON Staff FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('STAFF', NEW.staff_id, 'INSERT');
+CREATE TRIGGER staff_after_update AFTER UPDATE ON Staff FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('STAFF', NEW.staff_id, 'UPDATE');
+CREATE TRIGGER staff_after_delete AFTER DELETE ON Staff FOR EACH ROW
+    INSERT INTO ChangeLog (entity, entity_id, operation) VALUES ('STAFF', OLD.staff_id, 'DELETE');
+
+-- Rows older than any client could still need; run periodically, e.g. from a MySQL event
+-- DELETE FROM ChangeLog WHERE changed_at < NOW(3) - INTERVAL 1 DAY;
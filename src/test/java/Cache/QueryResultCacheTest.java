@@ -0,0 +1,62 @@
+package Cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+
+    private record Row(int id, String text) {
+    }
+
+    private static QueryResultCache<Row> cache(long maximumWeight) {
+        return new QueryResultCache<>(maximumWeight, row -> 100, Row::id);
+    }
+
+    @Test
+    void testWriteDropsOnlyResultsContainingTheRow() {
+        QueryResultCache<Row> cache = cache(10_000);
+        cache.put("java", List.of(new Row(1, "Java"), new Row(2, "Java Basics")), cache.stamp());
+        cache.put("basics", List.of(new Row(2, "Java Basics")), cache.stamp());
+        cache.put("poetry", List.of(new Row(3, "Poetry")), cache.stamp());
+
+        cache.invalidateId(2);
+
+        assertNull(cache.get("java"));
+        assertNull(cache.get("basics"));
+        assertEquals(1, cache.get("poetry").size());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedResultsGoFirstWhenOverWeight() {
+        QueryResultCache<Row> cache = cache(700); // Each result below weighs a little over 200
+        cache.put("a", List.of(new Row(1, "a"), new Row(2, "a")), cache.stamp());
+        cache.put("b", List.of(new Row(3, "b"), new Row(4, "b")), cache.stamp());
+        cache.put("c", List.of(new Row(5, "c"), new Row(6, "c")), cache.stamp());
+        cache.get("a");
+
+        cache.put("d", List.of(new Row(7, "d"), new Row(8, "d")), cache.stamp());
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertTrue(cache.weight() <= 700);
+        assertEquals(1, cache.stats().getEvictionCount());
+        cache.invalidateId(3);
+        assertEquals(3, cache.size(), "An evicted result must not linger in the reverse index.");
+    }
+
+    @Test
+    void testResultLoadedAcrossAnInvalidationIsNotCached() {
+        QueryResultCache<Row> cache = cache(10_000);
+        long stamp = cache.stamp();
+        cache.invalidateIf(key -> key.startsWith("ja")); // A write lands while the query runs
+
+        cache.put("java", List.of(new Row(1, "Java")), stamp);
+
+        assertNull(cache.get("java"));
+        assertEquals(0.0, cache.stats().getHitRate());
+    }
+}
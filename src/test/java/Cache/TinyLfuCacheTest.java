@@ -0,0 +1,117 @@
+package Cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void testSizeIsBoundedAndEvictionsAreCounted() {
+        TinyLfuCache<Integer, String> cache = TinyLfuCache.<Integer, String>builder().maximumSize(100).build();
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, "book-" + i);
+        }
+
+        assertEquals(100, cache.estimatedSize());
+        assertEquals(900, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void testFrequentlyUsedEntriesSurviveAScan() {
+        TinyLfuCache<Integer, String> cache = TinyLfuCache.<Integer, String>builder().maximumSize(100).build();
+        for (int hot = 0; hot < 50; hot++) {
+            cache.put(hot, "hot-" + hot);
+            for (int read = 0; read < 5; read++) {
+                cache.getIfPresent(hot);
+            }
+        }
+
+        // One-off lookups, as when someone pages through the whole catalogue, while the desk keeps using the hot set
+        for (int cold = 1_000; cold < 11_000; cold++) {
+            cache.put(cold, "cold-" + cold);
+            if (cold % 3 == 0) {
+                cache.getIfPresent(cold / 3 % 50); // Each hot entry is read once per 150 inserts, too rarely for plain LRU
+            }
+        }
+
+        for (int hot = 0; hot < 50; hot++) {
+            assertNotNull(cache.getIfPresent(hot), "Hot entry " + hot + " was flushed by the scan.");
+        }
+    }
+
+    @Test
+    void testEntriesExpireAfterWrite() {
+        AtomicLong now = new AtomicLong();
+        TinyLfuCache<Integer, String> cache = TinyLfuCache.<Integer, String>builder()
+                .maximumSize(10)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .ticker(now::get)
+                .build();
+        cache.put(1, "Dune");
+
+        now.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertEquals("Dune", cache.getIfPresent(1));
+
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertNull(cache.getIfPresent(1));
+        assertEquals(0, cache.estimatedSize());
+        assertEquals(1, cache.stats().getHitCount());
+        assertEquals(1, cache.stats().getMissCount());
+    }
+
+    @Test
+    void testInvalidateRemovesEntry() {
+        TinyLfuCache<Integer, String> cache = TinyLfuCache.<Integer, String>builder().maximumSize(10).build();
+        cache.put(1, "Dune");
+        cache.put(2, "Emma");
+
+        cache.invalidate(1);
+
+        assertNull(cache.getIfPresent(1));
+        assertEquals("Emma", cache.getIfPresent(2));
+        assertEquals(0, cache.stats().getEvictionCount(), "Invalidation is not an eviction.");
+    }
+
+    @Test
+    void testConcurrentReadersAndWritersKeepTheBound() throws Exception {
+        TinyLfuCache<Integer, Integer> cache = TinyLfuCache.<Integer, Integer>builder().maximumSize(500).build();
+        ExecutorService workers = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int worker = 0; worker < 8; worker++) {
+            results.add(workers.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50_000; i++) {
+                    int key = random.nextInt(2_000);
+                    Integer value = cache.getIfPresent(key);
+                    if (value == null) {
+                        cache.put(key, key);
+                    } else {
+                        assertEquals(key, value.intValue());
+                    }
+                    if (i % 1_000 == 0) {
+                        cache.invalidate(key);
+                    }
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        workers.shutdown();
+
+        assertTrue(cache.estimatedSize() <= 500);
+        assertEquals(8 * 50_000, cache.stats().getRequestCount());
+    }
+}
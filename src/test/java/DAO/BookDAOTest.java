@@ -50,14 +50,15 @@ class BookDAOTest {
         String query = "SELECT * FROM Books WHERE book_id = ?";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true);
-        when(mockResultSet.getInt("book_id")).thenReturn(1);
-        when(mockResultSet.getString("title")).thenReturn("Java Programming");
-        when(mockResultSet.getString("author")).thenReturn("John Doe");
-        when(mockResultSet.getInt("publication_year")).thenReturn(2020);
-        when(mockResultSet.getString("genre")).thenReturn("Programming");
-        when(mockResultSet.getString("status")).thenReturn("available");
-        when(mockResultSet.getString("isbn")).thenReturn("1234567890");
+        when(mockResultSet.getInt(1)).thenReturn(1);
+        when(mockResultSet.getString(2)).thenReturn("Java Programming");
+        when(mockResultSet.getString(3)).thenReturn("John Doe");
+        when(mockResultSet.getInt(4)).thenReturn(2020);
+        when(mockResultSet.getString(5)).thenReturn("Programming");
+        when(mockResultSet.getString(6)).thenReturn("available");
+        when(mockResultSet.getString(7)).thenReturn("1234567890");
 
         Book result = bookDAO.getBookById(1);
 
@@ -84,17 +85,18 @@ class BookDAOTest {
         String query = "SELECT * FROM Books WHERE LOWER(title) LIKE ? OR LOWER(author) LIKE ?";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
 
         // Simulate that there is data in the ResultSet
         when(mockResultSet.next()).thenReturn(true).thenReturn(false); // One result, then end
 
-        when(mockResultSet.getInt("book_id")).thenReturn(testBook.getBookId());
-        when(mockResultSet.getString("title")).thenReturn("Java Programming");
-        when(mockResultSet.getString("author")).thenReturn(testBook.getAuthor());
-        when(mockResultSet.getInt("publication_year")).thenReturn(testBook.getPublicationYear());
-        when(mockResultSet.getString("genre")).thenReturn(testBook.getGenre());
-        when(mockResultSet.getString("status")).thenReturn(testBook.getStatus().toString().toLowerCase());
-        when(mockResultSet.getString("isbn")).thenReturn(testBook.getIsbn());
+        when(mockResultSet.getInt(1)).thenReturn(testBook.getBookId());
+        when(mockResultSet.getString(2)).thenReturn("Java Programming");
+        when(mockResultSet.getString(3)).thenReturn(testBook.getAuthor());
+        when(mockResultSet.getInt(4)).thenReturn(testBook.getPublicationYear());
+        when(mockResultSet.getString(5)).thenReturn(testBook.getGenre());
+        when(mockResultSet.getString(6)).thenReturn(testBook.getStatus().toString().toLowerCase());
+        when(mockResultSet.getString(7)).thenReturn(testBook.getIsbn());
 
         var books = bookDAO.searchBooks("Java");
 
@@ -129,9 +131,12 @@ class BookDAOTest {
     @Test
     void testAddBook_Success() throws SQLException {
         String query = "INSERT INTO Books (title, author, publication_year, genre, status, isbn) VALUES (?, ?, ?, ?, ?, ?)";
-        when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(42);
 
-        bookDAO.addBook(testBook);
+        Book saved = bookDAO.addBook(testBook);
 
         verify(mockPreparedStatement, times(1)).setString(1, testBook.getTitle());
         verify(mockPreparedStatement, times(1)).setString(2, testBook.getAuthor());
@@ -140,6 +145,8 @@ class BookDAOTest {
         verify(mockPreparedStatement, times(1)).setString(5, testBook.getStatus().toString().toLowerCase());
         verify(mockPreparedStatement, times(1)).setString(6, testBook.getIsbn());
         verify(mockPreparedStatement, times(1)).executeUpdate();
+        assertSame(testBook, saved);
+        assertEquals(42, saved.getBookId());
     }
 
     @Test
@@ -147,15 +154,16 @@ class BookDAOTest {
         String query = "SELECT * FROM Books";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true).thenReturn(false); // Simulate one result
 
-        when(mockResultSet.getInt("book_id")).thenReturn(testBook.getBookId());
-        when(mockResultSet.getString("title")).thenReturn(testBook.getTitle());
-        when(mockResultSet.getString("author")).thenReturn(testBook.getAuthor());
-        when(mockResultSet.getInt("publication_year")).thenReturn(testBook.getPublicationYear());
-        when(mockResultSet.getString("genre")).thenReturn(testBook.getGenre());
-        when(mockResultSet.getString("status")).thenReturn(testBook.getStatus().toString().toLowerCase());
-        when(mockResultSet.getString("isbn")).thenReturn(testBook.getIsbn());
+        when(mockResultSet.getInt(1)).thenReturn(testBook.getBookId());
+        when(mockResultSet.getString(2)).thenReturn(testBook.getTitle());
+        when(mockResultSet.getString(3)).thenReturn(testBook.getAuthor());
+        when(mockResultSet.getInt(4)).thenReturn(testBook.getPublicationYear());
+        when(mockResultSet.getString(5)).thenReturn(testBook.getGenre());
+        when(mockResultSet.getString(6)).thenReturn(testBook.getStatus().toString().toLowerCase());
+        when(mockResultSet.getString(7)).thenReturn(testBook.getIsbn());
 
         List<Book> books = bookDAO.getAllBooks();
 
@@ -164,6 +172,26 @@ class BookDAOTest {
         assertEquals(testBook.getTitle(), books.get(0).getTitle(), "The title of the book should match.");
     }
 
+    @Test
+    void testGetBookByIsbn_Success() throws SQLException {
+        String query = "SELECT * FROM Books WHERE isbn = ?";
+        when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(testBook.getBookId());
+        when(mockResultSet.getString(2)).thenReturn(testBook.getTitle());
+        when(mockResultSet.getString(6)).thenReturn("available");
+        when(mockResultSet.getString(7)).thenReturn("9780306406157");
+
+        Book result = bookDAO.getBookByIsbn("9780306406157");
+
+        verify(mockPreparedStatement, times(1)).setString(1, "9780306406157");
+        assertNotNull(result);
+        assertEquals(testBook.getBookId(), result.getBookId());
+        assertEquals("9780306406157", result.getIsbn());
+    }
+
     @Test
     void testUpdateBookStatus_Success() throws SQLException {
         String query = "UPDATE Books SET status = ? WHERE book_id = ?";
@@ -196,4 +224,80 @@ class BookDAOTest {
             bookDAO.getBookById(testBook.getBookId());
         });
     }
+
+    @Test
+    void testGetBooksPage_LastPage() throws SQLException {
+        String query = "SELECT * FROM Books WHERE status = ? AND book_id > ? ORDER BY book_id ASC LIMIT 11";
+        when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
+        when(mockResultSet.next()).thenReturn(true).thenReturn(false); // Fewer rows than the page size
+        when(mockResultSet.getInt(1)).thenReturn(testBook.getBookId());
+        when(mockResultSet.getString(2)).thenReturn(testBook.getTitle());
+        when(mockResultSet.getString(6)).thenReturn("available");
+
+        Page<Book> page = bookDAO.getBooksPage(PageRequest.firstPage(10).after(0), BookStatus.AVAILABLE, null);
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextPageRequest());
+        verify(mockPreparedStatement).setObject(1, "available");
+    }
+
+    @Test
+    void testAddBooks_SendsChunksInOneTransaction() throws SQLException {
+        String query = "INSERT INTO Books (title, author, publication_year, genre, status, isbn) VALUES (?, ?, ?, ?, ?, ?)";
+        when(mockConnection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeBatch()).thenReturn(new int[]{1, 1}, new int[]{1, 1}, new int[]{1});
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(101, 102, 103, 104, 105);
+        List<Book> books = new java.util.ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            books.add(new Book(0, "Title " + i, "John Doe", 2020, "Programming", BookStatus.AVAILABLE, null));
+        }
+
+        BatchResult<Book> result = bookDAO.addBooks(books, 2);
+
+        assertTrue(result.isCommitted());
+        assertEquals(101, books.get(0).getBookId());
+        assertEquals(105, books.get(4).getBookId());
+        assertEquals(5, result.getWrittenRows());
+        verify(mockPreparedStatement, times(5)).addBatch();
+        verify(mockPreparedStatement, times(3)).executeBatch();
+        InOrder inOrder = inOrder(mockConnection);
+        inOrder.verify(mockConnection).setAutoCommit(false);
+        inOrder.verify(mockConnection).commit();
+        inOrder.verify(mockConnection).setAutoCommit(true);
+    }
+
+    @Test
+    void testAddBooks_RollsBackAndReportsRejectedRows() throws SQLException {
+        String query = "INSERT INTO Books (title, author, publication_year, genre, status, isbn) VALUES (?, ?, ?, ?, ?, ?)";
+        Book duplicate = new Book(0, "Duplicate", "Jane Roe", 2019, "Programming", BookStatus.AVAILABLE, "1234567890");
+        when(mockConnection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeBatch())
+                .thenThrow(new BatchUpdateException("Duplicate entry", new int[]{1, Statement.EXECUTE_FAILED}))
+                .thenReturn(new int[]{1});
+
+        BatchResult<Book> result = bookDAO.addBooks(List.of(testBook, duplicate, testBook), 2);
+
+        assertFalse(result.isCommitted());
+        assertEquals(0, result.getWrittenRows());
+        assertEquals(1, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertSame(duplicate, result.getFailures().get(0).getItem());
+        verify(mockPreparedStatement, times(2)).executeBatch();
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+        assertEquals(0, duplicate.getBookId(), "Rolled back rows must not be given IDs.");
+    }
+
+    // Row mappers resolve column positions once per result set; stub them in table order
+    private void stubColumns() throws SQLException {
+        String[] columns = {"book_id", "title", "author", "publication_year", "genre", "status", "isbn"};
+        for (int i = 0; i < columns.length; i++) {
+            when(mockResultSet.findColumn(columns[i])).thenReturn(i + 1);
+        }
+    }
 }
@@ -0,0 +1,183 @@
+package DAO;
+
+import DatabaseConnection.DatabaseUtil;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLTransactionRollbackException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mockStatic;
+
+/**
+ * Several desks borrow from the same small set of books at once against an in-memory stand-in for
+ * the Books and Transactions tables, with deadlocks injected on some inserts.
+ */
+class BorrowContentionTest {
+
+    private static final int BOOKS = 200;
+    private static final int DESKS = 8;
+    private static final int ATTEMPTS_PER_DESK = 2 * BOOKS;
+
+    @Test
+    void testConcurrentBorrowsNeverLendACopyTwice() throws Exception {
+        InMemoryLibrary library = new InMemoryLibrary(BOOKS);
+        TransactionDAO transactionDAO = new TransactionDAO();
+        ExecutorService desks = Executors.newFixedThreadPool(DESKS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger borrowed = new AtomicInteger();
+
+        List<Future<?>> results = new ArrayList<>();
+        for (int desk = 0; desk < DESKS; desk++) {
+            int patronId = desk + 1;
+            results.add(desks.submit(() -> {
+                // Static mocks are per thread, so every desk installs its own
+                try (MockedStatic<DatabaseUtil> database = mockStatic(DatabaseUtil.class)) {
+                    database.when(DatabaseUtil::getConnection).thenAnswer(invocation -> library.connect());
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_DESK; i++) {
+                        int bookId = 1 + (i + patronId) % BOOKS; // Neighbouring desks chase the same books
+                        if (transactionDAO.borrowBook(patronId, bookId)) {
+                            borrowed.incrementAndGet();
+                        }
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        desks.shutdown();
+
+        Map<Integer, Long> loansPerBook = library.committedLoans.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        assertEquals(BOOKS, borrowed.get(), "Every book should be lent exactly once.");
+        assertEquals(BOOKS, loansPerBook.size());
+        assertTrue(loansPerBook.values().stream().allMatch(count -> count == 1), "A copy was lent twice: " + loansPerBook);
+        assertTrue(library.status.values().stream().allMatch("borrowed"::equals));
+        assertTrue(library.deadlocksInjected.get() > 0);
+    }
+
+    /**
+     * Just enough of MySQL for the borrow path: the conditional UPDATE is an atomic compare-and-set,
+     * INSERTs are buffered per connection until commit, and rollback undoes both.
+     */
+    private static final class InMemoryLibrary {
+        private final Map<Integer, String> status = new ConcurrentHashMap<>();
+        private final List<Integer> committedLoans = new CopyOnWriteArrayList<>();
+        private final Set<Integer> deadlockOnFirstInsert = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger deadlocksInjected = new AtomicInteger();
+        private final AtomicInteger nextTransactionId = new AtomicInteger();
+
+        InMemoryLibrary(int books) {
+            for (int bookId = 1; bookId <= books; bookId++) {
+                status.put(bookId, "available");
+                if (bookId % 10 == 0) {
+                    deadlockOnFirstInsert.add(bookId);
+                }
+            }
+        }
+
+        Connection connect() {
+            List<Integer> claimed = new ArrayList<>();
+            List<Integer> pendingLoans = new ArrayList<>();
+            boolean[] autoCommit = {true};
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "setAutoCommit" -> {
+                            autoCommit[0] = (boolean) args[0];
+                            yield null;
+                        }
+                        case "getAutoCommit" -> autoCommit[0];
+                        case "prepareStatement" -> statement((String) args[0], claimed, pendingLoans);
+                        case "commit" -> {
+                            committedLoans.addAll(pendingLoans);
+                            pendingLoans.clear();
+                            claimed.clear();
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            claimed.forEach(bookId -> status.put(bookId, "available"));
+                            claimed.clear();
+                            pendingLoans.clear();
+                            yield null;
+                        }
+                        case "isClosed" -> false;
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private PreparedStatement statement(String sql, List<Integer> claimed, List<Integer> pendingLoans) {
+            Map<Integer, Object> parameters = new HashMap<>();
+            int[] generatedKey = new int[1];
+
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "setInt", "setString", "setDate", "setBigDecimal" -> {
+                            parameters.put((Integer) args[0], args[1]);
+                            yield null;
+                        }
+                        case "executeUpdate" -> {
+                            if (sql.startsWith("UPDATE Books")) {
+                                int bookId = (Integer) parameters.get(1);
+                                if (!status.replace(bookId, "available", "borrowed")) {
+                                    yield 0;
+                                }
+                                claimed.add(bookId);
+                                yield 1;
+                            }
+                            int bookId = (Integer) parameters.get(2);
+                            if (deadlockOnFirstInsert.remove(bookId)) {
+                                deadlocksInjected.incrementAndGet();
+                                throw new SQLTransactionRollbackException("Deadlock found when trying to get lock", "40001", 1213);
+                            }
+                            generatedKey[0] = nextTransactionId.incrementAndGet();
+                            pendingLoans.add(bookId);
+                            yield 1;
+                        }
+                        case "getGeneratedKeys" -> generatedKeys(generatedKey[0]);
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        private ResultSet generatedKeys(int key) {
+            boolean[] consumed = {false};
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "next" -> {
+                            boolean hasRow = !consumed[0];
+                            consumed[0] = true;
+                            yield hasRow;
+                        }
+                        case "getInt" -> key;
+                        case "close" -> null;
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package DAO;
+
+import Entity.Enums.BookStatus;
+import Entity.Enums.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnumLookupTest {
+
+    private final EnumLookup<BookStatus> statuses = EnumLookup.of(BookStatus.class);
+
+    @Test
+    void testLookupIsCaseInsensitive() {
+        assertEquals(BookStatus.AVAILABLE, statuses.lookup("available"));
+        assertEquals(BookStatus.BORROWED, statuses.lookup("BORROWED"));
+        assertEquals(BookStatus.RESERVED, statuses.lookup("Reserved"));
+    }
+
+    @Test
+    void testUnknownOrNullValueReturnsNull() {
+        assertNull(statuses.lookup("lost"));
+        assertNull(statuses.lookup(null));
+    }
+
+    @Test
+    void testDefaultValueForUnknownValue() {
+        EnumLookup<TransactionType> types = EnumLookup.of(TransactionType.class);
+
+        assertEquals(TransactionType.BORROW, types.lookup("borrow", TransactionType.RETURN));
+        assertEquals(TransactionType.RETURN, types.lookup("renewal", TransactionType.RETURN));
+    }
+}
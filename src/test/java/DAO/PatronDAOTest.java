@@ -50,14 +50,15 @@ class PatronDAOTest {
         String query = "SELECT * FROM Patrons WHERE patron_id = ?";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true);
-        when(mockResultSet.getInt("patron_id")).thenReturn(1);
-        when(mockResultSet.getString("first_name")).thenReturn("Jane");
-        when(mockResultSet.getString("last_name")).thenReturn("Doe");
-        when(mockResultSet.getString("email")).thenReturn("jane.doe@example.com");
-        when(mockResultSet.getString("phone_number")).thenReturn("123-456-7890");
-        when(mockResultSet.getString("address")).thenReturn("123 Main St");
-        when(mockResultSet.getDate("membership_date")).thenReturn(Date.valueOf(LocalDate.of(2020, 1, 1)));
+        when(mockResultSet.getInt(1)).thenReturn(1);
+        when(mockResultSet.getString(2)).thenReturn("Jane");
+        when(mockResultSet.getString(3)).thenReturn("Doe");
+        when(mockResultSet.getString(4)).thenReturn("jane.doe@example.com");
+        when(mockResultSet.getString(5)).thenReturn("123-456-7890");
+        when(mockResultSet.getString(6)).thenReturn("123 Main St");
+        when(mockResultSet.getDate(7)).thenReturn(Date.valueOf(LocalDate.of(2020, 1, 1)));
 
         Patron result = patronDAO.getPatronById(1);
 
@@ -82,9 +83,12 @@ class PatronDAOTest {
     @Test
     void testAddPatron_Success() throws SQLException {
         String query = "INSERT INTO Patrons (first_name, last_name, email, phone_number, address, membership_date) VALUES (?, ?, ?, ?, ?, ?)";
-        when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(7);
 
-        patronDAO.addPatron(testPatron);
+        Patron saved = patronDAO.addPatron(testPatron);
 
         verify(mockPreparedStatement, times(1)).setString(1, testPatron.getFirstName());
         verify(mockPreparedStatement, times(1)).setString(2, testPatron.getLastName());
@@ -93,6 +97,8 @@ class PatronDAOTest {
         verify(mockPreparedStatement, times(1)).setString(5, testPatron.getAddress());
         verify(mockPreparedStatement, times(1)).setDate(6, Date.valueOf(testPatron.getMembershipDate()));
         verify(mockPreparedStatement, times(1)).executeUpdate();
+        assertSame(testPatron, saved);
+        assertEquals(7, saved.getPatronId());
     }
 
     @Test
@@ -100,15 +106,16 @@ class PatronDAOTest {
         String query = "SELECT * FROM Patrons";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true).thenReturn(false); // Simulate one result
 
-        when(mockResultSet.getInt("patron_id")).thenReturn(testPatron.getPatronId());
-        when(mockResultSet.getString("first_name")).thenReturn(testPatron.getFirstName());
-        when(mockResultSet.getString("last_name")).thenReturn(testPatron.getLastName());
-        when(mockResultSet.getString("email")).thenReturn(testPatron.getEmail());
-        when(mockResultSet.getString("phone_number")).thenReturn(testPatron.getPhoneNumber());
-        when(mockResultSet.getString("address")).thenReturn(testPatron.getAddress());
-        when(mockResultSet.getDate("membership_date")).thenReturn(Date.valueOf(testPatron.getMembershipDate()));
+        when(mockResultSet.getInt(1)).thenReturn(testPatron.getPatronId());
+        when(mockResultSet.getString(2)).thenReturn(testPatron.getFirstName());
+        when(mockResultSet.getString(3)).thenReturn(testPatron.getLastName());
+        when(mockResultSet.getString(4)).thenReturn(testPatron.getEmail());
+        when(mockResultSet.getString(5)).thenReturn(testPatron.getPhoneNumber());
+        when(mockResultSet.getString(6)).thenReturn(testPatron.getAddress());
+        when(mockResultSet.getDate(7)).thenReturn(Date.valueOf(testPatron.getMembershipDate()));
 
         List<Patron> patrons = patronDAO.getAllPatrons();
 
@@ -147,21 +154,30 @@ class PatronDAOTest {
         String query = "SELECT * FROM Patrons WHERE first_name LIKE ? OR last_name LIKE ?";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
 
         // Simulate that there is data in the ResultSet
         when(mockResultSet.next()).thenReturn(true).thenReturn(false); // One result, then end
 
-        when(mockResultSet.getInt("patron_id")).thenReturn(testPatron.getPatronId());
-        when(mockResultSet.getString("first_name")).thenReturn(testPatron.getFirstName());
-        when(mockResultSet.getString("last_name")).thenReturn(testPatron.getLastName());
-        when(mockResultSet.getString("email")).thenReturn(testPatron.getEmail());
-        when(mockResultSet.getString("phone_number")).thenReturn(testPatron.getPhoneNumber());
-        when(mockResultSet.getString("address")).thenReturn(testPatron.getAddress());
-        when(mockResultSet.getDate("membership_date")).thenReturn(Date.valueOf(testPatron.getMembershipDate()));
+        when(mockResultSet.getInt(1)).thenReturn(testPatron.getPatronId());
+        when(mockResultSet.getString(2)).thenReturn(testPatron.getFirstName());
+        when(mockResultSet.getString(3)).thenReturn(testPatron.getLastName());
+        when(mockResultSet.getString(4)).thenReturn(testPatron.getEmail());
+        when(mockResultSet.getString(5)).thenReturn(testPatron.getPhoneNumber());
+        when(mockResultSet.getString(6)).thenReturn(testPatron.getAddress());
+        when(mockResultSet.getDate(7)).thenReturn(Date.valueOf(testPatron.getMembershipDate()));
 
         var patrons = patronDAO.searchPatronsByName("Jane");
 
         assertFalse(patrons.isEmpty(), "Patrons should be found when searched with the keyword.");
         assertEquals("Jane", patrons.get(0).getFirstName(), "The patron's first name should match the search result.");
     }
+
+    // Row mappers resolve column positions once per result set; stub them in table order
+    private void stubColumns() throws SQLException {
+        String[] columns = {"patron_id", "first_name", "last_name", "email", "phone_number", "address", "membership_date"};
+        for (int i = 0; i < columns.length; i++) {
+            when(mockResultSet.findColumn(columns[i])).thenReturn(i + 1);
+        }
+    }
 }
@@ -3,6 +3,7 @@ package DAO;
 import DatabaseConnection.DatabaseUtil;
 import Entity.Enums.ReservationStatus;
 import Entity.Reservation;
+import Entity.ReservationDetails;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -56,9 +57,12 @@ class ReservationDAOTest {
     @Test
     void testAddReservation_Success() throws SQLException {
         String query = "INSERT INTO Reservations (patron_id, book_id, reservation_date, status, due_date) VALUES (?, ?, ?, ?, ?)";
-        when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(9);
 
-        reservationDAO.addReservation(testReservation);
+        Reservation saved = reservationDAO.addReservation(testReservation);
 
         verify(mockPreparedStatement, times(1)).setInt(1, testReservation.getPatronId());
         verify(mockPreparedStatement, times(1)).setInt(2, testReservation.getBookId());
@@ -66,6 +70,8 @@ class ReservationDAOTest {
         verify(mockPreparedStatement, times(1)).setString(4, testReservation.getStatus().name());
         verify(mockPreparedStatement, times(1)).setDate(5, Date.valueOf(testReservation.getDueDate()));
         verify(mockPreparedStatement, times(1)).executeUpdate();
+        assertSame(testReservation, saved);
+        assertEquals(9, saved.getReservationId());
     }
 
     @Test
@@ -73,13 +79,14 @@ class ReservationDAOTest {
         String query = "SELECT * FROM Reservations WHERE reservation_id = ?";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true);
-        when(mockResultSet.getInt("reservation_id")).thenReturn(1);
-        when(mockResultSet.getInt("patron_id")).thenReturn(101);
-        when(mockResultSet.getInt("book_id")).thenReturn(1001);
-        when(mockResultSet.getDate("reservation_date")).thenReturn(Date.valueOf("2024-12-16"));
-        when(mockResultSet.getString("status")).thenReturn(ReservationStatus.PENDING.name());
-        when(mockResultSet.getDate("due_date")).thenReturn(Date.valueOf("2025-12-16"));
+        when(mockResultSet.getInt(1)).thenReturn(1);
+        when(mockResultSet.getInt(2)).thenReturn(101);
+        when(mockResultSet.getInt(3)).thenReturn(1001);
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf("2024-12-16"));
+        when(mockResultSet.getString(5)).thenReturn(ReservationStatus.PENDING.name());
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf("2025-12-16"));
 
         Reservation result = reservationDAO.getReservationById(1);
 
@@ -107,14 +114,15 @@ class ReservationDAOTest {
         String query = "SELECT * FROM Reservations";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true).thenReturn(false);  // Simulate one result
 
-        when(mockResultSet.getInt("reservation_id")).thenReturn(testReservation.getReservationId());
-        when(mockResultSet.getInt("patron_id")).thenReturn(testReservation.getPatronId());
-        when(mockResultSet.getInt("book_id")).thenReturn(testReservation.getBookId());
-        when(mockResultSet.getDate("reservation_date")).thenReturn(Date.valueOf(testReservation.getReservationDate()));
-        when(mockResultSet.getString("status")).thenReturn(testReservation.getStatus().name());
-        when(mockResultSet.getDate("due_date")).thenReturn(Date.valueOf(testReservation.getDueDate()));
+        when(mockResultSet.getInt(1)).thenReturn(testReservation.getReservationId());
+        when(mockResultSet.getInt(2)).thenReturn(testReservation.getPatronId());
+        when(mockResultSet.getInt(3)).thenReturn(testReservation.getBookId());
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf(testReservation.getReservationDate()));
+        when(mockResultSet.getString(5)).thenReturn(testReservation.getStatus().name());
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf(testReservation.getDueDate()));
 
         List<Reservation> reservations = reservationDAO.getAllReservations();
 
@@ -123,6 +131,40 @@ class ReservationDAOTest {
         assertEquals(testReservation.getReservationId(), reservations.get(0).getReservationId(), "The reservation ID should match.");
     }
 
+    @Test
+    void testGetAllReservationDetails_JoinsNamesInOneQuery() throws SQLException {
+        String query = "SELECT r.*, CONCAT(p.first_name, ' ', p.last_name) AS patron_name, b.title AS book_title "
+                + "FROM Reservations r "
+                + "LEFT JOIN Patrons p ON p.patron_id = r.patron_id "
+                + "LEFT JOIN Books b ON b.book_id = r.book_id "
+                + "ORDER BY r.reservation_id";
+        when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
+        when(mockResultSet.findColumn("patron_name")).thenReturn(7);
+        when(mockResultSet.findColumn("book_title")).thenReturn(8);
+        when(mockResultSet.next()).thenReturn(true, true, false);
+
+        when(mockResultSet.getInt(1)).thenReturn(1, 2);
+        when(mockResultSet.getInt(2)).thenReturn(101, 102);
+        when(mockResultSet.getInt(3)).thenReturn(1001, 1002);
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf(testReservation.getReservationDate()));
+        when(mockResultSet.getString(5)).thenReturn(ReservationStatus.PENDING.name());
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf(testReservation.getDueDate()));
+        when(mockResultSet.getString(7)).thenReturn("Ama Mensah", (String) null);  // Second patron has been deleted
+        when(mockResultSet.getString(8)).thenReturn("Things Fall Apart", "Arrow of God");
+
+        List<ReservationDetails> reservations = reservationDAO.getAllReservationDetails();
+
+        assertEquals(2, reservations.size());
+        assertEquals(1, reservations.get(0).getReservationId());
+        assertEquals("Ama Mensah", reservations.get(0).getPatronName());
+        assertEquals("Things Fall Apart", reservations.get(0).getBookTitle());
+        assertEquals("Unknown Patron", reservations.get(1).getPatronName());
+        assertEquals(1002, reservations.get(1).getBookId());
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+    }
+
     @Test
     void testUpdateReservationStatus_Success() throws SQLException {
         String query = "UPDATE Reservations SET status = ? WHERE reservation_id = ?";
@@ -179,4 +221,12 @@ class ReservationDAOTest {
             reservationDAO.getReservationById(testReservation.getReservationId());
         });
     }
+
+    // Row mappers resolve column positions once per result set; stub them in table order
+    private void stubColumns() throws SQLException {
+        String[] columns = {"reservation_id", "patron_id", "book_id", "reservation_date", "status", "due_date"};
+        for (int i = 0; i < columns.length; i++) {
+            when(mockResultSet.findColumn(columns[i])).thenReturn(i + 1);
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package DAO;
+
+import DatabaseConnection.DatabaseUtil;
+import Entity.Enums.BookStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class StatisticsDAOTest {
+
+    @InjectMocks
+    private StatisticsDAO statisticsDAO;
+
+    @Mock
+    private Connection mockConnection;
+
+    @Mock
+    private PreparedStatement mockPreparedStatement;
+
+    @Mock
+    private ResultSet mockResultSet;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Mockito.clearAllCaches();
+        MockitoAnnotations.openMocks(this);
+
+        mockStatic(DatabaseUtil.class);
+        when(DatabaseUtil.getConnection()).thenReturn(mockConnection);
+        when(mockConnection.prepareStatement(StatisticsDAO.BASELINE_QUERY)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+    }
+
+    @Test
+    void testGetCirculationBaseline_ReadsEveryBreakdownFromOneQuery() throws SQLException {
+        when(mockResultSet.next()).thenReturn(true, true, true, true, true, true, true, true, false);
+        when(mockResultSet.getString(1)).thenReturn("status", "status", "genre", "genre", "patron", "due", "month", "pending_reservations");
+        when(mockResultSet.getString(2)).thenReturn("available", "borrowed", "Fiction", null, "7", "2025-01-15", "2025-01", null);
+        when(mockResultSet.getLong(3)).thenReturn(90L, 30L, 80L, 40L, 2L, 2L, 12L, 5L);
+
+        CirculationBaseline baseline = statisticsDAO.getCirculationBaseline();
+
+        assertEquals(Map.of(BookStatus.AVAILABLE, 90L, BookStatus.BORROWED, 30L), baseline.getBooksByStatus());
+        assertEquals(Map.of("Fiction", 80L, StatisticsDAO.UNSPECIFIED_GENRE, 40L), baseline.getBooksByGenre());
+        assertEquals(Map.of(7, 2L), baseline.getOpenLoansByPatron());
+        assertEquals(Map.of(LocalDate.of(2025, 1, 15), 2L), baseline.getOpenLoansByDueDate());
+        assertEquals(Map.of(YearMonth.of(2025, 1), 12L), baseline.getLoansPerMonth());
+        assertEquals(5, baseline.getPendingReservations());
+        verify(mockConnection, times(1)).prepareStatement(anyString());
+        verify(mockPreparedStatement, times(1)).executeQuery();
+    }
+
+    @Test
+    void testGetCirculationBaseline_EmptyLibrary() throws SQLException {
+        when(mockResultSet.next()).thenReturn(true, false);
+        when(mockResultSet.getString(1)).thenReturn("pending_reservations");
+        when(mockResultSet.getLong(3)).thenReturn(0L);
+
+        CirculationBaseline baseline = statisticsDAO.getCirculationBaseline();
+
+        assertTrue(baseline.getBooksByStatus().isEmpty());
+        assertTrue(baseline.getOpenLoansByPatron().isEmpty());
+        assertEquals(0, baseline.getPendingReservations());
+    }
+}
@@ -11,6 +11,7 @@ import org.mockito.InOrder;
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.Mockito.*;
@@ -51,9 +52,12 @@ class TransactionDAOTest {
     @Test
     void testAddTransaction_Success() throws SQLException {
         String query = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(11);
 
-        transactionDAO.addTransaction(testTransaction);
+        Transaction saved = transactionDAO.addTransaction(testTransaction);
 
         verify(mockPreparedStatement, times(1)).setInt(1, testTransaction.getPatronId());
         verify(mockPreparedStatement, times(1)).setInt(2, testTransaction.getBookId());
@@ -63,6 +67,8 @@ class TransactionDAOTest {
         verify(mockPreparedStatement, times(1)).setBigDecimal(6, testTransaction.getFine());
         verify(mockPreparedStatement, times(1)).setString(7, testTransaction.getTransactionType().name());
         verify(mockPreparedStatement, times(1)).executeUpdate();
+        assertSame(testTransaction, saved);
+        assertEquals(11, saved.getTransactionId());
     }
 
     @Test
@@ -70,14 +76,15 @@ class TransactionDAOTest {
         String query = "SELECT * FROM Transactions WHERE transaction_id = ?";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true);
-        when(mockResultSet.getInt("transaction_id")).thenReturn(1);
-        when(mockResultSet.getInt("patron_id")).thenReturn(1);
-        when(mockResultSet.getInt("book_id")).thenReturn(1);
-        when(mockResultSet.getDate("borrow_date")).thenReturn(Date.valueOf(testTransaction.getBorrowDate()));
-        when(mockResultSet.getDate("due_date")).thenReturn(Date.valueOf(testTransaction.getDueDate()));
-        when(mockResultSet.getBigDecimal("fine")).thenReturn(BigDecimal.ZERO);
-        when(mockResultSet.getString("transaction_type")).thenReturn("BORROW");
+        when(mockResultSet.getInt(1)).thenReturn(1);
+        when(mockResultSet.getInt(2)).thenReturn(1);
+        when(mockResultSet.getInt(3)).thenReturn(1);
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf(testTransaction.getBorrowDate()));
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf(testTransaction.getDueDate()));
+        when(mockResultSet.getBigDecimal(7)).thenReturn(BigDecimal.ZERO);
+        when(mockResultSet.getString(8)).thenReturn("BORROW");
 
         Transaction result = transactionDAO.getTransactionById(1);
 
@@ -98,20 +105,86 @@ class TransactionDAOTest {
         assertNull(result);
     }
 
+    @Test
+    void testAddTransactionsWithBookStatus_CommitsStatusesWithTheRows() throws SQLException {
+        String insertQuery = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        PreparedStatement statusStatement = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement("UPDATE Books SET status = ? WHERE book_id = ?")).thenReturn(statusStatement);
+        when(mockPreparedStatement.executeBatch()).thenReturn(new int[]{1, 1});
+        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(11, 12);
+        Transaction returned = new Transaction(0, 2, 7, LocalDate.now().minusDays(3), LocalDate.now(),
+                LocalDate.now().plusDays(11), BigDecimal.ZERO, TransactionType.RETURN);
+
+        BatchResult<Transaction> result = transactionDAO.addTransactionsWithBookStatus(List.of(testTransaction, returned), 10);
+
+        assertTrue(result.isCommitted());
+        assertEquals(12, returned.getTransactionId());
+        InOrder inOrder = inOrder(statusStatement, mockConnection);
+        inOrder.verify(mockConnection).setAutoCommit(false);
+        inOrder.verify(statusStatement).setString(1, "borrowed");
+        inOrder.verify(statusStatement).setInt(2, testTransaction.getBookId());
+        inOrder.verify(statusStatement).setString(1, "available");
+        inOrder.verify(statusStatement).setInt(2, 7);
+        inOrder.verify(statusStatement).executeBatch();
+        inOrder.verify(mockConnection).commit();
+    }
+
+    @Test
+    void testAddTransactionsWithBookStatus_RejectedRowLeavesStatusesAlone() throws SQLException {
+        String insertQuery = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        when(mockConnection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeBatch()).thenThrow(new BatchUpdateException("Unknown patron", new int[]{Statement.EXECUTE_FAILED}));
+
+        BatchResult<Transaction> result = transactionDAO.addTransactionsWithBookStatus(List.of(testTransaction), 10);
+
+        assertFalse(result.isCommitted());
+        verify(mockConnection, never()).prepareStatement("UPDATE Books SET status = ? WHERE book_id = ?");
+        verify(mockConnection).rollback();
+        verify(mockConnection, never()).commit();
+    }
+
+    @Test
+    void testGetTransactionsByIds_ReadsTheIdsInChunks() throws SQLException {
+        when(mockConnection.prepareStatement(anyString())).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(false);
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= TransactionDAO.ID_LIST_SIZE + 1; id++) {
+            ids.add(id);
+        }
+
+        assertTrue(transactionDAO.getTransactionsByIds(ids).isEmpty());
+
+        ArgumentCaptor<String> queries = ArgumentCaptor.forClass(String.class);
+        verify(mockConnection, times(2)).prepareStatement(queries.capture());
+        assertTrue(queries.getAllValues().get(0).endsWith("IN (" + "?, ".repeat(TransactionDAO.ID_LIST_SIZE - 1) + "?)"));
+        assertEquals("SELECT * FROM Transactions WHERE transaction_id IN (?)", queries.getAllValues().get(1));
+        verify(mockPreparedStatement).setInt(TransactionDAO.ID_LIST_SIZE, TransactionDAO.ID_LIST_SIZE);
+        verify(mockPreparedStatement).setInt(1, 1);
+        verify(mockPreparedStatement).setInt(1, TransactionDAO.ID_LIST_SIZE + 1);
+        verify(mockConnection, times(1)).close();
+    }
+
     @Test
     void testGetAllTransactions_Success() throws SQLException {
         String query = "SELECT * FROM Transactions";
         when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true).thenReturn(false); // One result, then end
 
-        when(mockResultSet.getInt("transaction_id")).thenReturn(testTransaction.getTransactionId());
-        when(mockResultSet.getInt("patron_id")).thenReturn(testTransaction.getPatronId());
-        when(mockResultSet.getInt("book_id")).thenReturn(testTransaction.getBookId());
-        when(mockResultSet.getDate("borrow_date")).thenReturn(Date.valueOf(testTransaction.getBorrowDate()));
-        when(mockResultSet.getDate("due_date")).thenReturn(Date.valueOf(testTransaction.getDueDate()));
-        when(mockResultSet.getBigDecimal("fine")).thenReturn(BigDecimal.ZERO);
-        when(mockResultSet.getString("transaction_type")).thenReturn(testTransaction.getTransactionType().name());
+        when(mockResultSet.getInt(1)).thenReturn(testTransaction.getTransactionId());
+        when(mockResultSet.getInt(2)).thenReturn(testTransaction.getPatronId());
+        when(mockResultSet.getInt(3)).thenReturn(testTransaction.getBookId());
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf(testTransaction.getBorrowDate()));
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf(testTransaction.getDueDate()));
+        when(mockResultSet.getBigDecimal(7)).thenReturn(BigDecimal.ZERO);
+        when(mockResultSet.getString(8)).thenReturn(testTransaction.getTransactionType().name());
 
         List<Transaction> transactions = transactionDAO.getAllTransactions();
 
@@ -146,57 +219,262 @@ class TransactionDAOTest {
 
     @Test
     void testBorrowBook_Success() throws SQLException {
-        // Mock the behavior for checking book availability
-        String checkAvailabilityQuery = "SELECT status FROM Books WHERE book_id = ?";
-        when(mockConnection.prepareStatement(checkAvailabilityQuery)).thenReturn(mockPreparedStatement);
-        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        String claimQuery = "UPDATE Books SET status = 'borrowed' WHERE book_id = ? AND status = 'available'";
+        String insertQuery = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        PreparedStatement mockInsert = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(claimQuery)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(1); // The book was available and is now claimed
+        when(mockConnection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockInsert);
+        when(mockInsert.executeUpdate()).thenReturn(1);
+        when(mockInsert.getGeneratedKeys()).thenReturn(mockResultSet);
         when(mockResultSet.next()).thenReturn(true);
-        when(mockResultSet.getString("status")).thenReturn("available");
-
-        // Mock the behavior for the insert transaction query
-        String insertTransactionQuery = "INSERT INTO Transactions (patron_id, book_id, borrow_date, due_date, transaction_type) VALUES (?, ?, ?, ?, ?)";
-        when(mockConnection.prepareStatement(insertTransactionQuery, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockPreparedStatement);
-        when(mockPreparedStatement.executeUpdate()).thenReturn(1); // Simulate successful insert
-
-        // Mock the generated keys ResultSet to return the transaction ID
-        ResultSet mockGeneratedKeys = mock(ResultSet.class);
-        when(mockPreparedStatement.getGeneratedKeys()).thenReturn(mockGeneratedKeys);
-        when(mockGeneratedKeys.next()).thenReturn(true); // Simulate that we have a generated key
-        when(mockGeneratedKeys.getInt(1)).thenReturn(123); // Simulate that the generated key is 123
-
-        // Mock the behavior for the update query (pstmtUpdate)
-        String updateQuery = "UPDATE Books SET status = ? WHERE book_id = ?";
-        when(mockConnection.prepareStatement(updateQuery)).thenReturn(mockPreparedStatement); // Mock the update PreparedStatement
-        doNothing().when(mockPreparedStatement).setString(anyInt(), anyString()); // Mock the setString call (doNothing() since we're not concerned with actual values here)
-        when(mockPreparedStatement.executeUpdate()).thenReturn(1); // Simulate successful update
+        when(mockResultSet.getInt(1)).thenReturn(123);
 
-        // Call the method
         boolean result = transactionDAO.borrowBook(testTransaction.getPatronId(), testTransaction.getBookId());
 
-        // Verify the result
         assertTrue(result);
+        // Claim, insert and commit all happen on the same connection, inside one transaction
+        InOrder inOrder = inOrder(mockConnection, mockPreparedStatement, mockInsert);
+        inOrder.verify(mockConnection).setAutoCommit(false);
+        inOrder.verify(mockPreparedStatement).executeUpdate();
+        inOrder.verify(mockInsert).executeUpdate();
+        inOrder.verify(mockConnection).commit();
+        verify(mockConnection, never()).prepareStatement("SELECT status FROM Books WHERE book_id = ?");
+    }
 
-        // Verify that executeUpdate() was called once for the insert and once for the update
-        InOrder inOrder = inOrder(mockPreparedStatement);
 
-        // First call: Insert
-        inOrder.verify(mockPreparedStatement, times(1)).executeUpdate();
+    @Test
+    void testBorrowBook_BookNotAvailable() throws SQLException {
+        String claimQuery = "UPDATE Books SET status = 'borrowed' WHERE book_id = ? AND status = 'available'";
+        when(mockConnection.prepareStatement(claimQuery)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeUpdate()).thenReturn(0); // Book not available
 
-        // Second call: Update
-        inOrder.verify(mockPreparedStatement, times(1)).executeUpdate();
+        boolean result = transactionDAO.borrowBook(testTransaction.getPatronId(), testTransaction.getBookId());
+
+        assertFalse(result); // Should not be able to borrow the book
+        verify(mockConnection, never()).prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS));
     }
 
+    @Test
+    void testBorrowBook_RetriesAfterDeadlock() throws SQLException {
+        String claimQuery = "UPDATE Books SET status = 'borrowed' WHERE book_id = ? AND status = 'available'";
+        String insertQuery = "INSERT INTO Transactions (patron_id, book_id, borrow_date, return_date, due_date, fine, transaction_type) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        PreparedStatement mockInsert = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(claimQuery)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeUpdate())
+                .thenThrow(new SQLTransactionRollbackException("Deadlock found when trying to get lock", "40001", 1213))
+                .thenReturn(1);
+        when(mockConnection.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)).thenReturn(mockInsert);
+        when(mockInsert.getGeneratedKeys()).thenReturn(mockResultSet);
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getInt(1)).thenReturn(124);
+
+        boolean result = transactionDAO.borrowBook(testTransaction.getPatronId(), testTransaction.getBookId());
+
+        assertTrue(result);
+        verify(mockConnection).rollback();
+        verify(mockConnection).commit();
+        verify(mockPreparedStatement, times(2)).executeUpdate();
+    }
 
     @Test
-    void testBorrowBook_BookNotAvailable() throws SQLException {
-        String checkAvailabilityQuery = "SELECT status FROM Books WHERE book_id = ?";
-        when(mockConnection.prepareStatement(checkAvailabilityQuery)).thenReturn(mockPreparedStatement);
+    void testReturnBook_UpdatesLoanInPlaceWithFine() throws SQLException {
+        String lockQuery = "SELECT * FROM Transactions WHERE transaction_id = ? FOR UPDATE";
+        String closeQuery = "UPDATE Transactions SET return_date = ?, fine = ?, transaction_type = ? WHERE transaction_id = ?";
+        String releaseQuery = "UPDATE Books SET status = 'available' WHERE book_id = ?";
+        PreparedStatement mockClose = mock(PreparedStatement.class);
+        PreparedStatement mockRelease = mock(PreparedStatement.class);
+        LocalDate today = LocalDate.of(2024, 3, 20);
+        when(mockConnection.prepareStatement(lockQuery)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(closeQuery)).thenReturn(mockClose);
+        when(mockConnection.prepareStatement(releaseQuery)).thenReturn(mockRelease);
         when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
         when(mockResultSet.next()).thenReturn(true);
-        when(mockResultSet.getString("status")).thenReturn("borrowed"); // Book not available
+        when(mockResultSet.getInt(1)).thenReturn(5);
+        when(mockResultSet.getInt(3)).thenReturn(9);
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf("2024-01-01"));
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf("2024-01-15")); // 65 days before today
+        when(mockResultSet.getBigDecimal(7)).thenReturn(BigDecimal.ZERO);
+        when(mockResultSet.getString(8)).thenReturn("BORROW");
+
+        Transaction returned = transactionDAO.returnBook(5, today, BigDecimal.ONE);
+
+        assertEquals(TransactionType.RETURN, returned.getTransactionType());
+        assertEquals(0, new BigDecimal("65").compareTo(returned.getFine()), "Fines count every day late, not just the day-of-month part.");
+        verify(mockClose).setInt(4, 5);
+        verify(mockClose).executeUpdate();
+        verify(mockRelease).setInt(1, 9);
+        verify(mockConnection, never()).prepareStatement(startsWith("INSERT"));
+        verify(mockConnection).commit();
+    }
 
-        boolean result = transactionDAO.borrowBook(testTransaction.getPatronId(), testTransaction.getBookId());
+    @Test
+    void testReturnBook_AlreadyReturned() throws SQLException {
+        String lockQuery = "SELECT * FROM Transactions WHERE transaction_id = ? FOR UPDATE";
+        when(mockConnection.prepareStatement(lockQuery)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
+        when(mockResultSet.next()).thenReturn(true);
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf("2024-01-01"));
+        when(mockResultSet.getDate(5)).thenReturn(Date.valueOf("2024-01-10"));
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf("2024-01-15"));
+        when(mockResultSet.getString(8)).thenReturn("RETURN");
 
-        assertFalse(result); // Should not be able to borrow the book
+        assertNull(transactionDAO.returnBook(5, LocalDate.of(2024, 3, 20), BigDecimal.ONE));
+        verify(mockConnection, never()).prepareStatement(startsWith("UPDATE"));
+    }
+
+    @Test
+    void testCompactReturnDuplicates_MergesReturnRowIntoLoan() throws SQLException {
+        String scanQuery = "SELECT * FROM Transactions ORDER BY transaction_id";
+        String mergeQuery = "UPDATE Transactions SET return_date = ?, fine = ?, transaction_type = ? WHERE transaction_id = ? AND return_date IS NULL";
+        String deleteQuery = "DELETE FROM Transactions WHERE transaction_id = ?";
+        PreparedStatement mockMerge = mock(PreparedStatement.class);
+        PreparedStatement mockDelete = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(scanQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(mergeQuery)).thenReturn(mockMerge);
+        when(mockConnection.prepareStatement(deleteQuery)).thenReturn(mockDelete);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
+        // Loan 1 and the RETURN row 2 that the old return path inserted for it
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getInt(1)).thenReturn(1, 2);
+        when(mockResultSet.getInt(2)).thenReturn(4);
+        when(mockResultSet.getInt(3)).thenReturn(8);
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf("2024-01-01"));
+        when(mockResultSet.getDate(5)).thenReturn(null, Date.valueOf("2024-01-18"));
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf("2024-01-15"));
+        when(mockResultSet.getBigDecimal(7)).thenReturn(BigDecimal.ZERO, new BigDecimal("3"));
+        when(mockResultSet.getString(8)).thenReturn("BORROW", "RETURN");
+        when(mockMerge.executeUpdate()).thenReturn(1);
+
+        int merged = transactionDAO.compactReturnDuplicates();
+
+        assertEquals(1, merged);
+        verify(mockMerge).setDate(1, Date.valueOf("2024-01-18"));
+        verify(mockMerge).setBigDecimal(2, new BigDecimal("3"));
+        verify(mockMerge).setInt(4, 1);
+        verify(mockDelete).setInt(1, 2);
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void testCompactReturnDuplicates_KeepsReturnRowWhenLoanWasClosedSinceTheScan() throws SQLException {
+        String scanQuery = "SELECT * FROM Transactions ORDER BY transaction_id";
+        String mergeQuery = "UPDATE Transactions SET return_date = ?, fine = ?, transaction_type = ? WHERE transaction_id = ? AND return_date IS NULL";
+        String deleteQuery = "DELETE FROM Transactions WHERE transaction_id = ?";
+        PreparedStatement mockMerge = mock(PreparedStatement.class);
+        PreparedStatement mockDelete = mock(PreparedStatement.class);
+        when(mockConnection.prepareStatement(scanQuery, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)).thenReturn(mockPreparedStatement);
+        when(mockConnection.prepareStatement(mergeQuery)).thenReturn(mockMerge);
+        when(mockConnection.prepareStatement(deleteQuery)).thenReturn(mockDelete);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
+        when(mockResultSet.next()).thenReturn(true, true, false);
+        when(mockResultSet.getInt(1)).thenReturn(1, 2);
+        when(mockResultSet.getInt(2)).thenReturn(4);
+        when(mockResultSet.getInt(3)).thenReturn(8);
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf("2024-01-01"));
+        when(mockResultSet.getDate(5)).thenReturn(null, Date.valueOf("2024-01-18"));
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf("2024-01-15"));
+        when(mockResultSet.getBigDecimal(7)).thenReturn(BigDecimal.ZERO, new BigDecimal("3"));
+        when(mockResultSet.getString(8)).thenReturn("BORROW", "RETURN");
+        when(mockMerge.executeUpdate()).thenReturn(0); // Loan 1 was returned in place after the scan
+
+        int merged = transactionDAO.compactReturnDuplicates();
+
+        assertEquals(0, merged);
+        verify(mockDelete, never()).setInt(anyInt(), anyInt());
+        verify(mockConnection).commit();
+    }
+
+    @Test
+    void testGetTransactionsPage_SeeksPastDueDateCursor() throws SQLException {
+        String query = "SELECT * FROM Transactions WHERE transaction_type = ? AND (due_date > ? OR (due_date = ? AND transaction_id > ?)) " +
+                "ORDER BY due_date ASC, transaction_id ASC LIMIT 2";
+        when(mockConnection.prepareStatement(query)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(mockResultSet);
+        stubColumns();
+        when(mockResultSet.next()).thenReturn(true, true, false); // Page size + 1 rows
+        when(mockResultSet.getInt(1)).thenReturn(7, 8);
+        when(mockResultSet.getDate(4)).thenReturn(Date.valueOf(testTransaction.getBorrowDate()));
+        when(mockResultSet.getDate(6)).thenReturn(Date.valueOf(testTransaction.getDueDate()));
+        when(mockResultSet.getString(8)).thenReturn("BORROW");
+
+        PageRequest request = PageRequest.firstPage(1).after(testTransaction.getDueDate(), 6);
+        Page<Transaction> page = transactionDAO.getTransactionsPage(request, TransactionType.BORROW, null, true);
+
+        assertEquals(1, page.getItems().size(), "The extra row only signals that another page exists.");
+        assertTrue(page.hasNext());
+        assertEquals(7, page.getNextPageRequest().getAfterId());
+        assertEquals(testTransaction.getDueDate(), page.getNextPageRequest().getAfterDate());
+        verify(mockPreparedStatement).setObject(1, "BORROW");
+        verify(mockPreparedStatement).setDate(2, Date.valueOf(testTransaction.getDueDate()));
+        verify(mockPreparedStatement).setObject(4, 6);
+    }
+
+    @Test
+    void testForEachTransaction_VisitsEachRowBeforeReadingTheNext() throws SQLException {
+        int rowCount = 10_000;
+        String query = "SELECT * FROM Transactions ORDER BY transaction_id";
+        int[] cursor = {0};
+        when(mockConnection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(syntheticTransactions(rowCount, cursor));
+
+        long[] visits = new long[1];
+        long visited = transactionDAO.forEachTransaction(transaction -> {
+            visits[0]++;
+            // Nothing is read ahead or collected: the cursor is still on the row being visited
+            assertEquals(visits[0], cursor[0]);
+            assertEquals(cursor[0], transaction.getTransactionId());
+        });
+
+        assertEquals(rowCount, visited);
+        assertEquals(rowCount, visits[0]);
+        verify(mockPreparedStatement).setFetchSize(StreamingQuery.FETCH_SIZE);
+        verify(mockConnection).close();
+    }
+
+    @Test
+    void testStreamAllTransactions_ClosingStreamReleasesConnection() throws SQLException {
+        String query = "SELECT * FROM Transactions ORDER BY transaction_id";
+        when(mockConnection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)).thenReturn(mockPreparedStatement);
+        when(mockPreparedStatement.executeQuery()).thenReturn(syntheticTransactions(10, new int[1]));
+
+        try (java.util.stream.Stream<Transaction> transactions = transactionDAO.streamAllTransactions()) {
+            assertEquals(3, transactions.limit(3).count());
+            verify(mockConnection, never()).close();
+        }
+
+        verify(mockPreparedStatement).close();
+        verify(mockConnection).close();
+    }
+
+    // A forward-only result set that generates rows on demand, standing in for a large table
+    // A result set that makes up its rows as the cursor moves; row[0] is the row it is on
+    private static ResultSet syntheticTransactions(int rowCount, int[] row) {
+        List<String> columns = List.of("transaction_id", "patron_id", "book_id", "borrow_date", "return_date", "due_date", "fine", "transaction_type");
+        Date borrowDate = Date.valueOf("2024-01-01");
+        Date dueDate = Date.valueOf("2024-01-15");
+        return (ResultSet) java.lang.reflect.Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "next" -> ++row[0] <= rowCount;
+                    case "findColumn" -> columns.indexOf((String) args[0]) + 1;
+                    case "getInt" -> (int) args[0] == 1 ? row[0] : row[0] % 1000 + 1;
+                    case "getDate" -> (int) args[0] == 4 ? borrowDate : (int) args[0] == 6 ? dueDate : null;
+                    case "getBigDecimal" -> BigDecimal.ONE;
+                    case "getString" -> "RETURN";
+                    case "wasNull", "isClosed" -> false;
+                    default -> null;
+                });
+    }
+
+    // Row mappers resolve column positions once per result set; stub them in table order
+    private void stubColumns() throws SQLException {
+        String[] columns = {"transaction_id", "patron_id", "book_id", "borrow_date", "return_date", "due_date", "fine", "transaction_type"};
+        for (int i = 0; i < columns.length; i++) {
+            when(mockResultSet.findColumn(columns[i])).thenReturn(i + 1);
+        }
     }
 }
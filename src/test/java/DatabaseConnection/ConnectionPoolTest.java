@@ -0,0 +1,240 @@
+package DatabaseConnection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionPoolTest {
+
+    private final List<Connection> physicalConnections = new ArrayList<>();
+    private final List<PreparedStatement> physicalStatements = new ArrayList<>();
+    private PoolConfig config;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        config = new PoolConfig();
+        config.setMaxPoolSize(2);
+        config.setConnectionTimeoutMillis(100);
+        config.setHousekeepingPeriodMillis(0); // Housekeeping is driven manually in these tests
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private ConnectionPool newPool() {
+        pool = ConnectionPool.create(() -> {
+            Connection connection = mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+                PreparedStatement statement = mock(PreparedStatement.class);
+                physicalStatements.add(statement);
+                return statement;
+            });
+            physicalConnections.add(connection);
+            return connection;
+        }, config);
+        return pool;
+    }
+
+    @Test
+    void testClosedConnectionIsReused() throws SQLException {
+        ConnectionPool pool = newPool();
+
+        try (Connection first = pool.getConnection()) {
+            assertFalse(first.isClosed());
+        }
+        try (Connection second = pool.getConnection()) {
+            assertFalse(second.isClosed());
+        }
+
+        assertEquals(1, physicalConnections.size(), "The second borrow should reuse the first physical connection.");
+        verify(physicalConnections.get(0), never()).close();
+        assertEquals(2, pool.stats().getBorrowCount());
+        assertEquals(1, pool.stats().getIdleConnections());
+    }
+
+    @Test
+    void testBorrowTimesOutWhenPoolIsExhausted() throws SQLException {
+        ConnectionPool pool = newPool();
+        Connection first = pool.getConnection();
+        Connection second = pool.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+
+        PoolStats stats = pool.stats();
+        assertEquals(2, stats.getActiveConnections());
+        assertEquals(1, stats.getTimeoutCount());
+
+        first.close();
+        second.close();
+        assertEquals(0, pool.stats().getActiveConnections());
+    }
+
+    @Test
+    void testInvalidConnectionIsReplacedOnBorrow() throws SQLException {
+        ConnectionPool pool = newPool();
+        pool.getConnection().close();
+        when(physicalConnections.get(0).isValid(anyInt())).thenReturn(false);
+
+        pool.getConnection().close();
+
+        assertEquals(2, physicalConnections.size());
+        verify(physicalConnections.get(0)).close();
+        assertEquals(1, pool.stats().getDestroyedCount());
+    }
+
+    @Test
+    void testExpiredConnectionIsRetired() throws Exception {
+        config.setMaxLifetimeMillis(20);
+        ConnectionPool pool = newPool();
+        pool.getConnection().close();
+
+        Thread.sleep(40);
+        pool.getConnection().close();
+
+        assertEquals(2, physicalConnections.size(), "A connection past its max lifetime must not be reused.");
+        verify(physicalConnections.get(0)).close();
+    }
+
+    @Test
+    void testIdleConnectionIsEvictedByHousekeeping() throws Exception {
+        config.setIdleTimeoutMillis(20);
+        ConnectionPool pool = newPool();
+        pool.getConnection().close();
+
+        Thread.sleep(40);
+        pool.runHousekeeping();
+
+        assertEquals(0, pool.stats().getIdleConnections());
+        verify(physicalConnections.get(0)).close();
+    }
+
+    @Test
+    void testLeakIsReportedOnce() throws Exception {
+        config.setLeakDetectionThresholdMillis(10);
+        ConnectionPool pool = newPool();
+        Connection leaked = pool.getConnection();
+
+        Thread.sleep(30);
+        pool.runHousekeeping();
+        pool.runHousekeeping();
+
+        assertEquals(1, pool.stats().getLeakCount());
+        leaked.close();
+    }
+
+    @Test
+    void testUncommittedWorkIsRolledBackOnReturn() throws SQLException {
+        ConnectionPool pool = newPool();
+        Connection connection = pool.getConnection();
+        Connection physical = physicalConnections.get(0);
+        when(physical.getAutoCommit()).thenReturn(false);
+
+        connection.close();
+
+        verify(physical).rollback();
+        verify(physical).setAutoCommit(true);
+    }
+
+    @Test
+    void testReturnedProxyCannotBeUsed() throws SQLException {
+        ConnectionPool pool = newPool();
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close(); // Closing twice must not release the permit twice
+
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 1"));
+        assertEquals(0, pool.stats().getActiveConnections());
+        assertEquals(1, pool.stats().getIdleConnections());
+    }
+
+    @Test
+    void testPreparedStatementIsReusedAcrossBorrows() throws SQLException {
+        ConnectionPool pool = newPool();
+        PreparedStatement first;
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM Books WHERE book_id = ?")) {
+            statement.setInt(1, 1);
+            first = statement;
+        }
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT * FROM Books WHERE book_id = ?")) {
+            statement.setInt(1, 2);
+        }
+
+        Connection physical = physicalConnections.get(0);
+        verify(physical, times(1)).prepareStatement("SELECT * FROM Books WHERE book_id = ?");
+        assertTrue(first.isClosed());
+        PoolStats stats = pool.stats();
+        assertEquals(1, stats.getStatementCacheHits());
+        assertEquals(1, stats.getStatementCacheMisses());
+        assertEquals(0.5, stats.getStatementCacheHitRatio());
+    }
+
+    @Test
+    void testStatementCacheEvictsLeastRecentlyUsed() throws SQLException {
+        config.setStatementCacheSize(2);
+        ConnectionPool pool = newPool();
+        try (Connection connection = pool.getConnection()) {
+            PreparedStatement outer = connection.prepareStatement("SELECT 1");
+            // Still open above us, so a nested prepare of the same SQL gets its own statement
+            PreparedStatement nested = connection.prepareStatement("SELECT 1");
+            assertNotSame(outer, nested);
+            nested.close();
+            outer.close();
+
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 3").close(); // Pushes "SELECT 1" out
+            connection.prepareStatement("SELECT 1").close();
+        }
+
+        verify(physicalConnections.get(0), times(3)).prepareStatement("SELECT 1");
+        assertEquals(0, pool.stats().getStatementCacheHits());
+    }
+
+    @Test
+    void testReusedStatementComesBackWithDefaultSettings() throws SQLException {
+        ConnectionPool pool = newPool();
+        try (Connection connection = pool.getConnection()) {
+            try (PreparedStatement streaming = connection.prepareStatement("SELECT * FROM Books")) {
+                streaming.setFetchSize(Integer.MIN_VALUE);
+                streaming.setQueryTimeout(30);
+            }
+            PreparedStatement physical = physicalStatements.get(0);
+            verify(physical).setFetchSize(0);
+            verify(physical).setQueryTimeout(0);
+            verify(physical).setMaxRows(0);
+
+            try (PreparedStatement plain = connection.prepareStatement("SELECT * FROM Books")) {
+                plain.executeQuery();
+            }
+            verify(physical).executeQuery();
+            verify(physical, times(2)).setFetchSize(anyInt()); // Streaming, then the restore; the plain read changed nothing
+
+            // A setting that is not put back makes the statement unsafe to share
+            try (PreparedStatement named = connection.prepareStatement("SELECT * FROM Books")) {
+                named.setCursorName("books");
+            }
+        }
+        verify(physicalStatements.get(0)).close();
+        assertEquals(1, physicalStatements.size());
+        assertEquals(2, pool.stats().getStatementCacheHits());
+    }
+}
@@ -0,0 +1,162 @@
+package Service;
+
+import DAO.BookDAO;
+import Entity.Book;
+import Entity.Enums.BookStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BookCatalogTest {
+
+    private BookDAO bookDAO;
+    private BookCatalog catalog;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        bookDAO = mock(BookDAO.class);
+        when(bookDAO.getDatabaseTime()).thenReturn(new Timestamp(1_000_000));
+        when(bookDAO.getAllBooks()).thenReturn(List.of(book(1, BookStatus.AVAILABLE), book(2, BookStatus.AVAILABLE), book(5000, BookStatus.AVAILABLE)));
+        catalog = new BookCatalog(bookDAO);
+    }
+
+    private static Book book(int id, BookStatus status) {
+        return new Book(id, "Title " + id, "Author", 2001, "Fiction", status, null);
+    }
+
+    @Test
+    void testDeltaRefreshOnlyReadsChangedRows() throws SQLException {
+        BookCatalog.Snapshot first = catalog.refresh();
+        when(bookDAO.getBooksUpdatedSince(any())).thenReturn(List.of(book(2, BookStatus.BORROWED)));
+
+        BookCatalog.Snapshot second = catalog.refresh();
+
+        verify(bookDAO, times(1)).getAllBooks();
+        assertEquals(first.getVersion() + 1, second.getVersion());
+        assertEquals(BookStatus.BORROWED, second.get(2).getStatus());
+        assertEquals(BookStatus.AVAILABLE, first.get(2).getStatus(), "Published snapshots must not change.");
+        assertSame(first.get(5000), second.get(5000));
+        assertEquals(List.of(1, 2, 5000), second.asList().stream().map(Book::getBookId).toList());
+
+        // The overlap re-reads the same row; nothing changed, so the version stays put
+        assertSame(second, catalog.refresh());
+    }
+
+    @Test
+    void testDeletesAreReadFromTheChangeLog() throws SQLException {
+        catalog.refresh();
+        assertEquals(List.of(2), catalog.search("title 2").stream().map(Book::getBookId).toList());
+        when(bookDAO.getBooksUpdatedSince(any())).thenReturn(List.of(book(5001, BookStatus.AVAILABLE), book(5000, BookStatus.AVAILABLE)));
+        when(bookDAO.getBookIdsDeletedSince(any())).thenReturn(List.of(2, 5000)); // 5000 was deleted, then inserted again
+
+        BookCatalog.Snapshot snapshot = catalog.refresh();
+
+        verify(bookDAO, times(1)).getAllBooks();
+        assertEquals(3, snapshot.size(), "One delete and one insert leave the count unchanged.");
+        assertNull(snapshot.get(2));
+        assertNotNull(snapshot.get(5000));
+        assertNotNull(snapshot.get(5001));
+        assertTrue(catalog.search("title 2").isEmpty());
+    }
+
+    @Test
+    void testACatalogOlderThanTheChangeLogReloads() throws SQLException {
+        catalog.refresh();
+        long later = 1_000_000 + BookCatalog.CHANGE_LOG_RETENTION.toMillis() + 1;
+        when(bookDAO.getDatabaseTime()).thenReturn(new Timestamp(later));
+        when(bookDAO.getAllBooks()).thenReturn(List.of(book(1, BookStatus.AVAILABLE), book(5000, BookStatus.AVAILABLE)));
+
+        BookCatalog.Snapshot snapshot = catalog.refresh();
+
+        verify(bookDAO, times(2)).getAllBooks();
+        verify(bookDAO, never()).getBookIdsDeletedSince(any());
+        assertEquals(2, snapshot.size());
+        assertNull(snapshot.get(2));
+    }
+
+    @Test
+    void testSearchFollowsRefreshesAndLocalWrites() throws SQLException {
+        catalog.refresh();
+        assertEquals(List.of(1, 2, 5000), catalog.search("author title").stream().map(Book::getBookId).toList());
+
+        when(bookDAO.getBooksUpdatedSince(any())).thenReturn(List.of(new Book(2, "Arrow of God", "Author", 2001, "Fiction", BookStatus.AVAILABLE, null)));
+        catalog.refresh();
+        assertEquals(List.of(2), catalog.search("arr").stream().map(Book::getBookId).toList());
+        assertEquals(List.of(1, 5000), catalog.search("title").stream().map(Book::getBookId).toList());
+
+        catalog.remove(1);
+        assertEquals(List.of(5000), catalog.search("title").stream().map(Book::getBookId).toList());
+        verify(bookDAO, times(1)).getAllBooks();
+    }
+
+    @Test
+    void testRankingWithinAFacetSelectionFillsTheLimit() throws SQLException {
+        List<Book> books = new ArrayList<>();
+        for (int id = 1; id <= 20; id++) {
+            books.add(new Book(id, "Arrow " + id, "Author", 2001, "Fiction", BookStatus.AVAILABLE, null));
+        }
+        books.add(new Book(21, "A Long History of the Arrow and the Bow", "Author", 1990, "History", BookStatus.AVAILABLE, null));
+        books.add(new Book(22, "Arrows Through the Ages and Across the World", "Author", 1990, "History", BookStatus.BORROWED, null));
+        when(bookDAO.getAllBooks()).thenReturn(books);
+        catalog.refresh();
+
+        assertTrue(catalog.rank("arrow", 2).stream().allMatch(book -> book.getGenre().equals("Fiction")));
+        Map<FacetIndex.Facet, String> history = Map.of(FacetIndex.Facet.GENRE, "History");
+        assertEquals(List.of(21, 22), catalog.rank("arrow", history, 2).stream().map(Book::getBookId).toList(),
+                "The selection narrows the matches before the best are picked.");
+        Map<FacetIndex.Facet, String> available = Map.of(FacetIndex.Facet.GENRE, "History", FacetIndex.Facet.STATUS, "AVAILABLE");
+        assertEquals(List.of(21), catalog.rank("arrow", available, 2).stream().map(Book::getBookId).toList());
+        assertEquals(List.of(), catalog.rank("arrow", Map.of(FacetIndex.Facet.GENRE, "Poetry"), 2));
+    }
+
+    @Test
+    void testTitleSuggestionsIgnoreALeadingArticle() throws SQLException {
+        when(bookDAO.getAllBooks()).thenReturn(List.of(
+                new Book(1, "The Famished Road", "Ben Okri", 1991, "Fiction", BookStatus.AVAILABLE, null),
+                new Book(2, "Famine", "Author", 2001, "History", BookStatus.AVAILABLE, null),
+                new Book(3, "Theory of Everything", "Author", 2001, "Science", BookStatus.AVAILABLE, null)));
+        catalog.refresh();
+
+        assertEquals(List.of(2, 1), catalog.suggestTitles("fam", 10).stream().map(Book::getBookId).toList());
+        assertEquals(List.of(1, 3), catalog.suggestTitles("the", 10).stream().map(Book::getBookId).toList());
+
+        catalog.put(new Book(2, "Harvest", "Author", 2001, "History", BookStatus.AVAILABLE, null));
+        assertEquals(List.of(1), catalog.suggestTitles("fam", 10).stream().map(Book::getBookId).toList());
+    }
+
+    @Test
+    void testLocalWritesArePublishedImmediately() {
+        Book added = book(7, BookStatus.AVAILABLE);
+        catalog.put(added);
+        added.setStatus("BORROWED");
+
+        assertEquals(1, catalog.snapshot().size());
+        assertEquals(BookStatus.AVAILABLE, catalog.snapshot().get(7).getStatus(), "The catalog keeps its own copy.");
+
+        catalog.remove(7);
+        assertEquals(0, catalog.snapshot().size());
+        verifyNoInteractions(bookDAO);
+    }
+
+    @Test
+    void testABatchIsPublishedAsOneVersion() {
+        long before = catalog.snapshot().getVersion();
+        catalog.putAll(List.of(book(7, BookStatus.AVAILABLE), book(8, BookStatus.AVAILABLE), book(2000, BookStatus.BORROWED)));
+
+        BookCatalog.Snapshot snapshot = catalog.snapshot();
+        assertEquals(before + 1, snapshot.getVersion());
+        assertEquals(3, snapshot.size());
+        assertEquals(List.of(8), catalog.search("title 8").stream().map(Book::getBookId).toList());
+        assertEquals(List.of(2000), catalog.browse(Map.of(FacetIndex.Facet.STATUS, "BORROWED")).stream().map(Book::getBookId).toList());
+        verifyNoInteractions(bookDAO);
+    }
+}
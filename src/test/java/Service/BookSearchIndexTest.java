@@ -0,0 +1,129 @@
+package Service;
+
+import Entity.Book;
+import Entity.Enums.BookStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchIndexTest {
+
+    private static Book book(int id, String title, String author, String genre) {
+        return new Book(id, title, author, 2001, genre, BookStatus.AVAILABLE, null);
+    }
+
+    @Test
+    void testAllWordsMustMatchAndTheLastMayBePartlyTyped() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.put(book(1, "Things Fall Apart", "Chinua Achebe", "Fiction"));
+        index.put(book(2, "Arrow of God", "Chinua Achebe", "Fiction"));
+        index.put(book(3, "Half of a Yellow Sun", "Chimamanda Ngozi Adichie", "Historical Fiction"));
+        index.put(book(4, "The Fall of the House of Usher", "Edgar Allan Poe", "Horror"));
+
+        assertArrayEquals(new int[]{1, 2}, index.search("ACHEBE"));
+        assertArrayEquals(new int[]{1, 2, 3}, index.search("chi"));
+        assertArrayEquals(new int[]{1}, index.search("achebe fal"));
+        assertArrayEquals(new int[]{3}, index.search("fiction, hist"));
+        assertArrayEquals(new int[0], index.search("achebe horror"));
+        assertArrayEquals(new int[0], index.search("  -- "));
+    }
+
+    @Test
+    void testUpdatesAndRemovalsMoveThePostings() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.put(book(1, "Weep Not, Child", "Ngugi wa Thiong'o", "Fiction"));
+        index.put(book(2, "Petals of Blood", "Ngugi wa Thiong'o", "Fiction"));
+
+        index.put(book(1, "Weep Not, Child", "Ngugi wa Thiong'o", "Classic"));
+        assertArrayEquals(new int[]{2}, index.search("fiction"));
+        assertArrayEquals(new int[]{1}, index.search("classic"));
+
+        index.remove(2);
+        assertArrayEquals(new int[0], index.search("petals"));
+        assertArrayEquals(new int[]{1}, index.search("ngugi"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testMatchesAScanOfALargeCatalog() {
+        String[] words = {"river", "between", "grain", "wheat", "devil", "cross", "arrow", "god", "sun", "yellow",
+                "house", "stone", "night", "wind", "rain", "queen", "king", "song", "fire", "water"};
+        Random random = new Random(42);
+        List<Book> books = IntStream.rangeClosed(1, 50_000)
+                .mapToObj(id -> book(id, words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)],
+                        words[random.nextInt(words.length)] + "son", words[random.nextInt(words.length)]))
+                .toList();
+        BookSearchIndex index = new BookSearchIndex();
+        books.forEach(index::put);
+
+        for (String query : List.of("river gr", "devil cross w", "songson", "kin", "yellow sun rainson")) {
+            List<String> terms = BookSearchIndex.tokenize(query);
+            int[] expected = books.stream()
+                    .filter(book -> {
+                        List<String> tokens = BookSearchIndex.tokenize(book.getTitle() + " " + book.getAuthor() + " " + book.getGenre());
+                        String last = terms.get(terms.size() - 1);
+                        return tokens.containsAll(terms.subList(0, terms.size() - 1))
+                                && tokens.stream().anyMatch(token -> token.startsWith(last));
+                    })
+                    .mapToInt(Book::getBookId)
+                    .toArray();
+            assertArrayEquals(expected, index.search(query), () -> query + " gave " + Arrays.toString(index.search(query)));
+        }
+    }
+
+    @Test
+    void testRankPutsTitleMatchesAndRareWordsFirst() {
+        BookSearchIndex index = new BookSearchIndex();
+        index.put(book(1, "Collected Essays", "Ama Ata Aidoo", "Arrow Studies"));
+        index.put(book(2, "The Godfather", "Mario Puzo", "Crime"));
+        index.put(book(3, "Arrow of God", "Chinua Achebe", "Fiction"));
+        index.put(book(4, "Arrow of God Revisited", "Various", "Criticism"));
+        index.put(book(5, "Things Fall Apart", "Chinua Achebe", "Fiction"));
+
+        assertArrayEquals(new int[]{3, 4, 1}, index.rank("arrow", 10), "Short titles first, genre-only last.");
+        assertArrayEquals(new int[]{3, 4, 2}, index.rank("god", 10), "A whole word beats a word it only starts.");
+        assertArrayEquals(new int[]{3, 5}, index.rank("achebe", 10), "Ties keep catalog order.");
+        assertArrayEquals(new int[]{3}, index.rank("achebe arr", 10));
+        assertArrayEquals(new int[]{3, 4}, index.rank("arrow", 2));
+        assertArrayEquals(new int[0], index.rank("arrow", 0));
+    }
+
+    @Test
+    void testRankAgreesWithSortingEveryMatchOnALargeCatalog() {
+        String[] words = {"river", "between", "grain", "wheat", "devil", "cross", "arrow", "god", "sun", "yellow",
+                "house", "stone", "night", "wind", "rain", "queen", "king", "song", "fire", "water"};
+        Random random = new Random(7);
+        BookSearchIndex index = new BookSearchIndex();
+        for (int id = 1; id <= 500_000; id++) {
+            StringBuilder title = new StringBuilder(words[random.nextInt(words.length)]);
+            for (int extra = random.nextInt(6); extra > 0; extra--) {
+                title.append(' ').append(words[random.nextInt(words.length)]);
+            }
+            index.put(book(id, title.toString(), words[random.nextInt(words.length)] + "son", words[random.nextInt(words.length)]));
+        }
+
+        List<String> queries = List.of("river", "devil cross", "kingson", "yellow sun rain", "st", "night wat", "queen songson fire");
+        long slowest = 0;
+        for (String query : queries) {
+            int[] all = index.rank(query, Integer.MAX_VALUE); // Every match; the bounded heap never has to evict
+            int[] top = null;
+            long fastest = Long.MAX_VALUE; // Best of a few runs, to leave out warm-up and collector pauses
+            for (int run = 0; run < 5; run++) {
+                long started = System.nanoTime();
+                top = index.rank(query, 50);
+                fastest = Math.min(fastest, System.nanoTime() - started);
+            }
+            slowest = Math.max(slowest, fastest);
+
+            assertArrayEquals(Arrays.copyOf(all, Math.min(50, all.length)), top, query);
+            assertEquals(index.search(query).length, all.length, query);
+        }
+        long slowestMillis = slowest / 1_000_000;
+        assertTrue(slowestMillis < 1_000, "A ranked search over " + index.size() + " books took " + slowestMillis + " ms.");
+    }
+}
@@ -4,7 +4,10 @@ import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 
+import DAO.BatchResult;
 import DAO.BookDAO;
 import Entity.Book;
 import Entity.Enums.BookStatus;
@@ -17,9 +20,12 @@ import org.powermock.reflect.Whitebox;
 
 import java.lang.reflect.Field;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 @ExtendWith(MockitoExtension.class)
 public class BookServiceTest {
@@ -40,7 +46,7 @@ public class BookServiceTest {
                 2020,
                 "Fiction",
                 BookStatus.AVAILABLE,
-                "1234567890"
+                "0306406152"
         );
     }
 
@@ -48,10 +54,11 @@ public class BookServiceTest {
     void testAddBook_Success() throws BookException, SQLException {
         // Arrange
         BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
-        doNothing().when(mockBookDAO).addBook(any(Book.class));
+        when(mockBookDAO.addBook(any(Book.class))).thenReturn(testBook);
 
-        // Use reflection to set the mock BookDAO
+        // Use reflection to set the mock BookDAO; the duplicate-ISBN check reads the catalog through it too
         Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+        Whitebox.setInternalState(bookService, "catalog", new BookCatalog(mockBookDAO));
 
         // Act
         bookService.addBook(testBook);
@@ -60,6 +67,24 @@ public class BookServiceTest {
         verify(mockBookDAO).addBook(testBook);
     }
 
+    @Test
+    void testAddBook_CachesUnderGeneratedId() throws BookException, SQLException {
+        // Arrange
+        Book newBook = new Book(0, "New Arrival", "Jane Roe", 2021, "Fiction", BookStatus.AVAILABLE, null);
+        BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
+        when(mockBookDAO.addBook(newBook)).thenAnswer(invocation -> {
+            newBook.setBookId(42);
+            return newBook;
+        });
+        Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+
+        // Act
+        bookService.addBook(newBook);
+
+        // Assert: served from the cache without going back to the database
+        assertSame(newBook, bookService.getBookById(42));
+    }
+
     @Test
     void testAddBook_InvalidBook() {
         // Arrange
@@ -104,8 +129,9 @@ public class BookServiceTest {
 
         when(mockBookDAO.getAllBooks()).thenReturn(bookList);
 
-        // Use reflection to set the mock BookDAO
+        // Use reflection to set the mock BookDAO, and a catalog that reads through it
         Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+        Whitebox.setInternalState(bookService, "catalog", new BookCatalog(mockBookDAO));
 
         // Act
         List<Book> retrievedBooks = bookService.getAllBooks();
@@ -117,4 +143,137 @@ public class BookServiceTest {
     }
 
 
-}
\ No newline at end of file
+    @Test
+    void testSearchBooks_RepeatedSearchIsCachedUntilAMatchingBookChanges() throws BookException, SQLException {
+        BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
+        when(mockBookDAO.getAllBooks()).thenReturn(List.of(testBook));
+        Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+        Whitebox.setInternalState(bookService, "catalog", new BookCatalog(mockBookDAO));
+
+        assertEquals(1, bookService.searchBooks("Test Author").size());
+        assertEquals(1, bookService.searchBooks("  test   AUTHOR ").size());
+
+        bookService.bookStatusChanged(testBook.getBookId(), BookStatus.BORROWED);
+        bookService.searchBooks("test author");
+
+        assertEquals(1, bookService.getSearchCacheStats().getHitCount());
+        assertEquals(2, bookService.getSearchCacheStats().getMissCount());
+        verify(mockBookDAO, times(1)).getAllBooks();
+        verify(mockBookDAO, never()).searchBooks(anyString());
+    }
+
+    @Test
+    void testSearchBooks_FindsTextInsideWords() throws BookException, SQLException {
+        BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
+        when(mockBookDAO.getAllBooks()).thenReturn(List.of(
+                new Book(1, "To Kill a Mockingbird", "Harper Lee", 1960, "Fiction", BookStatus.AVAILABLE, null),
+                new Book(2, "Things Fall Apart", "Chinua Achebe", 1958, "Fiction", BookStatus.AVAILABLE, null),
+                new Book(3, "Hammock Days", "Ann Mockler", 2003, "Poetry", BookStatus.AVAILABLE, null)));
+        Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+        Whitebox.setInternalState(bookService, "catalog", new BookCatalog(mockBookDAO));
+
+        assertEquals(List.of(1, 3), bookService.searchBooks("MOCK").stream().map(Book::getBookId).toList());
+        assertEquals(List.of(2), bookService.searchBooks("hebe").stream().map(Book::getBookId).toList());
+        assertEquals(List.of(1, 2), bookService.searchBooks("g").stream().map(Book::getBookId).toList());
+        assertTrue(bookService.searchBooks("ngbird lee").isEmpty(), "A match may not run from the title into the author.");
+    }
+
+    @Test
+    void testFilterBooks_LoadsTheCatalogEvenAfterALocalWrite() throws BookException, SQLException {
+        BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
+        Book other = new Book(2, "Arrow of God", "Chinua Achebe", 1964, "Fiction", BookStatus.AVAILABLE, null);
+        when(mockBookDAO.getDatabaseTime()).thenReturn(new Timestamp(0));
+        when(mockBookDAO.getAllBooks()).thenReturn(List.of(testBook, other));
+        BookCatalog catalog = new BookCatalog(mockBookDAO);
+        Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+        Whitebox.setInternalState(bookService, "catalog", catalog);
+
+        catalog.put(testBook); // e.g. a status change before anything read the whole table
+        assertFalse(catalog.isLoaded());
+
+        assertEquals(List.of(2), bookService.filterBooks("achebe", 10).stream().map(Book::getBookId).toList());
+        assertTrue(catalog.isLoaded());
+        bookService.suggestBooks("arr", 10);
+        verify(mockBookDAO, times(1)).getAllBooks();
+    }
+
+    @Test
+    void testFindByIsbn_AcceptsEitherFormFromTheCatalog() throws BookException, SQLException {
+        BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
+        when(mockBookDAO.getAllBooks()).thenReturn(List.of(
+                new Book(7, "Probability Theory", "E. T. Jaynes", 2003, "Science", BookStatus.AVAILABLE, "9780306406157")));
+        Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+        Whitebox.setInternalState(bookService, "catalog", new BookCatalog(mockBookDAO));
+
+        assertEquals(7, bookService.findByIsbn("0-306-40615-2").getBookId());
+        assertEquals(7, bookService.findByIsbn("ISBN 978-0-306-40615-7").getBookId());
+        assertThrows(BookException.class, () -> bookService.findByIsbn("978-0-306-40615-8"), "Wrong check digit.");
+        verify(mockBookDAO, never()).getBookByIsbn(anyString());
+    }
+
+    @Test
+    void testAddBooks_RejectsDuplicateIsbnsBeforeWriting() throws BookException, SQLException {
+        BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
+        when(mockBookDAO.getAllBooks()).thenReturn(List.of(testBook));
+        Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+        Whitebox.setInternalState(bookService, "catalog", new BookCatalog(mockBookDAO)); // Not loaded yet
+
+        Book fresh = new Book(0, "Fresh", "Author", 2020, "Fiction", BookStatus.AVAILABLE, "978-1-86197-876-9");
+        Book again = new Book(0, "Again", "Author", 2020, "Fiction", BookStatus.AVAILABLE, "0-306-40615-2");
+        BookException exception = assertThrows(BookException.class, () -> bookService.addBooks(List.of(fresh, again), 100));
+
+        assertTrue(exception.getMessage().startsWith("Row 1: A book with ISBN 9780306406157 already exists"));
+        assertEquals("9781861978769", fresh.getIsbn(), "Stored in canonical form.");
+        verify(mockBookDAO, never()).addBooks(anyList(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCanonicalizeIsbns_RewritesLegacyRowsAndReportsWhatIsLeft() throws BookException, SQLException {
+        BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
+        List<Book> stored = List.of(
+                new Book(1, "Canonical", "Author", 2003, "Science", BookStatus.AVAILABLE, "9780306406157"),
+                new Book(2, "Legacy", "Author", 1980, "Science", BookStatus.AVAILABLE, "0-306-40615-2"),
+                new Book(3, "Typo", "Author", 1999, "Fiction", BookStatus.AVAILABLE, "978-0-306-40615-8"),
+                new Book(4, "Blank", "Author", 1999, "Fiction", BookStatus.AVAILABLE, " "),
+                new Book(5, "Other", "Author", 2001, "Fiction", BookStatus.AVAILABLE, "978 1 86197 876 9"));
+        doAnswer(invocation -> {
+            stored.forEach(invocation.<Consumer<Book>>getArgument(0));
+            return (long) stored.size();
+        }).when(mockBookDAO).forEachBook(any());
+        BatchResult<Book> committed = Mockito.mock(BatchResult.class);
+        when(committed.isCommitted()).thenReturn(true);
+        ArgumentCaptor<List<Book>> written = ArgumentCaptor.forClass(List.class);
+        when(mockBookDAO.updateIsbns(written.capture())).thenReturn(committed);
+        Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+
+        BookService.IsbnCleanup cleanup = bookService.canonicalizeIsbns();
+
+        assertEquals(List.of(2, 4, 5), written.getValue().stream().map(Book::getBookId).toList());
+        assertEquals("9780306406157", stored.get(1).getIsbn());
+        assertNull(stored.get(3).getIsbn(), "Blank ISBNs are cleared.");
+        assertEquals("9781861978769", stored.get(4).getIsbn());
+        assertEquals(3, cleanup.rewritten());
+        assertEquals(List.of(3), cleanup.unparseable().stream().map(Book::getBookId).toList());
+        assertEquals("978-0-306-40615-8", stored.get(2).getIsbn(), "Unparseable rows are left for a person.");
+        assertEquals(Map.of("9780306406157", List.of(1, 2)), cleanup.shared());
+    }
+
+
+    @Test
+    void testBookStatusChanged_UpdatesTheLoadedCatalog() throws BookException, SQLException {
+        BookDAO mockBookDAO = Mockito.mock(BookDAO.class);
+        when(mockBookDAO.getAllBooks()).thenReturn(List.of(testBook));
+        when(mockBookDAO.getDatabaseTime()).thenReturn(new Timestamp(0));
+        Whitebox.setInternalState(bookService, "bookDAO", mockBookDAO);
+        Whitebox.setInternalState(bookService, "catalog", new BookCatalog(mockBookDAO));
+        Map<FacetIndex.Facet, String> borrowed = Map.of(FacetIndex.Facet.STATUS, "BORROWED");
+        assertTrue(bookService.browseBooks(borrowed).isEmpty());
+
+        bookService.bookStatusChanged(testBook.getBookId(), BookStatus.BORROWED);
+
+        assertEquals(List.of(testBook.getBookId()), bookService.browseBooks(borrowed).stream().map(Book::getBookId).toList());
+        assertEquals(BookStatus.BORROWED, bookService.filterBooks("test", 10).get(0).getStatus());
+        verify(mockBookDAO, times(1)).getAllBooks();
+    }
+}
@@ -0,0 +1,170 @@
+package Service;
+
+import DAO.BookDAO;
+import DAO.ChangeLogDAO;
+import Entity.Book;
+import Entity.ChangeEvent;
+import Entity.Enums.BookStatus;
+import Entity.Enums.ChangeEntity;
+import Entity.Enums.ChangeOperation;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.powermock.reflect.Whitebox;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChangeLogPollerTest {
+
+    /**
+     * One Books table and its ChangeLog, shared by every desk; writes append to the log as the triggers would.
+     */
+    private static final class SharedDatabase {
+        private final Map<Integer, Book> books = new ConcurrentHashMap<>();
+        private final List<ChangeEvent> changeLog = new CopyOnWriteArrayList<>();
+
+        void log(ChangeEntity entity, int id, ChangeOperation operation) {
+            changeLog.add(new ChangeEvent(changeLog.size() + 1, entity, id, operation));
+        }
+
+        ChangeLogDAO changeLogDAO() throws SQLException {
+            ChangeLogDAO changeLogDAO = mock(ChangeLogDAO.class);
+            when(changeLogDAO.getLatestSequence()).thenAnswer(invocation -> (long) changeLog.size());
+            when(changeLogDAO.getChangesSince(anyLong(), anyInt())).thenAnswer(invocation -> changeLog.stream()
+                    .filter(change -> change.getSequence() > (long) invocation.getArgument(0))
+                    .limit((int) invocation.getArgument(1))
+                    .toList());
+            return changeLogDAO;
+        }
+
+        BookDAO bookDAO() throws SQLException {
+            BookDAO bookDAO = mock(BookDAO.class);
+            doAnswer(invocation -> {
+                int bookId = invocation.getArgument(0);
+                books.get(bookId).setStatus(String.valueOf((BookStatus) invocation.getArgument(1)));
+                log(ChangeEntity.BOOK, bookId, ChangeOperation.UPDATE);
+                return null;
+            }).when(bookDAO).updateBookStatus(anyInt(), any(BookStatus.class));
+            when(bookDAO.getDatabaseTime()).thenAnswer(invocation -> new Timestamp(System.currentTimeMillis()));
+            when(bookDAO.getAllBooks()).thenAnswer(invocation -> readAll());
+            // Every row counts as recently updated; the catalog skips the ones it already holds
+            when(bookDAO.getBooksUpdatedSince(any(Timestamp.class))).thenAnswer(invocation -> readAll());
+            when(bookDAO.getBookIdsDeletedSince(any(Timestamp.class))).thenReturn(List.of());
+            return bookDAO;
+        }
+
+        Book read(int bookId) {
+            Book book = books.get(bookId);
+            return book == null ? null : BookCatalog.copyOf(book);
+        }
+
+        List<Book> readAll() {
+            return books.values().stream().map(BookCatalog::copyOf).toList();
+        }
+
+        // An edit made outside the status calls, e.g. a librarian correcting a title
+        void rename(int bookId, String title) {
+            Book book = BookCatalog.copyOf(books.get(bookId));
+            book.setTitle(title);
+            books.put(bookId, book);
+            log(ChangeEntity.BOOK, bookId, ChangeOperation.UPDATE);
+        }
+    }
+
+    /**
+     * What one desk client runs: its own BookService and poller against the shared database.
+     */
+    private static final class Desk {
+        private final BookService bookService = new BookService();
+        private final ChangeLogPoller poller;
+
+        Desk(SharedDatabase database) throws SQLException {
+            BookDAO bookDAO = database.bookDAO();
+            Whitebox.setInternalState(bookService, "bookDAO", bookDAO);
+            Whitebox.setInternalState(Whitebox.getInternalState(bookService, "catalog"), "bookDAO", bookDAO);
+            poller = new ChangeLogPoller(database.changeLogDAO(), 1_000, System::nanoTime);
+            poller.addListener(bookService::applyChange);
+            poller.poll(); // Start from the current end of the log
+        }
+    }
+
+    @Test
+    void testStatusChangeAtOneDeskReachesTheOthersCache() throws Exception {
+        SharedDatabase database = new SharedDatabase();
+        database.books.put(1, new Book(1, "Weep Not, Child", "Ngugi wa Thiong'o", 1964, "Fiction", BookStatus.AVAILABLE, null));
+
+        try (MockedStatic<BookDAO> bookLookups = mockStatic(BookDAO.class)) {
+            bookLookups.when(() -> BookDAO.getBookById(anyInt())).thenAnswer(invocation -> database.read(invocation.getArgument(0)));
+            Desk circulation = new Desk(database);
+            Desk reference = new Desk(database);
+            assertEquals(BookStatus.AVAILABLE, reference.bookService.getBookById(1).getStatus()); // Now cached there
+
+            circulation.bookService.updateBookStatus(1, BookStatus.BORROWED);
+            assertEquals(BookStatus.AVAILABLE, reference.bookService.getBookById(1).getStatus(), "Stale until the log is applied.");
+
+            assertEquals(1, reference.poller.poll());
+            assertEquals(BookStatus.BORROWED, reference.bookService.getBookById(1).getStatus());
+            assertEquals(0, reference.poller.poll(), "Each change is applied once.");
+        }
+    }
+
+    @Test
+    void testTitleEditAtOneDeskReachesTheOthersCachedSearch() throws Exception {
+        SharedDatabase database = new SharedDatabase();
+        database.books.put(1, new Book(1, "Weep Not, Child", "Ngugi wa Thiong'o", 1964, "Fiction", BookStatus.AVAILABLE, null));
+        database.books.put(2, new Book(2, "Things Fall Apart", "Chinua Achebe", 1958, "Fiction", BookStatus.AVAILABLE, null));
+        Desk reference = new Desk(database);
+        assertTrue(reference.bookService.searchBooks("river").isEmpty()); // Now cached there
+
+        database.rename(1, "The River Between");
+        assertEquals(1, reference.poller.poll());
+        List<Book> found = reference.bookService.searchBooks("river");
+        assertEquals(List.of(1), found.stream().map(Book::getBookId).toList(), "The edited title now matches.");
+        assertEquals("The River Between", found.get(0).getTitle());
+    }
+
+    @Test
+    void testLateCommitInsideAGapIsStillApplied() throws SQLException {
+        List<ChangeEvent> visible = new ArrayList<>();
+        ChangeLogDAO changeLogDAO = mock(ChangeLogDAO.class);
+        when(changeLogDAO.getLatestSequence()).thenReturn(0L);
+        when(changeLogDAO.getChangesSince(anyLong(), anyInt())).thenAnswer(invocation -> visible.stream()
+                .filter(change -> change.getSequence() > (long) invocation.getArgument(0))
+                .toList());
+        AtomicLong clock = new AtomicLong();
+        ChangeLogPoller poller = new ChangeLogPoller(changeLogDAO, 1_000, clock::get);
+        List<Long> applied = new ArrayList<>();
+        poller.addListener(change -> applied.add(change.getSequence()));
+        poller.poll();
+
+        // Sequence 2 belongs to a transaction that has not committed yet
+        visible.add(new ChangeEvent(1, ChangeEntity.BOOK, 10, ChangeOperation.UPDATE));
+        visible.add(new ChangeEvent(3, ChangeEntity.BOOK, 30, ChangeOperation.UPDATE));
+        poller.poll();
+        assertEquals(List.of(1L, 3L), applied);
+        assertEquals(List.of(2L), List.copyOf(poller.openGaps().keySet()));
+
+        visible.add(1, new ChangeEvent(2, ChangeEntity.PATRON, 20, ChangeOperation.DELETE));
+        poller.poll();
+        assertEquals(List.of(1L, 3L, 2L), applied);
+        assertTrue(poller.openGaps().isEmpty());
+
+        // A rolled-back sequence is given up on after the timeout
+        visible.add(new ChangeEvent(5, ChangeEntity.BOOK, 50, ChangeOperation.INSERT));
+        poller.poll();
+        clock.addAndGet(ChangeLogPoller.GAP_TIMEOUT.toNanos() + 1);
+        poller.poll();
+        assertTrue(poller.openGaps().isEmpty());
+        assertEquals(List.of(1L, 3L, 2L, 5L), applied);
+    }
+}
@@ -0,0 +1,119 @@
+package Service;
+
+import DAO.CirculationBaseline;
+import Entity.Enums.BookStatus;
+import Entity.Enums.ReservationStatus;
+import Entity.Enums.TransactionType;
+import Entity.LibraryStatistics;
+import Entity.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CirculationCountersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    private static Transaction loan(int patronId, LocalDate dueDate) {
+        return new Transaction(0, patronId, 1, dueDate.minusWeeks(2), null, dueDate, BigDecimal.ZERO, TransactionType.BORROW);
+    }
+
+    @Test
+    void testLoansMoveOpenOverdueAndActivePatronCounts() {
+        CirculationCounters counters = new CirculationCounters();
+        Transaction overdue = loan(1, TODAY.minusDays(1));
+        counters.transactionRecorded(overdue);
+        counters.transactionRecorded(loan(1, TODAY.plusDays(3)));
+        counters.transactionRecorded(loan(2, TODAY.plusDays(3)));
+        counters.reservationAdded(ReservationStatus.PENDING);
+        counters.reservationAdded(ReservationStatus.FULFILLED);
+
+        LibraryStatistics statistics = counters.snapshot(TODAY);
+        assertEquals(3, statistics.getOpenLoans());
+        assertEquals(1, statistics.getOverdueLoans());
+        assertEquals(2, statistics.getActivePatrons());
+        assertEquals(1, statistics.getPendingReservations());
+        assertEquals(3L, statistics.getLoansPerMonth().values().stream().mapToLong(Long::longValue).sum());
+
+        counters.loanClosed(overdue);
+        statistics = counters.snapshot(TODAY);
+        assertEquals(2, statistics.getOpenLoans());
+        assertEquals(0, statistics.getOverdueLoans());
+        assertEquals(2, statistics.getActivePatrons(), "Patron 1 still has a book out.");
+    }
+
+    @Test
+    void testConcurrentBorrowsAndReturnsBalance() throws Exception {
+        CirculationCounters counters = new CirculationCounters();
+        for (int i = 0; i < 1_000; i++) {
+            counters.bookAdded(BookStatus.AVAILABLE, "Fiction");
+        }
+        ExecutorService desks = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int desk = 0; desk < 8; desk++) {
+            int patronId = desk + 1;
+            results.add(desks.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    Transaction transaction = loan(patronId, TODAY.plusDays(i % 14));
+                    counters.bookStatusChanged(BookStatus.AVAILABLE, BookStatus.BORROWED);
+                    counters.transactionRecorded(transaction);
+                    counters.bookStatusChanged(BookStatus.BORROWED, BookStatus.AVAILABLE);
+                    counters.loanClosed(transaction);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        desks.shutdown();
+
+        LibraryStatistics statistics = counters.snapshot(TODAY);
+        assertEquals(1_000, statistics.getBooks(BookStatus.AVAILABLE));
+        assertEquals(0, statistics.getBooks(BookStatus.BORROWED));
+        assertEquals(0, statistics.getOpenLoans());
+        assertEquals(0, statistics.getActivePatrons());
+        assertEquals(80_000L, statistics.getLoansPerMonth().values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testReconcileKeepsWritesMadeWhileTheDatabaseWasRead() {
+        CirculationCounters counters = new CirculationCounters();
+        counters.bookAdded(BookStatus.AVAILABLE, "Fiction");
+        CirculationBaseline before = counters.capture();
+
+        // Meanwhile this desk lends a book the database query did not see
+        counters.bookStatusChanged(BookStatus.AVAILABLE, BookStatus.BORROWED);
+        counters.transactionRecorded(loan(4, TODAY.plusDays(7)));
+
+        // Another process added three books and patron 9 has a loan we never counted
+        CirculationBaseline database = new CirculationBaseline(
+                Map.of(BookStatus.AVAILABLE, 4L), Map.of("Fiction", 4L), Map.of(9, 1L),
+                Map.of(TODAY.minusDays(2), 1L), Map.of(YearMonth.from(TODAY), 1L), 0);
+        counters.reconcile(database, before);
+
+        LibraryStatistics statistics = counters.snapshot(TODAY);
+        assertTrue(counters.isReconciled());
+        assertEquals(3, statistics.getBooks(BookStatus.AVAILABLE));
+        assertEquals(1, statistics.getBooks(BookStatus.BORROWED));
+        assertEquals(4, statistics.getTotalBooks());
+        assertEquals(2, statistics.getOpenLoans());
+        assertEquals(2, statistics.getActivePatrons());
+        assertEquals(1, statistics.getOverdueLoans());
+    }
+}
@@ -0,0 +1,96 @@
+package Service;
+
+import Entity.Book;
+import Entity.Enums.BookStatus;
+import Service.FacetIndex.Facet;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest {
+
+    private static Book book(int id, String author, int year, String genre, BookStatus status) {
+        return new Book(id, "Title " + id, author, year, genre, status, null);
+    }
+
+    @Test
+    void testEachFacetIsCountedWithTheOtherSelections() {
+        FacetIndex index = new FacetIndex();
+        index.put(book(1, "Carl Sagan", 1980, "Science", BookStatus.AVAILABLE));
+        index.put(book(2, "Siddhartha Mukherjee", 2016, "Science", BookStatus.AVAILABLE));
+        index.put(book(3, "Yaa Gyasi", 2016, "Fiction", BookStatus.BORROWED));
+        index.put(book(4, "Richard Dawkins", 2019, " Science ", BookStatus.BORROWED));
+
+        Map<Facet, SortedMap<String, Integer>> counts = index.counts(Map.of(Facet.GENRE, "Science", Facet.STATUS, "AVAILABLE"));
+
+        assertEquals(Map.of("Science", 2), counts.get(Facet.GENRE), "No available fiction.");
+        assertEquals(Map.of("1980s", 0, "2010s", 2), index.counts(Map.of(Facet.DECADE, "1980s", Facet.STATUS, "BORROWED")).get(Facet.DECADE),
+                "The selected value stays, even at zero.");
+        assertEquals(Map.of("AVAILABLE", 2, "BORROWED", 1), counts.get(Facet.STATUS));
+        assertEquals(Map.of("1980s", 1, "2010s", 1), counts.get(Facet.DECADE));
+        assertEquals(Map.of("C", 1, "S", 1), counts.get(Facet.AUTHOR_INITIAL));
+        assertArrayEquals(new int[]{2}, index.matching(Map.of(Facet.GENRE, "Science", Facet.STATUS, "AVAILABLE", Facet.DECADE, "2010s")));
+
+        // Borrowing book 2 moves it between status values; deleting book 1 frees its slot for book 5
+        index.put(book(2, "Siddhartha Mukherjee", 2016, "Science", BookStatus.BORROWED));
+        index.remove(1);
+        index.put(book(5, "Chinua Achebe", 1958, "Fiction", BookStatus.AVAILABLE));
+        assertArrayEquals(new int[]{2, 4}, index.matching(Map.of(Facet.GENRE, "Science", Facet.STATUS, "BORROWED")));
+        assertArrayEquals(new int[]{3, 5}, index.matching(Map.of(Facet.GENRE, "Fiction")));
+        assertArrayEquals(new int[0], index.matching(Map.of(Facet.DECADE, "1980s")));
+        assertFalse(index.counts(Map.of()).get(Facet.DECADE).containsKey("1980s"));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testCountsMatchAScanOfALargeCatalog() {
+        String[] genres = {"Science", "Fiction", "History", "Poetry", "Biography", "Travel"};
+        Random random = new Random(5);
+        List<Book> books = IntStream.rangeClosed(1, 100_000)
+                .mapToObj(id -> book(id, String.valueOf((char) ('A' + random.nextInt(26))) + "uthor",
+                        1900 + random.nextInt(125), genres[random.nextInt(genres.length)],
+                        BookStatus.values()[random.nextInt(BookStatus.values().length)]))
+                .toList();
+        FacetIndex index = new FacetIndex();
+        books.forEach(index::put);
+
+        for (int query = 0; query < 50; query++) {
+            Map<Facet, String> selection = new EnumMap<>(Facet.class);
+            if (random.nextBoolean()) {
+                selection.put(Facet.GENRE, genres[random.nextInt(genres.length)]);
+            }
+            if (random.nextBoolean()) {
+                selection.put(Facet.STATUS, BookStatus.values()[random.nextInt(3)].name());
+            }
+            if (random.nextBoolean()) {
+                selection.put(Facet.DECADE, (1900 + random.nextInt(13) * 10) + "s");
+            }
+
+            Map<Facet, SortedMap<String, Integer>> counts = index.counts(selection);
+            for (Facet facet : Facet.values()) {
+                Map<Facet, String> others = new EnumMap<>(selection);
+                others.remove(facet);
+                SortedMap<String, Integer> expected = new TreeMap<>();
+                for (Book book : books) {
+                    if (FacetIndex.matches(book, others)) {
+                        expected.merge(FacetIndex.valuesOf(book).get(facet), 1, Integer::sum);
+                    }
+                }
+                if (selection.containsKey(facet)) {
+                    expected.putIfAbsent(selection.get(facet), 0);
+                }
+                assertEquals(expected, counts.get(facet), facet + " for " + selection);
+            }
+            int[] expectedIds = books.stream().filter(book -> FacetIndex.matches(book, selection)).mapToInt(Book::getBookId).toArray();
+            assertArrayEquals(expectedIds, index.matching(selection), selection.toString());
+        }
+    }
+}
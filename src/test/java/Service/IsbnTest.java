@@ -0,0 +1,54 @@
+package Service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsbnTest {
+
+    @Test
+    void testBothFormsCanonicaliseToTheSameNumber() {
+        assertEquals(9780306406157L, Isbn.parse("0306406152"));
+        assertEquals(9780306406157L, Isbn.parse("ISBN-10: 0-306-40615-2"));
+        assertEquals(9780306406157L, Isbn.parse("978-0-306-40615-7"));
+        assertEquals(9780306406157L, Isbn.parse("isbn 978 0 306 40615 7"));
+        assertEquals(9780804429573L, Isbn.parse("080442957X"), "X stands for a check digit of 10.");
+        assertEquals("9780306406157", Isbn.normalize("0-306-40615-2"));
+    }
+
+    @Test
+    void testMalformedOrMisreadIsbnsAreRejected() {
+        assertFalse(Isbn.isValid("1234567890"), "Check digit should be 1.");
+        assertFalse(Isbn.isValid("978-0-306-40615-8"));
+        assertFalse(Isbn.isValid("977-0-306-40615-7"), "Not a book prefix.");
+        assertFalse(Isbn.isValid("03064X6152"));
+        assertFalse(Isbn.isValid("invalid-isbn"));
+        assertFalse(Isbn.isValid("-0306406152"));
+        assertFalse(Isbn.isValid(""));
+        assertNull(Isbn.normalize("12345"));
+    }
+
+    @Test
+    void testGeneratedCheckDigitsValidate() {
+        assertEquals(9781861978769L, Isbn.withCheckDigit(978186197876L));
+        assertTrue(Isbn.isValid(Isbn.format(Isbn.withCheckDigit(979_123_456_789L))));
+    }
+
+    @Test
+    void testIndexSurvivesRemovalsInsideProbeRuns() {
+        IsbnIndex index = new IsbnIndex();
+        for (int i = 0; i < 5_000; i++) {
+            index.put(Isbn.withCheckDigit(978_000_000_000L + i), i);
+        }
+        for (int i = 0; i < 5_000; i += 2) {
+            index.remove(Isbn.withCheckDigit(978_000_000_000L + i), i);
+        }
+        index.remove(Isbn.withCheckDigit(978_000_000_001L), 999); // Another book's ISBN is left alone
+
+        assertEquals(2_500, index.size());
+        for (int i = 0; i < 5_000; i++) {
+            assertEquals(i % 2 == 0 ? -1 : i, index.get(Isbn.withCheckDigit(978_000_000_000L + i)));
+        }
+        assertFalse(index.contains(Isbn.INVALID));
+    }
+}
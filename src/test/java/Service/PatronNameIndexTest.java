@@ -0,0 +1,45 @@
+package Service;
+
+import Entity.Patron;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatronNameIndexTest {
+
+    private static Patron patron(int id, String first, String last) {
+        return new Patron(id, first, last, id + "@example.com", "555", "Accra", LocalDate.now());
+    }
+
+    @Test
+    void testSoundAlikeSpellingsShareAKey() {
+        assertEquals(Metaphone.encode("Mensah"), Metaphone.encode("Mensa"));
+        assertEquals(Metaphone.encode("Kwame"), Metaphone.encode("Kwami"));
+        assertEquals(Metaphone.encode("Catherine"), Metaphone.encode("Kathryn"));
+        assertNotEquals(Metaphone.encode("Mensah"), Metaphone.encode("Mason"));
+    }
+
+    @Test
+    void testExactBeatsPrefixBeatsTypoBeatsSound() {
+        PatronNameIndex index = new PatronNameIndex();
+        Patron exact = patron(1, "Yaw", "Owusu");
+        Patron prefix = patron(2, "Abena", "Owusuaa");
+        Patron typo = patron(3, "Kojo", "Owuso");
+        index.put(typo);
+        index.put(prefix);
+        index.put(exact);
+
+        assertEquals(List.of(exact, prefix, typo), index.search("owusu"));
+        assertEquals(List.of(typo), index.search("kojjo owuso"));
+        assertTrue(index.search("kwaku").isEmpty(), "Two edits away is too far for a five-letter word.");
+
+        index.put(patron(1, "Yaw", "Darko")); // Renamed
+        assertEquals(List.of(prefix, typo), index.search("owusu"));
+        index.remove(2);
+        assertEquals(List.of(typo), index.search("owusu"));
+        assertTrue(index.search("  ").isEmpty());
+    }
+}
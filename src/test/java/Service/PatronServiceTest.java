@@ -3,7 +3,11 @@ package Service;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 
+import DAO.BatchResult;
 import DAO.PatronDAO;
 import Entity.Patron;
 import org.junit.jupiter.api.*;
@@ -51,7 +55,7 @@ public class PatronServiceTest {
     @Test
     void testAddPatron_Success() throws SQLException {
         // Arrange
-        doNothing().when(patronDAO).addPatron(any(Patron.class));
+        when(patronDAO.addPatron(any(Patron.class))).thenReturn(testPatron);
 
         // Act
         patronService.addPatron(testPatron);
@@ -60,6 +64,49 @@ public class PatronServiceTest {
         verify(patronDAO).addPatron(testPatron);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAddPatrons_CachesThePatronsOnceCommitted() throws SQLException {
+        Patron ama = new Patron(2, "Ama", "Mensah", "ama@example.com", "555", "Accra", LocalDate.now());
+        BatchResult<Patron> committed = mock(BatchResult.class);
+        when(committed.isCommitted()).thenReturn(true);
+        when(patronDAO.addPatrons(List.of(testPatron, ama), 100)).thenReturn(committed);
+
+        assertSame(committed, patronService.addPatrons(List.of(testPatron, ama), 100));
+
+        try (MockedStatic<PatronDAO> rows = mockStatic(PatronDAO.class)) {
+            assertSame(ama, patronService.getPatronById(2));
+            rows.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAddPatrons_RolledBackBatchIsNotCached() throws SQLException {
+        BatchResult<Patron> rolledBack = mock(BatchResult.class);
+        when(rolledBack.isCommitted()).thenReturn(false);
+        when(patronDAO.addPatrons(List.of(testPatron), 100)).thenReturn(rolledBack);
+
+        assertSame(rolledBack, patronService.addPatrons(List.of(testPatron), 100));
+
+        try (MockedStatic<PatronDAO> rows = mockStatic(PatronDAO.class)) {
+            rows.when(() -> PatronDAO.getPatronById(1)).thenReturn(testPatron);
+            patronService.getPatronById(1);
+            rows.verify(() -> PatronDAO.getPatronById(1));
+        }
+    }
+
+    @Test
+    void testAddPatrons_InvalidRowIsReportedBeforeWriting() throws SQLException {
+        Patron nameless = new Patron(2, "", "Mensah", "ama@example.com", "555", "Accra", LocalDate.now());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> patronService.addPatrons(List.of(testPatron, nameless), 100));
+
+        assertTrue(exception.getMessage().startsWith("Row 1: Patron first name cannot be null or empty"));
+        verify(patronDAO, never()).addPatrons(anyList(), anyInt());
+    }
+
     @Test
     void testAddPatron_NullFirstName() {
         // Arrange
@@ -166,7 +213,7 @@ public class PatronServiceTest {
         List<Patron> patronList = new ArrayList<>();
         patronList.add(testPatron);
 
-        when(patronDAO.searchPatronsByName(searchName)).thenReturn(patronList);
+        when(patronDAO.getAllPatrons()).thenReturn(patronList);
 
         // Act
         List<Patron> resultPatrons = patronService.searchPatronsByName(searchName);
@@ -175,6 +222,61 @@ public class PatronServiceTest {
         assertNotNull(resultPatrons);
         assertFalse(resultPatrons.isEmpty());
         assertEquals(1, resultPatrons.size());
-        verify(patronDAO).searchPatronsByName(searchName);
+        verify(patronDAO, never()).searchPatronsByName(anyString());
+    }
+
+    @Test
+    void testSearchPatronsByName_ToleratesMisspellingsAndRanksClosestFirst() throws SQLException {
+        Patron ama = new Patron(2, "Ama", "Mensah", "ama@example.com", "555", "Accra", LocalDate.now());
+        Patron kwame = new Patron(3, "Kwame", "Mensa", "kwame@example.com", "556", "Kumasi", LocalDate.now());
+        Patron kwami = new Patron(4, "Kwami", "Boateng", "kwami@example.com", "557", "Tema", LocalDate.now());
+        when(patronDAO.getAllPatrons()).thenReturn(List.of(testPatron, ama, kwame, kwami));
+
+        assertEquals(List.of(ama, kwame), patronService.searchPatronsByName("Mensah"));
+        assertEquals(List.of(kwame, kwami), patronService.searchPatronsByName("kwame"));
+        assertEquals(List.of(kwame), patronService.searchPatronsByName("kwamy mensa"));
+        assertEquals(List.of(ama), patronService.searchPatronsByName("amma mensah"));
+        assertTrue(patronService.searchPatronsByName("zzyzx").isEmpty());
+
+        patronService.applyChange(new Entity.ChangeEvent(1, Entity.Enums.ChangeEntity.PATRON, 2, Entity.Enums.ChangeOperation.DELETE));
+        assertEquals(List.of(kwame), patronService.searchPatronsByName("Mensah"));
+    }
+
+    @Test
+    void testSuggestPatrons_LoadsNamesOnceAndMatchesEitherNameFirst() throws SQLException {
+        Patron ama = new Patron(2, "Ama", "Mensah", "ama@example.com", "555", "Accra", LocalDate.now());
+        Patron kofi = new Patron(3, "Kofi", "Annan", "kofi@example.com", "556", "Kumasi", LocalDate.now());
+        when(patronDAO.getAllPatrons()).thenReturn(List.of(testPatron, ama, kofi));
+
+        assertEquals(List.of(ama), patronService.suggestPatrons("men", 10));
+        assertEquals(List.of(ama, kofi), patronService.suggestPatrons("A", 10), "Ama Mensah, then Annan Kofi");
+        assertEquals(List.of(ama), patronService.suggestPatrons("  AMA   mens", 10));
+        assertEquals(1, patronService.suggestPatrons("", 1).size());
+
+        patronService.applyChange(new Entity.ChangeEvent(1, Entity.Enums.ChangeEntity.PATRON, 3, Entity.Enums.ChangeOperation.DELETE));
+        assertEquals(List.of(ama), patronService.suggestPatrons("a", 10));
+        verify(patronDAO, times(1)).getAllPatrons();
+    }
+
+    @Test
+    void testSuggestPatrons_RereadsOnlyThePatronsChangedElsewhere() throws SQLException {
+        Patron ama = new Patron(2, "Ama", "Mensah", "ama@example.com", "555", "Accra", LocalDate.now());
+        Patron renamed = new Patron(2, "Ama", "Owusu", "ama@example.com", "555", "Accra", LocalDate.now());
+        Patron kofi = new Patron(3, "Kofi", "Annan", "kofi@example.com", "556", "Kumasi", LocalDate.now());
+        when(patronDAO.getAllPatrons()).thenReturn(List.of(testPatron, ama));
+        assertEquals(List.of(ama), patronService.suggestPatrons("men", 10));
+
+        try (MockedStatic<PatronDAO> rows = mockStatic(PatronDAO.class)) {
+            rows.when(() -> PatronDAO.getPatronById(2)).thenReturn(renamed);
+            rows.when(() -> PatronDAO.getPatronById(3)).thenReturn(kofi);
+            patronService.applyChange(new Entity.ChangeEvent(1, Entity.Enums.ChangeEntity.PATRON, 2, Entity.Enums.ChangeOperation.UPDATE));
+            patronService.applyChange(new Entity.ChangeEvent(2, Entity.Enums.ChangeEntity.PATRON, 3, Entity.Enums.ChangeOperation.INSERT));
+
+            assertTrue(patronService.suggestPatrons("men", 10).isEmpty());
+            assertEquals(List.of(renamed), patronService.suggestPatrons("owu", 10));
+            assertEquals(List.of(kofi), patronService.suggestPatrons("kofi", 10));
+            rows.verify(() -> PatronDAO.getPatronById(anyInt()), times(2));
+        }
+        verify(patronDAO, times(1)).getAllPatrons();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    @Test
+    void testTopMatchesComeInNameOrderAndStopAtTheLimit() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(3, "Mockingbird Lane");
+        index.put(1, "To Kill a Mockingbird", "Kill a Mockingbird");
+        index.put(2, "Moby Dick");
+        index.put(4, "Things Fall Apart");
+
+        assertEquals(List.of(2, 3), index.top("mo", 10));
+        assertEquals(List.of(2), index.top("MO", 1));
+        assertEquals(List.of(1), index.top("kill a m", 10));
+        assertEquals(List.of(4, 1), index.top("t", 10));
+        assertTrue(index.top("zz", 10).isEmpty());
+    }
+
+    @Test
+    void testRenamingAndRemovingReplaceTheOldNames() {
+        PrefixIndex index = new PrefixIndex();
+        index.put(1, "Ama Mensah", "Mensah Ama");
+        index.put(1, "Ama Owusu", "Owusu Ama");
+
+        assertTrue(index.top("mensah", 10).isEmpty());
+        assertEquals(List.of(1), index.top("owu", 10));
+        assertEquals(List.of(1), index.top("ama", 10), "Both names start with ama, but the patron is listed once.");
+
+        index.remove(1);
+        assertTrue(index.top("", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+}
@@ -51,7 +51,7 @@ public class ReservationServiceTest {
     @Test
     void testAddReservation_Success() throws SQLException {
         // Arrange
-        doNothing().when(reservationDAO).addReservation(any(Reservation.class));
+        when(reservationDAO.addReservation(any(Reservation.class))).thenReturn(testReservation);
 
         // Act
         reservationService.addReservation(testReservation);
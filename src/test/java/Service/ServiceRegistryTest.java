@@ -0,0 +1,85 @@
+package Service;
+
+import DAO.BookDAO;
+import Entity.Book;
+import Entity.Enums.BookStatus;
+import Exception.BookException;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.powermock.reflect.Whitebox;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ServiceRegistryTest {
+
+    private static final int BOOKS = 200;
+
+    // BookDAO.getBookById is static, so the lookups are stubbed on the class
+    private static MockedStatic<BookDAO> stubLookups() {
+        MockedStatic<BookDAO> bookDAO = mockStatic(BookDAO.class);
+        bookDAO.when(() -> BookDAO.getBookById(anyInt())).thenAnswer(invocation -> {
+            int id = invocation.getArgument(0);
+            return new Book(id, "Title " + id, "Author", 2001, "Fiction", BookStatus.AVAILABLE, null);
+        });
+        return bookDAO;
+    }
+
+    // The books screen and the circulation desk each look up the same books once
+    private static void twoScreensBrowse(BookService books, BookService desk) throws BookException {
+        for (int id = 1; id <= BOOKS; id++) {
+            books.getBookById(id);
+        }
+        for (int id = 1; id <= BOOKS; id++) {
+            desk.getBookById(id);
+        }
+    }
+
+    @Test
+    void testSharedBookServiceServesOtherScreensFromCache() throws Exception {
+        double separateHitRate;
+        try (MockedStatic<BookDAO> bookDAO = stubLookups()) {
+            BookService booksScreen = new BookService();
+            BookService deskScreen = new BookService();
+            twoScreensBrowse(booksScreen, deskScreen);
+            separateHitRate = (booksScreen.getCacheStats().getHitCount() + deskScreen.getCacheStats().getHitCount())
+                    / (double) (2 * BOOKS);
+            bookDAO.verify(() -> BookDAO.getBookById(anyInt()), times(2 * BOOKS));
+        }
+
+        double sharedHitRate;
+        try (MockedStatic<BookDAO> bookDAO = stubLookups()) {
+            ServiceRegistry registry = new ServiceRegistry(new CirculationCounters(), new BookService(), new PatronService(), new ReservationService(), new StaffService(), new StatisticsService());
+            twoScreensBrowse(registry.getBookService(), registry.getBookService());
+            sharedHitRate = registry.getBookService().getCacheStats().getHitRate();
+            bookDAO.verify(() -> BookDAO.getBookById(anyInt()), times(BOOKS));
+        }
+
+        assertEquals(0.0, separateHitRate, "A service per screen: every lookup misses.");
+        assertEquals(0.5, sharedHitRate, "Shared: the second screen hits every book the first one read.");
+    }
+
+    @Test
+    void testTransactionServiceUsesTheSharedBookService() {
+        ServiceRegistry registry = new ServiceRegistry(new CirculationCounters(), new BookService(), new PatronService(), new ReservationService(), new StaffService(), new StatisticsService());
+
+        assertSame(registry.getBookService(), Whitebox.getInternalState(registry.getTransactionService(), "bookService"));
+    }
+
+    @Test
+    void testCacheReportHasNoHitRateBeforeAnyRequest() {
+        ServiceRegistry registry = new ServiceRegistry(new CirculationCounters(), new BookService(), new PatronService(), new ReservationService(), new StaffService(), new StatisticsService());
+
+        assertTrue(registry.cacheReport().startsWith("Book cache: 0 requests, n/a hits, 0 evictions"));
+    }
+
+    @Test
+    void testGetReturnsOneInstanceUntilShutdown() {
+        ServiceRegistry first = ServiceRegistry.get();
+
+        assertSame(first, ServiceRegistry.get());
+        ServiceRegistry.shutdown();
+        assertNotSame(first, ServiceRegistry.get());
+    }
+}
@@ -0,0 +1,86 @@
+package Service;
+
+import DAO.CirculationBaseline;
+import DAO.StatisticsDAO;
+import Entity.Enums.BookStatus;
+import Entity.LibraryStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatisticsServiceTest {
+
+    @Mock
+    private StatisticsDAO statisticsDAO;
+
+    private CirculationCounters counters;
+    private StatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        counters = new CirculationCounters();
+        statisticsService = new StatisticsService(statisticsDAO, counters);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statisticsService.close();
+    }
+
+    private static CirculationBaseline baseline(long available, long borrowed) {
+        return new CirculationBaseline(Map.of(BookStatus.AVAILABLE, available, BookStatus.BORROWED, borrowed),
+                Map.of(), Map.of(), Map.of(), Map.of(), 0);
+    }
+
+    @Test
+    void testOnlyTheFirstReadGoesToTheDatabase() throws SQLException {
+        when(statisticsDAO.getCirculationBaseline()).thenReturn(baseline(10, 2));
+
+        assertEquals(12, statisticsService.getStatistics().getTotalBooks());
+        counters.bookStatusChanged(BookStatus.AVAILABLE, BookStatus.BORROWED);
+        LibraryStatistics statistics = statisticsService.getStatistics();
+
+        assertEquals(9, statistics.getBooks(BookStatus.AVAILABLE));
+        assertEquals(3, statistics.getBooks(BookStatus.BORROWED));
+        verify(statisticsDAO, times(1)).getCirculationBaseline();
+    }
+
+    @Test
+    void testReconcileCorrectsDriftFromOtherWriters() throws SQLException {
+        when(statisticsDAO.getCirculationBaseline()).thenReturn(baseline(10, 2), baseline(8, 4));
+        statisticsService.getStatistics();
+
+        statisticsService.reconcile();
+
+        assertEquals(8, statisticsService.getStatistics().getBooks(BookStatus.AVAILABLE));
+        verify(statisticsDAO, times(2)).getCirculationBaseline();
+    }
+
+    @Test
+    void testAWriteCountedDuringTheReadIsNotCountedTwice() throws SQLException {
+        when(statisticsDAO.getCirculationBaseline()).thenReturn(baseline(10, 2));
+        statisticsService.getStatistics();
+
+        // A loan commits and is counted while the query runs, and the query already sees it
+        when(statisticsDAO.getCirculationBaseline()).thenAnswer(invocation -> {
+            counters.bookStatusChanged(BookStatus.AVAILABLE, BookStatus.BORROWED);
+            return baseline(9, 3);
+        }).thenReturn(baseline(9, 3));
+        statisticsService.reconcile();
+
+        LibraryStatistics statistics = statisticsService.getStatistics();
+        assertEquals(9, statistics.getBooks(BookStatus.AVAILABLE));
+        assertEquals(3, statistics.getBooks(BookStatus.BORROWED));
+        verify(statisticsDAO, times(3)).getCirculationBaseline();
+    }
+}
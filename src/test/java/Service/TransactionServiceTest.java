@@ -4,11 +4,16 @@ import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 
+import DAO.BatchResult;
 import DAO.TransactionDAO;
 import Entity.Book;
+import Entity.ChangeEvent;
 import Entity.Transaction;
 import Entity.Enums.BookStatus;
+import Entity.Enums.ChangeEntity;
+import Entity.Enums.ChangeOperation;
 import Entity.Enums.TransactionType;
 import Exception.BookException;
 import org.junit.jupiter.api.*;
@@ -22,6 +27,8 @@ import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @ExtendWith(MockitoExtension.class)
 public class TransactionServiceTest {
@@ -65,7 +72,7 @@ public class TransactionServiceTest {
     @Test
     void testAddTransaction_Success() throws SQLException, BookException {
         // Arrange
-        doNothing().when(transactionDAO).addTransaction(any(Transaction.class));
+        when(transactionDAO.addTransaction(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
         doNothing().when(bookService).updateBookStatus(anyInt(), any(BookStatus.class));
 
         // Act
@@ -76,6 +83,46 @@ public class TransactionServiceTest {
         verify(bookService).updateBookStatus(testTransaction.getBookId(), BookStatus.BORROWED);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAddTransactions_UpdatesTheBookCachesOnceCommitted() throws SQLException {
+        Transaction returned = new Transaction(2, 102, 202, LocalDate.now().minusDays(3), LocalDate.now(),
+                LocalDate.now().plusDays(11), BigDecimal.ZERO, TransactionType.RETURN);
+        BatchResult<Transaction> committed = mock(BatchResult.class);
+        when(committed.isCommitted()).thenReturn(true);
+        when(transactionDAO.addTransactionsWithBookStatus(List.of(testTransaction, returned), 100)).thenReturn(committed);
+
+        assertSame(committed, transactionService.addTransactions(List.of(testTransaction, returned), 100));
+
+        verify(bookService).bookStatusesChanged(List.of(201), BookStatus.BORROWED);
+        verify(bookService).bookStatusesChanged(List.of(202), BookStatus.AVAILABLE);
+        verify(transactionDAO, never()).addTransactions(anyList(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAddTransactions_RolledBackBatchLeavesTheBooksAlone() throws SQLException {
+        BatchResult<Transaction> rolledBack = mock(BatchResult.class);
+        when(rolledBack.isCommitted()).thenReturn(false);
+        when(transactionDAO.addTransactionsWithBookStatus(List.of(testTransaction), 100)).thenReturn(rolledBack);
+
+        assertSame(rolledBack, transactionService.addTransactions(List.of(testTransaction), 100));
+
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void testAddTransactions_InvalidRowIsReportedBeforeWriting() throws SQLException {
+        Transaction noPatron = new Transaction(2, 0, 202, LocalDate.now(), null,
+                LocalDate.now().plusDays(14), BigDecimal.ZERO, TransactionType.BORROW);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> transactionService.addTransactions(List.of(testTransaction, noPatron), 100));
+
+        assertTrue(exception.getMessage().startsWith("Row 1: "));
+        verify(transactionDAO, never()).addTransactionsWithBookStatus(anyList(), anyInt());
+    }
+
     @Test
     void testAddTransaction_InvalidPatronId() {
         // Arrange
@@ -150,32 +197,43 @@ public class TransactionServiceTest {
         // Arrange
         int patronId = 101;
         int bookId = 201;
-        doNothing().when(transactionDAO).addTransaction(any(Transaction.class));
-        doNothing().when(bookService).updateBookStatus(anyInt(), any(BookStatus.class));
+        when(transactionDAO.borrowBook(any(Transaction.class))).thenReturn(true);
 
         // Act
         transactionService.borrowBook(patronId, bookId);
 
-        // Assert
-        verify(transactionDAO).addTransaction(any(Transaction.class));
-        verify(bookService).updateBookStatus(bookId, BookStatus.BORROWED);
+        // Assert: one DAO call claims the book and records the loan
+        verify(transactionDAO).borrowBook(argThat((Transaction transaction) ->
+                transaction.getPatronId() == patronId && transaction.getBookId() == bookId));
+        verify(transactionDAO, never()).addTransaction(any(Transaction.class));
+        verify(bookService).bookStatusChanged(bookId, BookStatus.BORROWED);
+    }
+
+    @Test
+    void testBorrowBook_BookNotAvailable() throws SQLException {
+        // Arrange
+        when(transactionDAO.borrowBook(any(Transaction.class))).thenReturn(false);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> transactionService.borrowBook(101, 201));
+
+        assertTrue(exception.getMessage().contains("not available"));
+        verifyNoInteractions(bookService);
     }
 
     @Test
     void testReturnBook_Success() throws SQLException, BookException {
         // Arrange
         int transactionId = 1;
-        when(transactionDAO.getTransactionById(transactionId)).thenReturn(testTransaction);
-        doNothing().when(transactionDAO).addTransaction(any(Transaction.class));
-        doNothing().when(bookService).updateBookStatus(anyInt(), any(BookStatus.class));
+        when(transactionDAO.returnBook(eq(transactionId), eq(LocalDate.now()), any(BigDecimal.class))).thenReturn(testTransaction);
 
         // Act
         transactionService.returnBook(transactionId);
 
-        // Assert
-        verify(transactionDAO).getTransactionById(transactionId);
-        verify(transactionDAO).addTransaction(any(Transaction.class));
-        verify(bookService).updateBookStatus(testTransaction.getBookId(), BookStatus.AVAILABLE);
+        // Assert: the loan is closed in place, never re-inserted
+        verify(transactionDAO, never()).addTransaction(any(Transaction.class));
+        verify(bookService).bookStatusChanged(testTransaction.getBookId(), BookStatus.AVAILABLE);
     }
 
     @Test
@@ -192,27 +250,21 @@ public class TransactionServiceTest {
                 BigDecimal.ZERO,
                 TransactionType.BORROW
         );
-        when(transactionDAO.getTransactionById(transactionId)).thenReturn(lateTransaction);
-        doNothing().when(transactionDAO).addTransaction(any(Transaction.class));
-        doNothing().when(bookService).updateBookStatus(anyInt(), any(BookStatus.class));
+        when(transactionDAO.returnBook(eq(transactionId), eq(LocalDate.now()), any(BigDecimal.class))).thenReturn(lateTransaction);
 
         // Act
         transactionService.returnBook(transactionId);
 
-        // Assert
-        verify(transactionDAO).getTransactionById(transactionId);
-        verify(transactionDAO).addTransaction(argThat(transaction ->
-                transaction.getFine().compareTo(BigDecimal.ZERO) > 0 &&
-                        transaction.getTransactionType() == TransactionType.RETURN
-        ));
-        verify(bookService).updateBookStatus(lateTransaction.getBookId(), BookStatus.AVAILABLE);
+        // Assert: the fine is charged per day late
+        verify(transactionDAO).returnBook(transactionId, LocalDate.now(), BigDecimal.ONE);
+        verify(bookService).bookStatusChanged(lateTransaction.getBookId(), BookStatus.AVAILABLE);
     }
 
     @Test
     void testReturnBook_TransactionNotFound() throws SQLException {
         // Arrange
         int transactionId = 999;
-        when(transactionDAO.getTransactionById(transactionId)).thenReturn(null);
+        when(transactionDAO.returnBook(eq(transactionId), any(LocalDate.class), any(BigDecimal.class))).thenReturn(null);
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class,
@@ -220,4 +272,53 @@ public class TransactionServiceTest {
 
         assertTrue(exception.getMessage().contains("Transaction not found"));
     }
+
+    @Test
+    void testSearchTransactions_ReadsTheTableOnceThenOnlyChangedRows() throws SQLException {
+        // Arrange
+        Transaction returned = new Transaction(2, 101, 202, LocalDate.now().minusDays(3), LocalDate.now(),
+                LocalDate.now().plusDays(11), BigDecimal.ZERO, TransactionType.RETURN);
+        doAnswer(invocation -> {
+            Consumer<Transaction> visitor = invocation.getArgument(0);
+            visitor.accept(testTransaction);
+            visitor.accept(returned);
+            return 2L;
+        }).when(transactionDAO).forEachTransaction(any());
+
+        // Act & Assert: the patron's transactions, newest first, then narrowed by type and date
+        assertEquals(List.of(2, 1), ids(transactionService.searchTransactions("101", null, null)));
+        assertEquals(List.of(1), ids(transactionService.searchTransactions(" 101 ", TransactionType.BORROW, null)));
+        assertEquals(List.of(2), ids(transactionService.searchTransactions("", null, returned.getBorrowDate())));
+        assertEquals(List.of(), ids(transactionService.searchTransactions("abc", null, null)));
+
+        // A loan recorded here, which another desk then closes before this one searches again
+        Transaction recorded = new Transaction(5, 102, 205, LocalDate.now(), null,
+                LocalDate.now().plusDays(14), BigDecimal.ZERO, TransactionType.BORROW);
+        transactionService.addTransaction(recorded);
+        Transaction closedElsewhere = new Transaction(5, 102, 205, LocalDate.now(), LocalDate.now(),
+                LocalDate.now().plusDays(14), BigDecimal.ZERO, TransactionType.RETURN);
+        transactionService.applyChange(new ChangeEvent(5, ChangeEntity.TRANSACTION, 5, ChangeOperation.INSERT));
+        transactionService.applyChange(new ChangeEvent(6, ChangeEntity.TRANSACTION, 5, ChangeOperation.UPDATE));
+
+        // Another desk renews loan 1 and removes loan 3 before this client reads it; only changed rows are read again
+        Transaction renewed = new Transaction(1, 101, 201, LocalDate.now().minusDays(1), null,
+                LocalDate.now().plusDays(14), BigDecimal.ZERO, TransactionType.BORROW);
+        when(transactionDAO.getTransactionsByIds(Set.of(1, 3, 5))).thenReturn(List.of(renewed, closedElsewhere));
+        transactionService.applyChange(new ChangeEvent(7, ChangeEntity.TRANSACTION, 1, ChangeOperation.UPDATE));
+        transactionService.applyChange(new ChangeEvent(8, ChangeEntity.TRANSACTION, 2, ChangeOperation.DELETE));
+        transactionService.applyChange(new ChangeEvent(9, ChangeEntity.TRANSACTION, 3, ChangeOperation.INSERT));
+
+        assertEquals(List.of(1), ids(transactionService.searchTransactions("101", null, null)));
+        assertEquals(List.of(1), ids(transactionService.searchTransactions("201", null, renewed.getBorrowDate())));
+        assertEquals(List.of(5), ids(transactionService.searchTransactions("102", TransactionType.RETURN, null)));
+        assertEquals(List.of(), ids(transactionService.searchTransactions("102", TransactionType.BORROW, null)));
+        verify(transactionDAO, times(1)).forEachTransaction(any());
+        verify(transactionDAO, times(1)).getTransactionsByIds(any());
+        verify(transactionDAO, never()).getTransactionById(anyInt());
+        verify(transactionDAO, never()).getAllTransactions();
+    }
+
+    private static List<Integer> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getTransactionId).toList();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package Service;
+
+import Entity.Enums.TransactionType;
+import Entity.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionStoreTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static Transaction transaction(int id, int patronId, int bookId, LocalDate borrowDate, TransactionType type) {
+        return new Transaction(id, patronId, bookId, borrowDate, null, borrowDate.plusDays(14), BigDecimal.ZERO, type);
+    }
+
+    private static List<Integer> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getTransactionId).toList();
+    }
+
+    @Test
+    void testUpdatesMoveTransactionsBetweenIndexes() {
+        TransactionStore store = new TransactionStore();
+        Transaction loan = transaction(1, 10, 100, START, TransactionType.BORROW);
+        store.put(loan);
+        store.put(transaction(2, 11, 10, START, TransactionType.BORROW));
+
+        assertEquals(List.of(2, 1), ids(store.search(10, null, null)), "Patron 10, and book 10.");
+        assertEquals(List.of(1), ids(store.search(1, null, null)), "Transaction 1.");
+
+        loan.setTransactionType(TransactionType.RETURN); // The caller's copy; the store is unaffected until put
+        assertEquals(List.of(), ids(store.search(null, TransactionType.RETURN, null)));
+        store.put(loan);
+        assertEquals(List.of(1), ids(store.search(null, TransactionType.RETURN, null)));
+        assertEquals(List.of(2), ids(store.search(null, TransactionType.BORROW, START)));
+
+        store.remove(2);
+        assertEquals(List.of(1), ids(store.search(10, null, null)));
+        assertEquals(List.of(), ids(store.search(null, TransactionType.BORROW, null)));
+        assertEquals(List.of(), ids(store.search(null, null, START.plusDays(1))));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testMatchesAScanOfALargeTable() {
+        Random random = new Random(11);
+        TransactionType[] types = TransactionType.values();
+        List<Transaction> transactions = IntStream.rangeClosed(1, 200_000)
+                .mapToObj(id -> transaction(id, 1 + random.nextInt(5_000), 1 + random.nextInt(20_000),
+                        START.plusDays(random.nextInt(365)), types[random.nextInt(types.length)]))
+                .toList();
+        TransactionStore store = new TransactionStore();
+        transactions.forEach(store::put);
+
+        for (int query = 0; query < 200; query++) {
+            Integer number = random.nextInt(3) == 0 ? null : 1 + random.nextInt(20_000);
+            TransactionType type = random.nextBoolean() ? null : types[random.nextInt(types.length)];
+            LocalDate date = random.nextInt(3) == 0 ? null : START.plusDays(random.nextInt(365));
+            List<Integer> expected = transactions.stream()
+                    .filter(t -> number == null || t.getTransactionId() == number || t.getPatronId() == number || t.getBookId() == number)
+                    .filter(t -> type == null || t.getTransactionType() == type)
+                    .filter(t -> date == null || date.equals(t.getBorrowDate()))
+                    .map(Transaction::getTransactionId)
+                    .sorted((a, b) -> Integer.compare(b, a))
+                    .toList();
+            assertEquals(expected, ids(store.search(number, type, date)), number + " " + type + " " + date);
+        }
+    }
+}
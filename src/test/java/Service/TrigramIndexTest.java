@@ -0,0 +1,35 @@
+package Service;
+
+import Entity.Book;
+import Entity.Enums.BookStatus;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private static Book book(int id, String title, String author) {
+        return new Book(id, title, author, 2001, "Fiction", BookStatus.AVAILABLE, null);
+    }
+
+    @Test
+    void testCandidatesFollowChangesInAnyIdOrder() {
+        TrigramIndex index = new TrigramIndex();
+        index.put(null, book(300, "Mockingbird Lane", "A. Writer"));
+        index.put(null, book(70_000, "The Hammock", "B. Writer"));
+        index.put(null, book(5, "Mock Trial", "C. Writer")); // Lower than the IDs already listed
+
+        assertArrayEquals(new int[]{5, 300, 70_000}, index.candidates("MOCK"));
+        assertNull(index.candidates("mo"), "Too short to look up.");
+        assertArrayEquals(new int[0], index.candidates("zebra"));
+
+        Book renamed = book(300, "Blue Lane", "A. Writer");
+        index.put(book(300, "Mockingbird Lane", "A. Writer"), renamed);
+        assertArrayEquals(new int[]{5, 70_000}, index.candidates("mock"));
+        assertArrayEquals(new int[]{300}, index.candidates("blue"));
+
+        index.remove(book(5, "Mock Trial", "C. Writer"));
+        assertArrayEquals(new int[]{70_000}, index.candidates("mock"));
+        assertArrayEquals(new int[]{300, 70_000}, index.candidates("writer"));
+    }
+}